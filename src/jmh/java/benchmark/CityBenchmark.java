@@ -0,0 +1,42 @@
+package benchmark;
+
+import model.City;
+import model.EventLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single simulation tick ({@link City#update()} and the rules in
+ * {@link model.RuleApplier}) on generated cities of increasing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CityBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private City city;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        city = CityFixtures.generate(size, CityFixtures.DEFAULT_SEED);
+        EventLog.getInstance().clear();
+    }
+
+    @Benchmark
+    public City update() {
+        city.update();
+        return city;
+    }
+
+    @Benchmark
+    public City applyRules() {
+        city.applyRules();
+        return city;
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import model.City;
+import model.Position;
+import model.buildings.*;
+
+import java.util.Random;
+
+/**
+ * Generates reproducible cities for benchmarks. The same size and seed
+ * always produce the same buildings in the same order.
+ */
+public class CityFixtures {
+    public static final long DEFAULT_SEED = 210;
+    private static final double OCCUPANCY = 0.8;
+    private static final BuildingType[] TYPES = BuildingType.values();
+
+    /**
+     * Generate a city with the given number of buildings, scattered over a square
+     * grid so that roughly {@code OCCUPANCY} of the cells are filled.
+     *
+     * @param size The number of buildings to generate.
+     * @param seed The seed for the random generator.
+     * @return The generated city.
+     */
+    public static City generate(int size, long seed) {
+        Random random = new Random(seed);
+        City city = new City(String.format("Generated %s", size));
+        city.setMoney(50000);
+        city.setPopulation(size);
+
+        int side = gridSide(size);
+        int placed = 0;
+        for (int y = 0; y < side && placed < size; y++) {
+            for (int x = 0; x < side && placed < size; x++) {
+                if (random.nextDouble() < OCCUPANCY || side * side - (y * side + x) <= size - placed) {
+                    city.getMap().addBuilding(createBuilding(random, placed, new Position(x, y)));
+                    placed++;
+                }
+            }
+        }
+        return city;
+    }
+
+    /**
+     * Get the side length of the square grid used for a city with the given number of buildings.
+     *
+     * @param size The number of buildings.
+     */
+    public static int gridSide(int size) {
+        return (int) Math.ceil(Math.sqrt(size / OCCUPANCY));
+    }
+
+    /**
+     * Create a building of a random type with random properties.
+     *
+     * @param random   The random generator to draw from.
+     * @param index    The index of the building, used in its name.
+     * @param position The position of the building.
+     */
+    private static Building createBuilding(Random random, int index, Position position) {
+        BuildingType type = TYPES[random.nextInt(TYPES.length)];
+        String name = String.format("%s %s", Building.typeToString(type), index);
+        int value = 1000 + random.nextInt(20000);
+        switch (type) {
+            case BUSINESS:
+                return new Business(name, value, 40 + random.nextInt(100), position);
+            case FIRE_HALL:
+                return new FireHall(name, value, position);
+            case HOSPITAL:
+                return new Hospital(name, value, position);
+            case HOUSING:
+                return new Housing(name, value, 100 + random.nextInt(100), position);
+            case LANDFILL:
+                return new Landfill(name, value, 10000, position);
+            case PARK:
+                return new Park(name, value, 1.5, position);
+            case POWER_PLANT:
+                return new PowerPlant(name, value, 100, position);
+            default:
+                return new School(name, value, 1000, position);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package benchmark;
+
+import model.EventKind;
+import model.EventLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventLog} logging throughput with one and with many producing threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventLogBenchmark {
+    @Setup(Level.Iteration)
+    public void setup() {
+        EventLog.getInstance().clear();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logSingleThread() {
+        EventLog.getInstance().logEvent(EventKind.MONEY_UPDATED, 42);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void logEightThreads() {
+        EventLog.getInstance().logEvent(EventKind.MONEY_UPDATED, 42);
+    }
+}
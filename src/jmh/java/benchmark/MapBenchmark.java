@@ -0,0 +1,142 @@
+package benchmark;
+
+import model.BuildingQuery;
+import model.City;
+import model.Map;
+import model.Position;
+import model.buildings.Building;
+import model.buildings.BuildingType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Map} queries on generated cities of increasing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    private static final int QUERY_COUNT = 1024;
+    private static final int RANGE_SIZE = 32;
+    private static final double RADIUS = 16;
+    private static final int NEAREST_COUNT = 10;
+    private static final BuildingQuery NAME_QUERY =
+            new BuildingQuery("Housing 12", null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    private static final BuildingQuery VALUE_QUERY = new BuildingQuery(null, null, 5000, 5100);
+    private static final BuildingQuery TYPE_QUERY =
+            new BuildingQuery(null, BuildingType.PARK, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Map map;
+    private Position[] positions;
+    private Building[] buildings;
+    private Position[] emptyCells;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        City city = CityFixtures.generate(size, CityFixtures.DEFAULT_SEED);
+        map = city.getMap();
+
+        Random random = new Random(CityFixtures.DEFAULT_SEED);
+        int side = CityFixtures.gridSide(size);
+        positions = new Position[QUERY_COUNT];
+        buildings = new Building[QUERY_COUNT];
+        emptyCells = new Position[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            positions[i] = new Position(random.nextInt(side), random.nextInt(side));
+            buildings[i] = map.getBuilding(random.nextInt(size));
+            do {
+                emptyCells[i] = new Position(random.nextInt(side), random.nextInt(side));
+            } while (map.checkBuildingCollision(emptyCells[i]));
+        }
+    }
+
+    @Benchmark
+    public Building getBuildingAtPosition() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return map.findBuildingAtPosition(positions[next]);
+    }
+
+    @Benchmark
+    public boolean checkBuildingCollision() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return map.checkBuildingCollision(positions[next]);
+    }
+
+    @Benchmark
+    public void getBuildingsFromType(Blackhole blackhole) {
+        for (BuildingType type : BuildingType.values()) {
+            List<Building> buildings = map.getBuildingsFromType(type);
+            blackhole.consume(buildings.size());
+        }
+    }
+
+    @Benchmark
+    public Building moveBuilding() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        Building b = buildings[next];
+        Position home = b.getPosition();
+        b.setPosition(emptyCells[next]);
+        b.setPosition(home);
+        return b;
+    }
+
+    @Benchmark
+    public List<Building> getAdjacentBuildings() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return map.getAdjacentBuildings(buildings[next]);
+    }
+
+    @Benchmark
+    public void forEachBuildingIn(Blackhole blackhole) {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        Position p = positions[next];
+        map.forEachBuildingIn(p.getX(), p.getY(), p.getX() + RANGE_SIZE - 1, p.getY() + RANGE_SIZE - 1,
+                blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachBuildingWithin(Blackhole blackhole) {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        Position p = positions[next];
+        map.forEachBuildingWithin(p.getX(), p.getY(), RADIUS, blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Building> findNearestBuildings() {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        Position p = positions[next];
+        return map.findNearestBuildings(p.getX(), p.getY(), NEAREST_COUNT);
+    }
+
+    @Benchmark
+    public Map verifyAggregates() {
+        map.verifyAggregates();
+        return map;
+    }
+
+    @Benchmark
+    public List<Building> findBuildingsByName() {
+        return map.findBuildings(NAME_QUERY);
+    }
+
+    @Benchmark
+    public List<Building> findBuildingsByValue() {
+        return map.findBuildings(VALUE_QUERY);
+    }
+
+    @Benchmark
+    public List<Building> findBuildingsByType() {
+        return map.findBuildings(TYPE_QUERY);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import model.City;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+import persistence.SnapshotReader;
+import persistence.SnapshotWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks saving and loading generated cities of increasing size as JSON and as binary snapshots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private City city;
+    private File readFile;
+    private File writeFile;
+    private File snapshotReadFile;
+    private File snapshotWriteFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        city = CityFixtures.generate(size, CityFixtures.DEFAULT_SEED);
+        readFile = File.createTempFile("mini_city_read", ".json");
+        writeFile = File.createTempFile("mini_city_write", ".json");
+        new JsonWriter(readFile.getPath()).writeAndClose(city);
+        snapshotReadFile = File.createTempFile("mini_city_read", ".snapshot");
+        snapshotWriteFile = File.createTempFile("mini_city_write", ".snapshot");
+        new SnapshotWriter(snapshotReadFile.getPath()).write(city);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        readFile.delete();
+        writeFile.delete();
+        snapshotReadFile.delete();
+        snapshotWriteFile.delete();
+    }
+
+    @Benchmark
+    public City read() throws IOException {
+        return new JsonReader(readFile.getPath()).read();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        new JsonWriter(writeFile.getPath()).writeAndClose(city);
+    }
+
+    @Benchmark
+    public City readSnapshot() throws IOException {
+        return new SnapshotReader(snapshotReadFile.getPath()).read();
+    }
+
+    @Benchmark
+    public void writeSnapshot() throws IOException {
+        new SnapshotWriter(snapshotWriteFile.getPath()).write(city);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import model.CitySnapshot;
+import org.openjdk.jmh.annotations.*;
+import ui.components.graphics.Buffer;
+import ui.components.graphics.Camera;
+import ui.components.graphics.TilePyramid;
+import ui.util.ColorMap;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmarks drawing a generated city into a 1000x1000 view, one building at a time versus from a
+ * {@link TilePyramid}, at zooms on both sides of where the map view switches to the pyramid. Above that
+ * zoom the pyramid is drawn at level 1 for comparison only: the map view draws buildings one by one there,
+ * so that every cell can still be told apart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class RenderBenchmark {
+    private static final int VIEW_SIZE = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"0.5", "1.5", "4"})
+    public double zoom;
+
+    private CitySnapshot snapshot;
+    private Buffer buffer;
+    private Camera camera;
+    private TilePyramid pyramid;
+    private int level;
+    private IntConsumer buildingDrawer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        snapshot = new CitySnapshot(CityFixtures.generate(size, CityFixtures.DEFAULT_SEED), 0);
+        buffer = new Buffer(VIEW_SIZE, VIEW_SIZE);
+        camera = new Camera(zoom);
+        level = Math.max(1, TilePyramid.chooseLevel(zoom));
+        pyramid = new TilePyramid();
+        pyramid.rebuild(snapshot);
+        // hoisted like in the map view, so drawing a frame does not allocate a visitor
+        buildingDrawer = i -> {
+            buffer.setColor(ColorMap.getBuildingColor(snapshot.getBuildingType(i)));
+            int x = camera.cellToScreenX(snapshot.getX(i));
+            int y = camera.cellToScreenY(snapshot.getY(i));
+            buffer.fillRect(x, y, camera.cellToScreenX(snapshot.getX(i) + 1) - x,
+                    camera.cellToScreenY(snapshot.getY(i) + 1) - y);
+        };
+    }
+
+    @Benchmark
+    public Buffer drawBuildings() {
+        buffer.clear(Color.WHITE);
+        snapshot.forEachBuildingIn(camera.screenToCellX(0), camera.screenToCellY(0),
+                camera.screenToCellX(VIEW_SIZE - 1), camera.screenToCellY(VIEW_SIZE - 1), buildingDrawer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Buffer drawPyramid() {
+        buffer.clear(Color.WHITE);
+        pyramid.draw(buffer, camera, level);
+        return buffer;
+    }
+
+    @Benchmark
+    public TilePyramid rebuildPyramid() {
+        pyramid.rebuild(snapshot);
+        return pyramid;
+    }
+}
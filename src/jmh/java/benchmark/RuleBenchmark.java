@@ -0,0 +1,40 @@
+package benchmark;
+
+import model.City;
+import model.EventLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the rules in {@link model.RuleApplier} in serial and parallel mode
+ * on generated cities of increasing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private City city;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        city = CityFixtures.generate(size, CityFixtures.DEFAULT_SEED);
+        city.getRuleApplier().setParallel(parallel);
+        EventLog.getInstance().clear();
+    }
+
+    @Benchmark
+    public City applyRules() {
+        city.applyRules();
+        return city;
+    }
+}
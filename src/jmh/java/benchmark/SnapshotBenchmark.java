@@ -0,0 +1,86 @@
+package benchmark;
+
+import model.City;
+import model.CityChanges;
+import model.CitySnapshot;
+import model.LayoutDelta;
+import model.buildings.Building;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks taking {@link CitySnapshot}s and querying the visible part of them,
+ * as the map view does for every frame, on generated cities of increasing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+    private static final int QUERY_COUNT = 1024;
+    private static final int VIEW_WIDTH = 48;
+    private static final int VIEW_HEIGHT = 27;
+    private static final int VALUE_CHANGE_COUNT = 100;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private City city;
+    private CitySnapshot snapshot;
+    private CityChanges valueChanges;
+    private int[] viewXs;
+    private int[] viewYs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        city = CityFixtures.generate(size, CityFixtures.DEFAULT_SEED);
+        snapshot = new CitySnapshot(city, 0);
+
+        Random random = new Random(CityFixtures.DEFAULT_SEED);
+        int side = CityFixtures.gridSide(size);
+        viewXs = new int[QUERY_COUNT];
+        viewYs = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            viewXs[i] = random.nextInt(side);
+            viewYs[i] = random.nextInt(side);
+        }
+
+        Set<Building> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < VALUE_CHANGE_COUNT; i++) {
+            changed.add(city.getMap().getBuilding(random.nextInt(size)));
+        }
+        valueChanges = new CityChanges(new LayoutDelta.Recorder(1).take(), changed, true, false, false);
+    }
+
+    @Benchmark
+    public CitySnapshot takeSnapshot() {
+        return new CitySnapshot(city, 1);
+    }
+
+    @Benchmark
+    public CitySnapshot takeSnapshotSameLayout() {
+        return new CitySnapshot(city, 1, snapshot, null);
+    }
+
+    @Benchmark
+    public CitySnapshot takeSnapshotFewValueChanges() {
+        return new CitySnapshot(city, 1, snapshot, valueChanges);
+    }
+
+    @Benchmark
+    public void queryVisible(Blackhole blackhole) {
+        next = (next + 1) & (QUERY_COUNT - 1);
+        int x = viewXs[next];
+        int y = viewYs[next];
+        snapshot.forEachBuildingIn(x, y, x + VIEW_WIDTH - 1, y + VIEW_HEIGHT - 1, blackhole::consume);
+    }
+}
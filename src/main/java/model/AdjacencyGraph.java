@@ -0,0 +1,195 @@
+package model;
+
+import model.buildings.Building;
+
+import java.util.AbstractList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The buildings next to each building of a {@link Map}, kept up to date as buildings are added,
+ * removed and moved, so that finding the neighbours of a building takes constant time and no allocation.
+ * The neighbour in each direction is the first building at the cell in that direction, as returned by
+ * {@link Map#findBuildingAt(int, int)}. Keeping the graph up to date does not allocate either, apart from
+ * the entry of a newly added building.
+ */
+class AdjacencyGraph {
+    static final int DIRECTIONS = 4;
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+    private final IdentityHashMap<Building, Neighbours> neighbours = new IdentityHashMap<>();
+    private final Map map;
+
+    /**
+     * Create an empty graph for the given map.
+     *
+     * @param map The map whose position index the graph follows.
+     */
+    AdjacencyGraph(Map map) {
+        this.map = map;
+    }
+
+    /**
+     * Add a building to the graph. Must be called after the building was added to the map's position index.
+     *
+     * @param building The building that was added.
+     */
+    void add(Building building) {
+        Neighbours entry = new Neighbours();
+        neighbours.put(building, entry);
+        fill(entry, building.getPosition());
+    }
+
+    /**
+     * Remove a building from the graph. Must be called after the building was removed from the map's position index.
+     *
+     * @param building The building that was removed.
+     * @param position The position the building was at.
+     */
+    void remove(Building building, Position position) {
+        neighbours.remove(building);
+        refreshAround(position.getX(), position.getY());
+    }
+
+    /**
+     * Update the graph after a building moved. Must be called after the map's position index was updated.
+     *
+     * @param building    The building that moved.
+     * @param oldPosition The position the building was at before it moved.
+     */
+    void move(Building building, Position oldPosition) {
+        Neighbours entry = neighbours.get(building);
+        if (entry == null) {
+            return;
+        }
+        refreshAround(oldPosition.getX(), oldPosition.getY());
+        fill(entry, building.getPosition());
+    }
+
+    /**
+     * Get the buildings next to the given building, in the order above, right, below and left.
+     *
+     * @param building The building to get the neighbours of.
+     * @return A read-only view of the neighbours that follows later changes,
+     *         or {@code null} if the building is not in the graph.
+     */
+    List<Building> get(Building building) {
+        return neighbours.get(building);
+    }
+
+    /**
+     * Returns the x coordinate of the cell next to a cell in the given direction.
+     *
+     * @param x         The x coordinate of the cell to start from.
+     * @param direction The index of the direction, in the order above, right, below and left.
+     */
+    static int offsetX(int x, int direction) {
+        return x + DX[direction];
+    }
+
+    /**
+     * Returns the y coordinate of the cell next to a cell in the given direction.
+     *
+     * @param y         The y coordinate of the cell to start from.
+     * @param direction The index of the direction, in the order above, right, below and left.
+     */
+    static int offsetY(int y, int direction) {
+        return y + DY[direction];
+    }
+
+    /**
+     * Set every neighbour of a building at the given position, then update the buildings around it.
+     *
+     * @param entry    The neighbours of the building.
+     * @param position The position of the building.
+     */
+    private void fill(Neighbours entry, Position position) {
+        int x = position.getX();
+        int y = position.getY();
+        for (int d = 0; d < DIRECTIONS; d++) {
+            entry.setNeighbour(d, map.findBuildingAt(x + DX[d], y + DY[d]));
+        }
+        refreshAround(x, y);
+    }
+
+    /**
+     * Update the neighbours of the buildings around the given cell, after the buildings at the cell changed.
+     *
+     * @param x The x coordinate of the cell whose buildings changed.
+     * @param y The y coordinate of the cell whose buildings changed.
+     */
+    private void refreshAround(int x, int y) {
+        Building first = map.findBuildingAt(x, y);
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int facing = (d + 2) % DIRECTIONS;
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            List<Building> stack = map.stackAt(nx, ny);
+            if (stack == null) {
+                setNeighbour(map.findBuildingAt(nx, ny), facing, first);
+            } else {
+                for (int i = 0; i < stack.size(); i++) {
+                    setNeighbour(stack.get(i), facing, first);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the neighbour of a building in the given direction, if the building is in the graph.
+     *
+     * @param building  The building whose neighbour changed, or {@code null}.
+     * @param direction The index of the direction.
+     * @param neighbour The new neighbour, or {@code null} if the cell is empty.
+     */
+    private void setNeighbour(Building building, int direction, Building neighbour) {
+        Neighbours entry = building == null ? null : neighbours.get(building);
+        if (entry != null) {
+            entry.setNeighbour(direction, neighbour);
+        }
+    }
+
+    /**
+     * The neighbours of one building, stored by direction and listed without the empty directions.
+     */
+    private static class Neighbours extends AbstractList<Building> implements RandomAccess {
+        private final Building[] cells = new Building[DIRECTIONS];
+        private int size;
+
+        /**
+         * Set the neighbour in the given direction.
+         *
+         * @param direction The index of the direction.
+         * @param building  The new neighbour, or {@code null} if the cell is empty.
+         */
+        void setNeighbour(int direction, Building building) {
+            if (cells[direction] == null) {
+                size++;
+            }
+            if (building == null) {
+                size--;
+            }
+            cells[direction] = building;
+        }
+
+        @Override
+        public Building get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int seen = 0;
+            for (Building cell : cells) {
+                if (cell != null && seen++ == index) {
+                    return cell;
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
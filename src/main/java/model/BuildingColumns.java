@@ -0,0 +1,229 @@
+package model;
+
+import model.buildings.Building;
+import model.buildings.BuildingType;
+import model.buildings.Business;
+import model.buildings.Housing;
+import model.buildings.PowerPlant;
+
+import java.util.Arrays;
+
+/**
+ * The state of the buildings of a {@link Map} that is read in bulk, stored column by column in
+ * primitive arrays so whole-map passes walk memory in order instead of following a reference to
+ * every building. Row {@code i} holds the building at index {@code i} of the map's building list;
+ * the map keeps the rows in sync as buildings are added, removed, moved and change value.
+ */
+class BuildingColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final BuildingType[] TYPES = BuildingType.values();
+    private int[] xs;
+    private int[] ys;
+    private int[] types;
+    private int[] values;
+    private int[] capacities;
+    private int size;
+
+    /**
+     * Create new empty columns.
+     */
+    BuildingColumns() {
+        xs = new int[INITIAL_CAPACITY];
+        ys = new int[INITIAL_CAPACITY];
+        types = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        capacities = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Get the capacity that a building adds to its type's total: the resident capacity of housing,
+     * the worker capacity of a business, or the production rate of a power plant.
+     *
+     * @param building The building to get the capacity of.
+     * @return The capacity of the building, or {@code 0} if its type has none.
+     */
+    static int capacityOf(Building building) {
+        switch (building.getBuildingType()) {
+            case HOUSING:
+                return ((Housing) building).getResidentCapacity();
+            case BUSINESS:
+                return ((Business) building).getWorkerCapacity();
+            case POWER_PLANT:
+                return ((PowerPlant) building).getProductionRate();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Get the tax income of a building of the given value, rounded towards zero per building.
+     *
+     * @param value   The value of the building.
+     * @param taxRate The tax rate.
+     * @return The tax income of the building.
+     */
+    static int taxIncomeOf(int value, double taxRate) {
+        return (int) (value * taxRate);
+    }
+
+    /**
+     * Append a row for the given building.
+     *
+     * @param building The building that was added to the end of the building list.
+     */
+    void add(Building building) {
+        if (size == xs.length) {
+            int capacity = size * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+            capacities = Arrays.copyOf(capacities, capacity);
+        }
+        Position position = building.getPosition();
+        xs[size] = position.getX();
+        ys[size] = position.getY();
+        types[size] = building.getBuildingType().ordinal();
+        values[size] = building.getValue();
+        capacities[size] = capacityOf(building);
+        size++;
+    }
+
+    /**
+     * Remove the row at the given index by moving the last row into its place,
+     * the same way the building list removes buildings.
+     *
+     * @param index The index of the row to remove.
+     */
+    void swapRemove(int index) {
+        size--;
+        xs[index] = xs[size];
+        ys[index] = ys[size];
+        types[index] = types[size];
+        values[index] = values[size];
+        capacities[index] = capacities[size];
+    }
+
+    /**
+     * Record that the building at the given index moved.
+     *
+     * @param index    The index of the building.
+     * @param position The new position of the building.
+     */
+    void setPosition(int index, Position position) {
+        xs[index] = position.getX();
+        ys[index] = position.getY();
+    }
+
+    /**
+     * Record that the value of the building at the given index changed.
+     *
+     * @param index The index of the building.
+     * @param value The new value of the building.
+     */
+    void setValue(int index, int value) {
+        values[index] = value;
+    }
+
+    /**
+     * Returns the number of rows.
+     */
+    int size() {
+        return size;
+    }
+
+    int getX(int index) {
+        return xs[index];
+    }
+
+    int getY(int index) {
+        return ys[index];
+    }
+
+    BuildingType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    int getValue(int index) {
+        return values[index];
+    }
+
+    int getCapacity(int index) {
+        return capacities[index];
+    }
+
+    /**
+     * Returns a new array with the x coordinate of every building, in building list order.
+     */
+    int[] copyXs() {
+        return Arrays.copyOf(xs, size);
+    }
+
+    /**
+     * Returns a new array with the y coordinate of every building, in building list order.
+     */
+    int[] copyYs() {
+        return Arrays.copyOf(ys, size);
+    }
+
+    /**
+     * Returns a new array with the value of every building, in building list order.
+     */
+    int[] copyValues() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Copy the value of every building, in building list order, into the given array if it is large enough.
+     *
+     * @param values The array to reuse, or {@code null}.
+     * @return The given array, or a new one if it was too small, starting with the values.
+     */
+    int[] copyValues(int[] values) {
+        if (values == null || values.length < size) {
+            values = new int[size];
+        }
+        System.arraycopy(this.values, 0, values, 0, size);
+        return values;
+    }
+
+    /**
+     * Returns the sum of the values of every building.
+     */
+    long sumValues() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Get the sum of the tax incomes of every building, see {@link #taxIncomeOf(int, double)}.
+     *
+     * @param taxRate The tax rate.
+     * @return The total tax income.
+     */
+    long sumTaxIncomes(double taxRate) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += taxIncomeOf(values[i], taxRate);
+        }
+        return sum;
+    }
+
+    /**
+     * Get the sum of the capacities of the buildings of a type, see {@link #capacityOf(Building)}.
+     *
+     * @param type The type of the buildings to sum.
+     * @return The total capacity of the buildings of the given type.
+     */
+    int sumCapacities(BuildingType type) {
+        int ordinal = type.ordinal();
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += types[i] == ordinal ? capacities[i] : 0;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,113 @@
+package model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable spatial index over building positions, used by {@link CitySnapshot} to answer
+ * "which buildings are inside this rectangle" without looking at every building.
+ * The grid is split into square buckets of {@code BUCKET_SIZE} cells, each holding the indices
+ * of the buildings inside it in ascending order.
+ */
+class BuildingGrid {
+    static final int BUCKET_SHIFT = 4;
+    static final int BUCKET_SIZE = 1 << BUCKET_SHIFT;
+    private static final int[] EMPTY = new int[0];
+    private final LongHashMap<int[]> buckets;
+    private final int[] xs;
+    private final int[] ys;
+
+    /**
+     * Build a grid over the given building coordinates.
+     * Requires that {@code xs.length == ys.length}. The arrays must not be modified afterwards.
+     *
+     * @param xs The x coordinate of each building.
+     * @param ys The y coordinate of each building.
+     */
+    BuildingGrid(int[] xs, int[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        buckets = new LongHashMap<>();
+
+        // count the buildings in each bucket first so every bucket is allocated at its exact size
+        LongHashMap<int[]> counts = new LongHashMap<>();
+        for (int i = 0; i < xs.length; i++) {
+            long key = bucketKey(xs[i] >> BUCKET_SHIFT, ys[i] >> BUCKET_SHIFT);
+            int[] count = counts.get(key);
+            if (count == null) {
+                count = new int[1];
+                counts.put(key, count);
+            }
+            count[0]++;
+        }
+        for (int i = 0; i < xs.length; i++) {
+            long key = bucketKey(xs[i] >> BUCKET_SHIFT, ys[i] >> BUCKET_SHIFT);
+            int[] count = counts.get(key);
+            int[] bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new int[count[0]];
+                buckets.put(key, bucket);
+            }
+            // the count goes down to zero as the bucket fills up from the front
+            bucket[bucket.length - count[0]--] = i;
+        }
+    }
+
+    /**
+     * Visit the index of every building inside the given rectangle of cells (bounds inclusive).
+     * Buildings are visited bucket by bucket, not in index order.
+     *
+     * @param minX    The smallest x coordinate of the rectangle.
+     * @param minY    The smallest y coordinate of the rectangle.
+     * @param maxX    The largest x coordinate of the rectangle.
+     * @param maxY    The largest y coordinate of the rectangle.
+     * @param visitor Called with the index of every building inside the rectangle.
+     */
+    void query(int minX, int minY, int maxX, int maxY, IntConsumer visitor) {
+        for (int by = minY >> BUCKET_SHIFT; by <= maxY >> BUCKET_SHIFT; by++) {
+            for (int bx = minX >> BUCKET_SHIFT; bx <= maxX >> BUCKET_SHIFT; bx++) {
+                for (int i : getBucket(bx, by)) {
+                    if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                        visitor.accept(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the index of the first building at the given cell.
+     *
+     * @param x The x grid coordinate.
+     * @param y The y grid coordinate.
+     * @return The smallest index of a building at the cell, or {@code -1} if the cell is empty.
+     */
+    int find(int x, int y) {
+        for (int i : getBucket(x >> BUCKET_SHIFT, y >> BUCKET_SHIFT)) {
+            if (xs[i] == x && ys[i] == y) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the indices of the buildings in the given bucket, in ascending order.
+     *
+     * @param bx The x coordinate of the bucket.
+     * @param by The y coordinate of the bucket.
+     */
+    private int[] getBucket(int bx, int by) {
+        int[] bucket = buckets.get(bucketKey(bx, by));
+        return bucket == null ? EMPTY : bucket;
+    }
+
+    /**
+     * Returns a key that uniquely identifies a bucket.
+     *
+     * @param bx The x coordinate of the bucket.
+     * @param by The y coordinate of the bucket.
+     */
+    private static long bucketKey(int bx, int by) {
+        return Position.key(bx, by);
+    }
+}
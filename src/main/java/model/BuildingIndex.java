@@ -0,0 +1,86 @@
+package model;
+
+import model.buildings.Building;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A sorted index of buildings by a key such as their name, used by {@link Map} to find
+ * buildings by key or key range without looking at every building.
+ * Buildings that share a key are kept in the order they were added, and can be removed in constant time.
+ *
+ * @param <K> The type of the key.
+ */
+class BuildingIndex<K extends Comparable<K>> {
+    private final TreeMap<K, Set<Building>> entries = new TreeMap<>();
+    // the last bucket that became empty, reused for the next new key so moving a building
+    // between keys does not create a new set every time
+    private Set<Building> spare;
+
+    /**
+     * Add a building to the index under the given key.
+     *
+     * @param key      The key to index the building under.
+     * @param building The building to index.
+     */
+    void add(K key, Building building) {
+        Set<Building> buildings = entries.get(key);
+        if (buildings == null) {
+            buildings = spare != null ? spare : new LinkedHashSet<>(2);
+            spare = null;
+            entries.put(key, buildings);
+        }
+        buildings.add(building);
+    }
+
+    /**
+     * Remove a building from the index under the given key.
+     *
+     * @param key      The key the building is indexed under.
+     * @param building The building to remove.
+     */
+    void remove(K key, Building building) {
+        Set<Building> buildings = entries.get(key);
+        if (buildings == null) {
+            return;
+        }
+        buildings.remove(building);
+        if (buildings.isEmpty()) {
+            entries.remove(key);
+            spare = buildings;
+        }
+    }
+
+    /**
+     * Get the first building that was added under the given key.
+     *
+     * @param key The key to look up.
+     * @return The first building with the key, or {@code null} if there is none.
+     */
+    Building first(K key) {
+        Set<Building> buildings = entries.get(key);
+        return buildings == null ? null : buildings.iterator().next();
+    }
+
+    /**
+     * Get the buildings with keys in the given range, grouped by key in ascending key order.
+     *
+     * @param from The smallest key in the range (inclusive), or {@code null} for no lower bound.
+     * @param to   The key just past the range (exclusive), or {@code null} for no upper bound.
+     * @return A read-only view of the matching groups of buildings.
+     */
+    Collection<Set<Building>> range(K from, K to) {
+        NavigableMap<K, Set<Building>> range = entries;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, false);
+        }
+        return range.values();
+    }
+}
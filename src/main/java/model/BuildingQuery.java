@@ -0,0 +1,72 @@
+package model;
+
+import model.buildings.Building;
+import model.buildings.BuildingType;
+
+/**
+ * A set of conditions that buildings can be searched by with {@link Map#findBuildings(BuildingQuery)}.
+ * A building matches the query when it matches every condition that is set.
+ */
+public class BuildingQuery {
+    private final String namePrefix;
+    private final BuildingType type;
+    private final int minValue;
+    private final int maxValue;
+
+    /**
+     * Create a new query.
+     *
+     * @param namePrefix The text building names must start with, or {@code null} or empty to allow any name.
+     * @param type       The type buildings must have, or {@code null} to allow any type.
+     * @param minValue   The smallest allowed value (inclusive), {@link Integer#MIN_VALUE} for no lower bound.
+     * @param maxValue   The largest allowed value (inclusive), {@link Integer#MAX_VALUE} for no upper bound.
+     */
+    public BuildingQuery(String namePrefix, BuildingType type, int minValue, int maxValue) {
+        this.namePrefix = namePrefix == null ? "" : namePrefix;
+        this.type = type;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Returns whether the given building matches every condition of this query.
+     *
+     * @param b The building to check.
+     */
+    public boolean matches(Building b) {
+        return b.getName().startsWith(namePrefix)
+                && (type == null || b.getBuildingType() == type)
+                && b.getValue() >= minValue
+                && b.getValue() <= maxValue;
+    }
+
+    /**
+     * Returns whether this query restricts building names.
+     */
+    public boolean hasNamePrefix() {
+        return !namePrefix.isEmpty();
+    }
+
+    /**
+     * Returns whether this query restricts building values.
+     */
+    public boolean hasValueRange() {
+        return minValue != Integer.MIN_VALUE || maxValue != Integer.MAX_VALUE;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public BuildingType getType() {
+        return type;
+    }
+
+    public int getMinValue() {
+        return minValue;
+    }
+
+    public int getMaxValue() {
+        return maxValue;
+    }
+}
@@ -0,0 +1,197 @@
+package model;
+
+import model.buildings.Building;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A square block of {@code SIZE} by {@code SIZE} cells of a {@link Map}, holding the buildings placed in it.
+ * Each cell of the occupancy array holds the first building added at that cell. The rare cells with more
+ * than one building also have a list of all of them, in the order they were added.
+ */
+class Chunk {
+    static final int SHIFT = 6;
+    static final int SIZE = 1 << SHIFT;
+    static final int MASK = SIZE - 1;
+    private final int originX;
+    private final int originY;
+    private final Building[] cells = new Building[SIZE * SIZE];
+    private final List<Building> buildings = new ArrayList<>();
+    private LongHashMap<List<Building>> stacks;
+
+    /**
+     * Create a new empty chunk.
+     *
+     * @param chunkX The x coordinate of the chunk, i.e. the x coordinate of its cells shifted right by {@code SHIFT}.
+     * @param chunkY The y coordinate of the chunk.
+     */
+    Chunk(int chunkX, int chunkY) {
+        originX = chunkX << SHIFT;
+        originY = chunkY << SHIFT;
+    }
+
+    /**
+     * Add a building at the given cell, which must be inside this chunk.
+     *
+     * @param building The building to add.
+     * @param x        The x coordinate of the cell.
+     * @param y        The y coordinate of the cell.
+     */
+    void add(Building building, int x, int y) {
+        int cell = cellIndex(x, y);
+        buildings.add(building);
+        if (cells[cell] == null) {
+            cells[cell] = building;
+            return;
+        }
+        if (stacks == null) {
+            stacks = new LongHashMap<>();
+        }
+        List<Building> stack = stacks.get(cell);
+        if (stack == null) {
+            stack = new ArrayList<>();
+            stack.add(cells[cell]);
+            stacks.put(cell, stack);
+        }
+        stack.add(building);
+    }
+
+    /**
+     * Remove a building from the given cell, which must be inside this chunk.
+     *
+     * @param building The building to remove.
+     * @param x        The x coordinate of the cell the building is at.
+     * @param y        The y coordinate of the cell the building is at.
+     */
+    void remove(Building building, int x, int y) {
+        int cell = cellIndex(x, y);
+        List<Building> stack = stacks == null ? null : stacks.get(cell);
+        if (stack != null) {
+            if (!stack.remove(building)) {
+                return;
+            }
+            cells[cell] = stack.get(0);
+            if (stack.size() == 1) {
+                stacks.remove(cell);
+            }
+        } else if (cells[cell] == building) {
+            cells[cell] = null;
+        } else {
+            return;
+        }
+        for (int i = buildings.size() - 1; i >= 0; i--) {
+            if (buildings.get(i) == building) {
+                Building last = buildings.remove(buildings.size() - 1);
+                if (i < buildings.size()) {
+                    buildings.set(i, last);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the first building added at the given cell, which must be inside this chunk.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The building, or {@code null} if the cell is empty.
+     */
+    Building first(int x, int y) {
+        return cells[cellIndex(x, y)];
+    }
+
+    /**
+     * Get every building at the given cell, which must be inside this chunk, if there is more than one.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return A list of the buildings in the order they were added, which must not be modified,
+     *         or {@code null} if the cell holds at most one building.
+     */
+    List<Building> stack(int x, int y) {
+        return stacks == null ? null : stacks.get(cellIndex(x, y));
+    }
+
+    /**
+     * Visit the buildings at the cells of this chunk that are inside the given rectangle
+     * and within a distance of a center cell. Walks the cells of the rectangle, or the building
+     * list if it is shorter.
+     *
+     * @param minX               The smallest x coordinate of the rectangle.
+     * @param minY               The smallest y coordinate of the rectangle.
+     * @param maxX               The largest x coordinate of the rectangle.
+     * @param maxY               The largest y coordinate of the rectangle.
+     * @param x                  The x coordinate of the center cell.
+     * @param y                  The y coordinate of the center cell.
+     * @param maxDistanceSquared The square of the largest allowed distance to the center cell.
+     * @param visitor            Called with every matching building.
+     */
+    void query(int minX, int minY, int maxX, int maxY, int x, int y,
+               double maxDistanceSquared, Consumer<Building> visitor) {
+        int fromX = Math.max(minX, originX) - originX;
+        int fromY = Math.max(minY, originY) - originY;
+        int toX = Math.min(maxX, originX + MASK) - originX;
+        int toY = Math.min(maxY, originY + MASK) - originY;
+        if (fromX > toX || fromY > toY) {
+            return;
+        }
+        if ((toX - fromX + 1) * (toY - fromY + 1) > buildings.size()) {
+            for (int i = 0; i < buildings.size(); i++) {
+                Building b = buildings.get(i);
+                Position p = b.getPosition();
+                if (p.getX() >= minX && p.getX() <= maxX && p.getY() >= minY && p.getY() <= maxY
+                        && distanceSquared(p.getX(), p.getY(), x, y) <= maxDistanceSquared) {
+                    visitor.accept(b);
+                }
+            }
+            return;
+        }
+        for (int cy = fromY; cy <= toY; cy++) {
+            long dy = (long) originY + cy - y;
+            for (int cx = fromX; cx <= toX; cx++) {
+                Building b = cells[(cy << SHIFT) | cx];
+                if (b == null) {
+                    continue;
+                }
+                long dx = (long) originX + cx - x;
+                if (dx * dx + dy * dy > maxDistanceSquared) {
+                    continue;
+                }
+                List<Building> stack = stacks == null ? null : stacks.get((cy << SHIFT) | cx);
+                if (stack == null) {
+                    visitor.accept(b);
+                } else {
+                    for (int i = 0; i < stack.size(); i++) {
+                        visitor.accept(stack.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of buildings in this chunk.
+     */
+    int size() {
+        return buildings.size();
+    }
+
+    /**
+     * Returns the index in the occupancy array of the given cell.
+     */
+    private static int cellIndex(int x, int y) {
+        return ((y & MASK) << SHIFT) | (x & MASK);
+    }
+
+    /**
+     * Returns the square of the distance between two cells.
+     */
+    private static long distanceSquared(int x1, int y1, int x2, int y2) {
+        long dx = (long) x1 - x2;
+        long dy = (long) y1 - y2;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,240 @@
+package model;
+
+import model.buildings.Building;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * The sparse world of a {@link Map}: the grid is split into {@link Chunk}s of {@code Chunk.SIZE} by
+ * {@code Chunk.SIZE} cells that are created when a building is first placed in them and dropped when
+ * their last building leaves, so empty space costs no memory. Finding the buildings at a cell, inside a
+ * rectangle, within a radius of a cell, or nearest to a cell looks only at the chunks involved.
+ */
+class ChunkGrid {
+    private static final int FIRST_NEAREST_REACH = 4;
+    private final LongHashMap<Chunk> chunks = new LongHashMap<>();
+    // the bounds of every chunk that was ever used, so searches know when to stop
+    private int minChunkX = Integer.MAX_VALUE;
+    private int minChunkY = Integer.MAX_VALUE;
+    private int maxChunkX = Integer.MIN_VALUE;
+    private int maxChunkY = Integer.MIN_VALUE;
+
+    /**
+     * Add a building at the given position, creating its chunk if needed.
+     *
+     * @param building The building to add.
+     * @param position The position to add the building at.
+     */
+    void add(Building building, Position position) {
+        int cx = position.getX() >> Chunk.SHIFT;
+        int cy = position.getY() >> Chunk.SHIFT;
+        long key = chunkKey(cx, cy);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(cx, cy);
+            chunks.put(key, chunk);
+            minChunkX = Math.min(minChunkX, cx);
+            minChunkY = Math.min(minChunkY, cy);
+            maxChunkX = Math.max(maxChunkX, cx);
+            maxChunkY = Math.max(maxChunkY, cy);
+        }
+        chunk.add(building, position.getX(), position.getY());
+    }
+
+    /**
+     * Remove a building from the given position, dropping its chunk if it becomes empty.
+     *
+     * @param building The building to remove.
+     * @param position The position the building was added at.
+     */
+    void remove(Building building, Position position) {
+        long key = chunkKey(position.getX() >> Chunk.SHIFT, position.getY() >> Chunk.SHIFT);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            return;
+        }
+        chunk.remove(building, position.getX(), position.getY());
+        if (chunk.size() == 0) {
+            chunks.remove(key);
+        }
+    }
+
+    /**
+     * Get the first building added at the given cell.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The building, or {@code null} if the cell is empty.
+     */
+    Building first(int x, int y) {
+        Chunk chunk = chunks.get(chunkKey(x >> Chunk.SHIFT, y >> Chunk.SHIFT));
+        return chunk == null ? null : chunk.first(x, y);
+    }
+
+    /**
+     * Get every building at the given cell, if there is more than one.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return A list of the buildings in the order they were added, which must not be modified,
+     *         or {@code null} if the cell holds at most one building.
+     */
+    List<Building> stack(int x, int y) {
+        Chunk chunk = chunks.get(chunkKey(x >> Chunk.SHIFT, y >> Chunk.SHIFT));
+        return chunk == null ? null : chunk.stack(x, y);
+    }
+
+    /**
+     * Returns the number of chunks that hold at least one building.
+     */
+    int getNumOfChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * Visit every building inside the given rectangle of cells (bounds inclusive), in no particular order.
+     *
+     * @param minX    The smallest x coordinate of the rectangle.
+     * @param minY    The smallest y coordinate of the rectangle.
+     * @param maxX    The largest x coordinate of the rectangle.
+     * @param maxY    The largest y coordinate of the rectangle.
+     * @param visitor Called with every building inside the rectangle.
+     */
+    void forEachIn(int minX, int minY, int maxX, int maxY, Consumer<Building> visitor) {
+        query(minX, minY, maxX, maxY, 0, 0, Double.POSITIVE_INFINITY, visitor);
+    }
+
+    /**
+     * Visit every building whose distance to the given cell is at most the given radius, in no particular order.
+     *
+     * @param x       The x coordinate of the cell.
+     * @param y       The y coordinate of the cell.
+     * @param radius  The largest allowed distance, in cells.
+     * @param visitor Called with every building within the radius.
+     */
+    void forEachWithin(int x, int y, double radius, Consumer<Building> visitor) {
+        if (!(radius >= 0)) {
+            return;
+        }
+        int reach = (int) Math.min(Integer.MAX_VALUE, Math.floor(radius));
+        query(clamp((long) x - reach), clamp((long) y - reach), clamp((long) x + reach), clamp((long) y + reach),
+                x, y, radius * radius, visitor);
+    }
+
+    /**
+     * Find the buildings closest to the given cell. Buildings at the same distance are ordered by ID.
+     * Squares of doubling size around the cell are searched until the farthest building found is no
+     * farther than the edge of the square, or the square covers every chunk.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param k The largest number of buildings to find.
+     * @return A new list of at most {@code k} buildings, nearest first.
+     */
+    List<Building> nearest(int x, int y, int k) {
+        List<Building> result = new ArrayList<>();
+        if (k <= 0 || chunks.size() == 0) {
+            return result;
+        }
+        Comparator<Building> nearestFirst = Comparator
+                .comparingLong((Building b) -> distanceSquared(b, x, y))
+                .thenComparingLong(Building::getId);
+        PriorityQueue<Building> farthestFirst = new PriorityQueue<>(nearestFirst.reversed());
+        Consumer<Building> keepNearest = b -> {
+            if (farthestFirst.size() < k) {
+                farthestFirst.add(b);
+            } else if (nearestFirst.compare(b, farthestFirst.peek()) < 0) {
+                farthestFirst.poll();
+                farthestFirst.add(b);
+            }
+        };
+
+        for (long reach = FIRST_NEAREST_REACH; ; reach *= 2) {
+            farthestFirst.clear();
+            query(clamp(x - reach), clamp(y - reach), clamp(x + reach), clamp(y + reach),
+                    0, 0, Double.POSITIVE_INFINITY, keepNearest);
+            boolean found = farthestFirst.size() == k
+                    && distanceSquared(farthestFirst.peek(), x, y) <= (double) reach * reach;
+            boolean coversAll = x - reach <= (long) minChunkX << Chunk.SHIFT
+                    && y - reach <= (long) minChunkY << Chunk.SHIFT
+                    && x + reach >= ((long) maxChunkX << Chunk.SHIFT) + Chunk.MASK
+                    && y + reach >= ((long) maxChunkY << Chunk.SHIFT) + Chunk.MASK;
+            if (found || coversAll) {
+                break;
+            }
+        }
+
+        result.addAll(farthestFirst);
+        result.sort(nearestFirst);
+        return result;
+    }
+
+    /**
+     * Visit the buildings inside a rectangle of cells that are also within a distance of a center cell.
+     * Walks the chunks overlapping the rectangle, or every chunk if there are fewer of those.
+     *
+     * @param minX               The smallest x coordinate of the rectangle.
+     * @param minY               The smallest y coordinate of the rectangle.
+     * @param maxX               The largest x coordinate of the rectangle.
+     * @param maxY               The largest y coordinate of the rectangle.
+     * @param x                  The x coordinate of the center cell.
+     * @param y                  The y coordinate of the center cell.
+     * @param maxDistanceSquared The square of the largest allowed distance to the center cell.
+     * @param visitor            Called with every matching building.
+     */
+    private void query(int minX, int minY, int maxX, int maxY, int x, int y,
+                       double maxDistanceSquared, Consumer<Building> visitor) {
+        if (minX > maxX || minY > maxY || chunks.size() == 0) {
+            return;
+        }
+        int fromX = Math.max(minX >> Chunk.SHIFT, minChunkX);
+        int fromY = Math.max(minY >> Chunk.SHIFT, minChunkY);
+        int toX = Math.min(maxX >> Chunk.SHIFT, maxChunkX);
+        int toY = Math.min(maxY >> Chunk.SHIFT, maxChunkY);
+        if (fromX > toX || fromY > toY) {
+            return;
+        }
+        if (((long) toX - fromX + 1) * ((long) toY - fromY + 1) > chunks.size()) {
+            chunks.forEachValue(chunk -> chunk.query(minX, minY, maxX, maxY, x, y, maxDistanceSquared, visitor));
+            return;
+        }
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                Chunk chunk = chunks.get(chunkKey(cx, cy));
+                if (chunk != null) {
+                    chunk.query(minX, minY, maxX, maxY, x, y, maxDistanceSquared, visitor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the square of the distance between a building and a cell.
+     */
+    private static long distanceSquared(Building b, int x, int y) {
+        long dx = b.getPosition().getX() - (long) x;
+        long dy = b.getPosition().getY() - (long) y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Returns the given coordinate clamped to the range of an {@code int}.
+     */
+    private static int clamp(long coordinate) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, coordinate));
+    }
+
+    /**
+     * Returns a key that uniquely identifies a chunk.
+     *
+     * @param cx The x coordinate of the chunk.
+     * @param cy The y coordinate of the chunk.
+     */
+    private static long chunkKey(int cx, int cy) {
+        return Position.key(cx, cy);
+    }
+}
@@ -1,12 +1,10 @@
 package model;
 
-import model.buildings.*;
+import model.buildings.Building;
 import model.exceptions.InsufficientMoneyException;
 import org.json.JSONObject;
 import persistence.Writable;
 
-import java.util.List;
-
 /**
  * Represents a city. Keeps track of buildings and other city information,
  * like name, funds, tax, and population.
@@ -25,6 +23,8 @@ public class City implements Writable, Summarizable {
     private int workerCapacity;
     private int energyUsage;
     private int energyCapacity;
+    private boolean verifyAggregates;
+    private CityListener listener;
 
     /**
      * Creates a new City with some default initial values.
@@ -50,14 +50,20 @@ public class City implements Writable, Summarizable {
 
     /**
      * Update all city statistics such as housing capacity, population, etc.
+     * Building totals are read from the map's running aggregates, so this does
+     * not depend on the number of buildings unless aggregate verification is enabled.
      */
     public void update() {
+        if (verifyAggregates) {
+            map.verifyAggregates();
+        }
         updateHousingCapacity();
         updateWorkerCapacity();
         updateEnergyCapacity();
         updateEnergyUsage();
         updatePopulation();
         updateMoney();
+        statsChanged();
     }
 
     /**
@@ -73,7 +79,7 @@ public class City implements Writable, Summarizable {
         if (population < 0) {
             population = 0;
         }
-        EventLog.getInstance().logEvent(new Event(String.format("Population updated to %s", population)));
+        EventLog.getInstance().logEvent(EventKind.POPULATION_UPDATED, population);
     }
 
     /**
@@ -82,13 +88,8 @@ public class City implements Writable, Summarizable {
      * @return The new housing capacity.
      */
     public int updateHousingCapacity() {
-        housingCapacity = 0;
-        List<Building> housingList = map.getBuildingsFromType(BuildingType.HOUSING);
-        for (Building b : housingList) {
-            Housing housing = (Housing) b;
-            housingCapacity = housingCapacity + housing.getResidentCapacity();
-        }
-        EventLog.getInstance().logEvent(new Event(String.format("Housing capacity updated to %s", housingCapacity)));
+        housingCapacity = map.getTotalResidentCapacity();
+        EventLog.getInstance().logEvent(EventKind.HOUSING_CAPACITY_UPDATED, housingCapacity);
         return housingCapacity;
     }
 
@@ -98,24 +99,18 @@ public class City implements Writable, Summarizable {
      * @return The new worker capacity.
      */
     public int updateWorkerCapacity() {
-        workerCapacity = 0;
-        List<Building> businessList = map.getBuildingsFromType(BuildingType.BUSINESS);
-        for (Building b : businessList) {
-            Business business = (Business) b;
-            workerCapacity = workerCapacity + business.getWorkerCapacity();
-        }
-        EventLog.getInstance().logEvent(new Event(String.format("Worker capacity updated to %s", workerCapacity)));
+        workerCapacity = map.getTotalWorkerCapacity();
+        EventLog.getInstance().logEvent(EventKind.WORKER_CAPACITY_UPDATED, workerCapacity);
         return workerCapacity;
     }
 
     /**
      * Updates the city's money by applying taxes to all buildings.
+     * The income of each building is rounded towards zero before it is added up.
      */
     public void updateMoney() {
-        for (Building b : map.getBuildings()) {
-            setMoney((int) (getMoney() + b.getValue() * taxRate));
-        }
-        EventLog.getInstance().logEvent(new Event(String.format("Money updated to %s", money)));
+        setMoney((int) (getMoney() + map.getTotalTaxIncome(taxRate)));
+        EventLog.getInstance().logEvent(EventKind.MONEY_UPDATED, money);
     }
 
     public void updateEnergyUsage() {
@@ -123,11 +118,7 @@ public class City implements Writable, Summarizable {
     }
 
     public void updateEnergyCapacity() {
-        int energy = 0;
-        for (Building building : map.getBuildingsFromType(BuildingType.POWER_PLANT)) {
-            energy += ((PowerPlant) building).getProductionRate();
-        }
-        energyCapacity = energy;
+        energyCapacity = map.getTotalProductionRate();
     }
 
     /**
@@ -138,7 +129,7 @@ public class City implements Writable, Summarizable {
      */
     public void buyBuilding(Building b) throws InsufficientMoneyException {
         if (b.getValue() <= getMoney()) {
-            EventLog.getInstance().logEvent(new Event(String.format("A building was bought for %s", b.getValue())));
+            EventLog.getInstance().logEvent(EventKind.BUILDING_BOUGHT, b.getValue());
             map.addBuilding(b);
             setMoney(getMoney() - b.getValue());
         } else {
@@ -148,14 +139,25 @@ public class City implements Writable, Summarizable {
 
     @Override
     public JSONObject toJson() {
+        JSONObject jsonObject = headerToJson();
+        jsonObject.put("map", map.toJson());
+
+        return jsonObject;
+    }
+
+    /**
+     * Returns the JSON representation of every city field except the map,
+     * so that the buildings can be written separately.
+     *
+     * @return The {@link JSONObject} holding the city's fields.
+     */
+    public JSONObject headerToJson() {
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("name", getName());
         jsonObject.put("population", getPopulation());
         jsonObject.put("money", getMoney());
         jsonObject.put("attraction", getAttraction());
         jsonObject.put("taxRate", getTaxRate());
-        jsonObject.put("map", map.toJson());
-
         return jsonObject;
     }
 
@@ -179,19 +181,28 @@ public class City implements Writable, Summarizable {
     }
 
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        if (listener != null) {
+            listener.nameChanged(oldName);
+        }
     }
 
     public Map getMap() {
         return map;
     }
 
+    public RuleApplier getRuleApplier() {
+        return applier;
+    }
+
     public int getPopulation() {
         return population;
     }
 
     public void setPopulation(int population) {
         this.population = population;
+        statsChanged();
     }
 
     public int getMoney() {
@@ -200,6 +211,7 @@ public class City implements Writable, Summarizable {
 
     public void setMoney(int money) {
         this.money = money;
+        statsChanged();
     }
 
     public double getAttraction() {
@@ -208,6 +220,7 @@ public class City implements Writable, Summarizable {
 
     public void setAttraction(double attraction) {
         this.attraction = attraction;
+        statsChanged();
     }
 
     public double getTaxRate() {
@@ -215,7 +228,11 @@ public class City implements Writable, Summarizable {
     }
 
     public void setTaxRate(double taxRate) {
+        double oldTaxRate = this.taxRate;
         this.taxRate = taxRate;
+        if (listener != null) {
+            listener.taxRateChanged(oldTaxRate);
+        }
     }
 
     public int getHousingCapacity() {
@@ -234,4 +251,41 @@ public class City implements Writable, Summarizable {
         return energyCapacity;
     }
 
+    public CityListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set the listener that is notified when this city or its map changes.
+     * The listener is also set as the map's listener.
+     *
+     * @param listener The new listener, or {@code null} for none.
+     */
+    public void setListener(CityListener listener) {
+        this.listener = listener;
+        map.setListener(listener);
+    }
+
+    public boolean isVerifyingAggregates() {
+        return verifyAggregates;
+    }
+
+    /**
+     * Enable or disable checking the map's running totals against
+     * a full recompute on every {@link City#update()}.
+     *
+     * @param verifyAggregates Whether to verify the running totals.
+     */
+    public void setVerifyAggregates(boolean verifyAggregates) {
+        this.verifyAggregates = verifyAggregates;
+    }
+
+    /**
+     * Notify the listener (if any) that the city's statistics may have changed.
+     */
+    private void statsChanged() {
+        if (listener != null) {
+            listener.statsChanged();
+        }
+    }
 }
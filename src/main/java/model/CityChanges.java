@@ -0,0 +1,194 @@
+package model;
+
+import model.buildings.Building;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * An immutable summary of what changed in a {@link City} between two {@link CitySnapshot}s.
+ * Changes are coalesced: a building whose value changed many times is listed once, and the
+ * statistics, tax rate and name are only flagged as changed, so views can update just the parts that changed.
+ */
+public class CityChanges {
+    private final LayoutDelta layoutDelta;
+    private final Set<Building> valueChanges;
+    private final boolean statsChanged;
+    private final boolean taxRateChanged;
+    private final boolean nameChanged;
+
+    /**
+     * Create a new set of changes.
+     *
+     * @param layoutDelta    The layout changes, or {@code null} if they are unknown.
+     * @param valueChanges   The buildings whose value changed, or {@code null} if they are unknown.
+     * @param statsChanged   Whether the city's statistics may have changed.
+     * @param taxRateChanged Whether the city's tax rate changed.
+     * @param nameChanged    Whether the city's name changed.
+     */
+    public CityChanges(LayoutDelta layoutDelta, Set<Building> valueChanges,
+                       boolean statsChanged, boolean taxRateChanged, boolean nameChanged) {
+        this.layoutDelta = layoutDelta;
+        this.valueChanges = valueChanges == null ? null : Collections.unmodifiableSet(valueChanges);
+        this.statsChanged = statsChanged;
+        this.taxRateChanged = taxRateChanged;
+        this.nameChanged = nameChanged;
+    }
+
+    /**
+     * Get the buildings that were added, removed and moved.
+     *
+     * @return The layout changes, or {@code null} if they are unknown.
+     */
+    public LayoutDelta getLayoutDelta() {
+        return layoutDelta;
+    }
+
+    /**
+     * Returns whether any building may have been added, removed or moved.
+     */
+    public boolean isLayoutChanged() {
+        return layoutDelta == null || layoutDelta.size() > 0;
+    }
+
+    /**
+     * Get the buildings whose value changed. Buildings that were removed may be included.
+     *
+     * @return A read-only set of the buildings, or {@code null} if they are unknown.
+     */
+    public Set<Building> getValueChanges() {
+        return valueChanges;
+    }
+
+    /**
+     * Returns whether the value of any building may have changed.
+     */
+    public boolean areValuesChanged() {
+        return valueChanges == null || !valueChanges.isEmpty();
+    }
+
+    /**
+     * Returns whether the value of the given building may have changed.
+     *
+     * @param b The building to check.
+     */
+    public boolean isValueChanged(Building b) {
+        return valueChanges == null || valueChanges.contains(b);
+    }
+
+    public boolean isStatsChanged() {
+        return statsChanged;
+    }
+
+    public boolean isTaxRateChanged() {
+        return taxRateChanged;
+    }
+
+    public boolean isNameChanged() {
+        return nameChanged;
+    }
+
+    /**
+     * Records the changes made to a {@link City} until they are taken as a {@link CityChanges}.
+     * If the recorder is reset, e.g. because the city was replaced, the next changes are unavailable.
+     */
+    public static class Recorder implements CityListener {
+        private final LayoutDelta.Recorder layout;
+        private final int maxValueChanges;
+        private Set<Building> valueChanges = newValueSet();
+        private boolean valuesOverflowed;
+        private boolean statsChanged;
+        private boolean taxRateChanged;
+        private boolean nameChanged;
+        private boolean unknown;
+
+        /**
+         * Create a new recorder.
+         *
+         * @param maxSize The number of layout changes, and separately of buildings with changed values,
+         *                after which recording them stops and they become unknown.
+         */
+        public Recorder(int maxSize) {
+            layout = new LayoutDelta.Recorder(maxSize);
+            maxValueChanges = maxSize;
+        }
+
+        @Override
+        public void buildingAdded(Building building, int index) {
+            layout.buildingAdded(building, index);
+        }
+
+        @Override
+        public void buildingRemoved(Building building, int index) {
+            layout.buildingRemoved(building, index);
+        }
+
+        @Override
+        public void buildingMoved(Building building, Position oldPosition) {
+            layout.buildingMoved(building, oldPosition);
+        }
+
+        @Override
+        public void buildingValueChanged(Building building, int oldValue) {
+            if (valuesOverflowed) {
+                return;
+            }
+            if (valueChanges.size() == maxValueChanges && !valueChanges.contains(building)) {
+                valuesOverflowed = true;
+                valueChanges.clear();
+                return;
+            }
+            valueChanges.add(building);
+        }
+
+        @Override
+        public void statsChanged() {
+            statsChanged = true;
+        }
+
+        @Override
+        public void taxRateChanged(double oldTaxRate) {
+            taxRateChanged = true;
+        }
+
+        @Override
+        public void nameChanged(String oldName) {
+            nameChanged = true;
+        }
+
+        /**
+         * Forget the changes recorded so far and make the next changes unavailable,
+         * e.g. because the whole city was replaced.
+         */
+        public void reset() {
+            layout.reset();
+            unknown = true;
+        }
+
+        /**
+         * Take the changes recorded since the last call and start recording again.
+         *
+         * @return The recorded changes, or {@code null} if they are unavailable.
+         */
+        public CityChanges take() {
+            LayoutDelta layoutDelta = layout.take();
+            CityChanges changes = unknown ? null : new CityChanges(layoutDelta,
+                    valuesOverflowed ? null : valueChanges, statsChanged, taxRateChanged, nameChanged);
+            valueChanges = newValueSet();
+            valuesOverflowed = false;
+            statsChanged = false;
+            taxRateChanged = false;
+            nameChanged = false;
+            unknown = false;
+            return changes;
+        }
+
+        /**
+         * Returns a new empty set that compares buildings by identity.
+         */
+        private static Set<Building> newValueSet() {
+            return Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * Interface implemented by objects that need to be notified when a {@link City} or its {@link Map} changes.
+ */
+public interface CityListener extends MapListener {
+    /**
+     * Called after the city's statistics, e.g. its money, population or capacities, may have changed.
+     */
+    void statsChanged();
+
+    /**
+     * Called after the city's tax rate has changed.
+     *
+     * @param oldTaxRate The tax rate before it changed.
+     */
+    void taxRateChanged(double oldTaxRate);
+
+    /**
+     * Called after the city's name has changed.
+     *
+     * @param oldName The name before it changed.
+     */
+    void nameChanged(String oldName);
+}
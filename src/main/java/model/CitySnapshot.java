@@ -0,0 +1,245 @@
+package model;
+
+import model.buildings.Building;
+import model.buildings.BuildingType;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable copy of the state of a {@link City} at one point in time.
+ * Snapshots are taken on the thread that owns the city and can then be read freely from
+ * any other thread, e.g. to render the city on the Swing event dispatch thread.
+ * <p>
+ * The {@link Building} references held by a snapshot are only handles that identify a building
+ * in commands sent back to the owning thread; their state must not be read from other threads.
+ */
+public class CitySnapshot {
+    private final long version;
+    private final long layoutVersion;
+    private final String name;
+    private final int money;
+    private final double taxRate;
+    private final Summary summary;
+    private final Building[] buildings;
+    private final long[] ids;
+    private final String[] names;
+    private final BuildingType[] types;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] values;
+    private final BuildingGrid grid;
+    private final IdentityHashMap<Building, Integer> indexLookup;
+    private final CityChanges changes;
+
+    /**
+     * Take a snapshot of the given city. Must be called on the thread that owns the city.
+     *
+     * @param city    The city to copy.
+     * @param version A number identifying this snapshot, increasing with each snapshot taken.
+     */
+    public CitySnapshot(City city, long version) {
+        this(city, version, null, null);
+    }
+
+    /**
+     * Take a snapshot of the given city, sharing the building layout and spatial index with
+     * the previous snapshot if the layout of the map has not changed since it was taken.
+     * If the changes since then are known, only the values of buildings that changed are read again.
+     * Must be called on the thread that owns the city.
+     *
+     * @param city     The city to copy.
+     * @param version  A number identifying this snapshot, increasing with each snapshot taken.
+     * @param previous The previous snapshot of the same city, or {@code null} if there is none.
+     * @param changes  The changes made since {@code previous} was taken, or {@code null} if unknown.
+     */
+    public CitySnapshot(City city, long version, CitySnapshot previous, CityChanges changes) {
+        this.version = version;
+        this.changes = previous == null ? null : changes;
+        this.layoutVersion = city.getMap().getLayoutVersion();
+        this.name = city.getName();
+        this.money = city.getMoney();
+        this.taxRate = city.getTaxRate();
+        this.summary = city.getSummary();
+
+        List<Building> list = city.getMap().getBuildings();
+        BuildingColumns columns = city.getMap().getColumns();
+        int size = list.size();
+        if (previous != null && previous.layoutVersion == layoutVersion) {
+            values = copyValues(columns, previous, this.changes);
+            buildings = previous.buildings;
+            ids = previous.ids;
+            names = previous.names;
+            types = previous.types;
+            xs = previous.xs;
+            ys = previous.ys;
+            grid = previous.grid;
+            indexLookup = previous.indexLookup;
+            return;
+        }
+
+        values = columns.copyValues();
+        xs = columns.copyXs();
+        ys = columns.copyYs();
+        buildings = new Building[size];
+        ids = new long[size];
+        names = new String[size];
+        types = new BuildingType[size];
+        indexLookup = new IdentityHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            Building b = list.get(i);
+            buildings[i] = b;
+            ids[i] = b.getId();
+            names[i] = b.getName();
+            types[i] = columns.getType(i);
+            indexLookup.putIfAbsent(b, i);
+        }
+        grid = new BuildingGrid(xs, ys);
+    }
+
+    /**
+     * Read the building values for a snapshot with the same layout as the previous one.
+     * Values are shared with the previous snapshot if none changed, patched if the changed
+     * buildings are known, and copied from the building columns otherwise.
+     *
+     * @param columns  The building columns of the city, in the same order as in {@code previous}.
+     * @param previous The previous snapshot.
+     * @param changes  The changes made since {@code previous} was taken, or {@code null} if unknown.
+     * @return The value of each building.
+     */
+    private static int[] copyValues(BuildingColumns columns, CitySnapshot previous, CityChanges changes) {
+        if (changes == null || changes.getValueChanges() == null) {
+            return columns.copyValues();
+        }
+        if (changes.getValueChanges().isEmpty()) {
+            return previous.values;
+        }
+        int[] values = previous.values.clone();
+        for (Building b : changes.getValueChanges()) {
+            int index = previous.indexOf(b);
+            if (index != -1) {
+                values[index] = b.getValue();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the index of the given building in this snapshot.
+     *
+     * @param b The building handle to look for.
+     * @return The index of the building, or {@code -1} if it is not part of this snapshot.
+     */
+    public int indexOf(Building b) {
+        Integer index = indexLookup.get(b);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the index of the first building at the given grid position.
+     *
+     * @param x The x grid coordinate.
+     * @param y The y grid coordinate.
+     * @return The index of the building, or {@code -1} if the cell is empty.
+     */
+    public int findBuildingAt(int x, int y) {
+        return grid.find(x, y);
+    }
+
+    /**
+     * Visit every building inside the given rectangle of grid cells (bounds inclusive),
+     * looking only at the part of the grid that overlaps the rectangle.
+     *
+     * @param minX    The smallest x grid coordinate of the rectangle.
+     * @param minY    The smallest y grid coordinate of the rectangle.
+     * @param maxX    The largest x grid coordinate of the rectangle.
+     * @param maxY    The largest y grid coordinate of the rectangle.
+     * @param visitor Called with the snapshot index of every building inside the rectangle.
+     */
+    public void forEachBuildingIn(int minX, int minY, int maxX, int maxY, IntConsumer visitor) {
+        grid.query(minX, minY, maxX, maxY, visitor);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the changes to the map layout since the snapshot with the previous version was taken.
+     * A view that has applied every snapshot up to the previous one can apply these changes instead
+     * of redrawing from scratch; any other view must rebuild from this snapshot.
+     *
+     * @return The layout changes, or {@code null} if they are unknown.
+     */
+    public LayoutDelta getLayoutDelta() {
+        return changes == null ? null : changes.getLayoutDelta();
+    }
+
+    /**
+     * Get the changes to the city since the snapshot with the previous version was taken.
+     *
+     * @return The changes, or {@code null} if they are unknown.
+     */
+    public CityChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Get the layout version of the map when this snapshot was taken.
+     * Two snapshots with the same layout version have the same buildings in the same places.
+     *
+     * @return The layout version, see {@link Map#getLayoutVersion()}.
+     */
+    public long getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMoney() {
+        return money;
+    }
+
+    public double getTaxRate() {
+        return taxRate;
+    }
+
+    public Summary getSummary() {
+        return summary;
+    }
+
+    public int getNumOfBuildings() {
+        return buildings.length;
+    }
+
+    public Building getBuilding(int index) {
+        return buildings[index];
+    }
+
+    public long getBuildingId(int index) {
+        return ids[index];
+    }
+
+    public String getBuildingName(int index) {
+        return names[index];
+    }
+
+    public BuildingType getBuildingType(int index) {
+        return types[index];
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+}
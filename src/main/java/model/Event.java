@@ -18,7 +18,17 @@ public class Event {
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(Calendar.getInstance().getTime(), description);
+    }
+
+    /**
+     * Creates an event with the given date/time stamp and description.
+     *
+     * @param dateLogged  the date/time the event was logged
+     * @param description a description of the event
+     */
+    public Event(Date dateLogged, String description) {
+        this.dateLogged = dateLogged;
         this.description = description;
     }
 
@@ -0,0 +1,38 @@
+package model;
+
+/**
+ * Kinds of events that can be logged in the {@link EventLog}.
+ * Each kind knows how to format its description from the arguments it was logged with,
+ * so the text only has to be built when the log is actually read.
+ */
+public enum EventKind {
+    POPULATION_UPDATED("Population updated to %s"),
+    HOUSING_CAPACITY_UPDATED("Housing capacity updated to %s"),
+    WORKER_CAPACITY_UPDATED("Worker capacity updated to %s"),
+    MONEY_UPDATED("Money updated to %s"),
+    BUILDING_BOUGHT("A building was bought for %s"),
+    BUILDING_ADDED("A building (%s) was added to the map"),
+    BUILDING_REMOVED("A building (%s) was removed from the map");
+
+    private final String format;
+
+    /**
+     * Create a new event kind.
+     *
+     * @param format The format string of the event's description, with a single argument.
+     */
+    EventKind(String format) {
+        this.format = format;
+    }
+
+    /**
+     * Format the description of an event of this kind.
+     *
+     * @param number The numeric argument the event was logged with.
+     * @param text   The text argument the event was logged with, or {@code null} if it has none.
+     * @return The description of the event.
+     */
+    public String describe(long number, String text) {
+        return String.format(format, text != null ? text : String.valueOf(number));
+    }
+}
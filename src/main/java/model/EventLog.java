@@ -1,8 +1,11 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Date;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 /**
@@ -10,20 +13,30 @@ import java.util.Iterator;
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * <p>
+ * The log is a fixed-capacity ring buffer that keeps only the most recent events.
+ * Events logged by {@link EventKind} are stored as a timestamp, a kind and a primitive
+ * or string argument, and their descriptions are only formatted when the log is iterated.
+ * <p>
+ * Any number of threads may log events at the same time without locking or waiting: each event
+ * claims a sequence number from an atomic cursor, marks its slot as being written, and publishes
+ * it by writing that sequence number once the event's fields are in place. If the slot is still
+ * being written by an older event (whose writer was preempted for a whole lap of the ring) or
+ * already holds a newer event, the event is dropped instead of waiting. Iterating takes a snapshot
+ * of every fully published event, so readers never see half-written or overwritten events.
  */
 public class EventLog implements Iterable<Event> {
-    /**
-     * the only EventLog in the system (Singleton Design Pattern)
-     */
-    private static EventLog theLog;
-    private final Collection<Event> events;
+    public static final int DEFAULT_CAPACITY = 10000;
+    private static final long EMPTY = -1;
+    private static final long WRITING = -2;
+    private volatile Ring ring;
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<>();
+        ring = new Ring(DEFAULT_CAPACITY);
     }
 
     /**
@@ -34,11 +47,7 @@ public class EventLog implements Iterable<Event> {
      * @return instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
-
-        return theLog;
+        return Holder.THE_LOG;
     }
 
     /**
@@ -47,11 +56,209 @@ public class EventLog implements Iterable<Event> {
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        ring.append(System.currentTimeMillis(), null, 0, e);
+    }
+
+    /**
+     * Adds an event with a numeric argument to the event log.
+     *
+     * @param kind   The kind of event.
+     * @param number The argument of the event's description.
+     */
+    public void logEvent(EventKind kind, long number) {
+        ring.append(System.currentTimeMillis(), kind, number, null);
+    }
+
+    /**
+     * Adds an event with a text argument to the event log.
+     *
+     * @param kind The kind of event.
+     * @param text The argument of the event's description.
+     */
+    public void logEvent(EventKind kind, String text) {
+        ring.append(System.currentTimeMillis(), kind, 0, text);
+    }
+
+    /**
+     * Removes every event from the event log.
+     * Events being logged by other threads at the same time may be lost.
+     */
+    public void clear() {
+        ring = new Ring(getCapacity());
+    }
+
+    /**
+     * Get the maximum number of events this log retains.
+     */
+    public int getCapacity() {
+        return ring.capacity;
     }
 
+    /**
+     * Set the maximum number of events this log retains.
+     * This clears the log.
+     *
+     * @param capacity The new capacity, must be positive.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Event log capacity must be positive");
+        }
+        ring = new Ring(capacity);
+    }
+
+    /**
+     * Get the number of events currently retained by this log,
+     * including events that are still being written.
+     */
+    public int getSize() {
+        Ring current = ring;
+        return (int) Math.min(current.cursor.get(), current.capacity);
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the events retained at the time of the call,
+     * from oldest to newest. Events logged after this call are not included.
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        return ring.snapshot();
+    }
+
+    /**
+     * Lazily initialized holder of the only EventLog (Singleton Design Pattern).
+     */
+    private static class Holder {
+        private static final EventLog THE_LOG = new EventLog();
+    }
+
+    /**
+     * Fixed-capacity storage for events, shared by all producing threads.
+     * Each slot holds the sequence number of the event published in it,
+     * or {@code EMPTY}/{@code WRITING}.
+     */
+    private static class Ring {
+        private final int capacity;
+        private final AtomicLong cursor;
+        private final AtomicLongArray sequences;
+        private final AtomicLongArray times;
+        private final AtomicReferenceArray<EventKind> kinds;
+        private final AtomicLongArray numbers;
+        private final AtomicReferenceArray<Object> texts;
+
+        /**
+         * Create an empty ring with the given number of slots.
+         */
+        Ring(int capacity) {
+            this.capacity = capacity;
+            cursor = new AtomicLong();
+            sequences = new AtomicLongArray(capacity);
+            times = new AtomicLongArray(capacity);
+            kinds = new AtomicReferenceArray<>(capacity);
+            numbers = new AtomicLongArray(capacity);
+            texts = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, EMPTY);
+            }
+        }
+
+        /**
+         * Write an event into the next slot, overwriting the oldest event if the ring is full.
+         * Never waits for another writer: if a newer event has already been published in the slot,
+         * or another event is still being written to it, this event is dropped.
+         */
+        void append(long time, EventKind kind, long number, Object text) {
+            long sequence = cursor.getAndIncrement();
+            int slot = (int) (sequence % capacity);
+            long current = sequences.get(slot);
+            while (current != WRITING && current < sequence) {
+                if (sequences.compareAndSet(slot, current, WRITING)) {
+                    times.set(slot, time);
+                    kinds.set(slot, kind);
+                    numbers.set(slot, number);
+                    texts.set(slot, text);
+                    sequences.set(slot, sequence);
+                    return;
+                }
+                current = sequences.get(slot);
+            }
+        }
+
+        /**
+         * Copy every fully published event in the retained range into a new iterator.
+         * A slot is only copied if it holds the expected sequence number both before
+         * and after its fields are read.
+         */
+        EventIterator snapshot() {
+            long end = cursor.get();
+            long start = Math.max(0, end - capacity);
+            int length = (int) (end - start);
+            long[] snapshotTimes = new long[length];
+            EventKind[] snapshotKinds = new EventKind[length];
+            long[] snapshotNumbers = new long[length];
+            Object[] snapshotTexts = new Object[length];
+
+            int count = 0;
+            for (long sequence = start; sequence < end; sequence++) {
+                int slot = (int) (sequence % capacity);
+                if (sequences.get(slot) != sequence) {
+                    continue;
+                }
+                long time = times.get(slot);
+                EventKind kind = kinds.get(slot);
+                long number = numbers.get(slot);
+                Object text = texts.get(slot);
+                if (sequences.get(slot) != sequence) {
+                    continue;
+                }
+                snapshotTimes[count] = time;
+                snapshotKinds[count] = kind;
+                snapshotNumbers[count] = number;
+                snapshotTexts[count] = text;
+                count++;
+            }
+            return new EventIterator(snapshotTimes, snapshotKinds, snapshotNumbers, snapshotTexts, count);
+        }
+    }
+
+    /**
+     * Iterates over a snapshot of events from oldest to newest, formatting each one as it is reached.
+     */
+    private static class EventIterator implements Iterator<Event> {
+        private final long[] times;
+        private final EventKind[] kinds;
+        private final long[] numbers;
+        private final Object[] texts;
+        private final int count;
+        private int next;
+
+        /**
+         * Create an iterator over the first {@code count} events of the given snapshot arrays.
+         */
+        EventIterator(long[] times, EventKind[] kinds, long[] numbers, Object[] texts, int count) {
+            this.times = times;
+            this.kinds = kinds;
+            this.numbers = numbers;
+            this.texts = texts;
+            this.count = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = next++;
+            EventKind kind = kinds[index];
+            if (kind == null) {
+                return (Event) texts[index];
+            }
+            return new Event(new Date(times[index]), kind.describe(numbers[index], (String) texts[index]));
+        }
     }
 }
@@ -0,0 +1,220 @@
+package model;
+
+import model.buildings.Building;
+import model.buildings.BuildingType;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, ordered list of the buildings that were added, removed and moved
+ * between two {@link CitySnapshot}s, so views can update themselves without looking at every building.
+ * Replaying the changes in order turns the building list and layout of the earlier snapshot into the later one.
+ */
+public class LayoutDelta {
+    /**
+     * The kinds of change in a delta.
+     */
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        MOVED
+    }
+
+    private final Kind[] kinds;
+    private final int[] indices;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] oldXs;
+    private final int[] oldYs;
+    private final BuildingType[] types;
+
+    /**
+     * Create a new delta from the first {@code size} changes held by a recorder.
+     *
+     * @param recorder The recorder holding the changes.
+     */
+    private LayoutDelta(Recorder recorder) {
+        int size = recorder.size;
+        kinds = Arrays.copyOf(recorder.kinds, size);
+        indices = Arrays.copyOf(recorder.indices, size);
+        xs = Arrays.copyOf(recorder.xs, size);
+        ys = Arrays.copyOf(recorder.ys, size);
+        oldXs = Arrays.copyOf(recorder.oldXs, size);
+        oldYs = Arrays.copyOf(recorder.oldYs, size);
+        types = Arrays.copyOf(recorder.types, size);
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    public Kind getKind(int change) {
+        return kinds[change];
+    }
+
+    /**
+     * Get the list index a building was added at or removed from.
+     * When a building is removed, the last building in the list is moved to its index (see {@link Map#removeBuilding}).
+     *
+     * @param change The index of the change in this delta.
+     * @return The list index, or {@code -1} for a {@link Kind#MOVED} change.
+     */
+    public int getIndex(int change) {
+        return indices[change];
+    }
+
+    /**
+     * Get the x coordinate the building was added at, removed from, or moved to.
+     *
+     * @param change The index of the change in this delta.
+     * @return The x grid coordinate.
+     */
+    public int getX(int change) {
+        return xs[change];
+    }
+
+    /**
+     * Get the y coordinate the building was added at, removed from, or moved to.
+     *
+     * @param change The index of the change in this delta.
+     * @return The y grid coordinate.
+     */
+    public int getY(int change) {
+        return ys[change];
+    }
+
+    /**
+     * Get the x coordinate a building was moved from. Only meaningful for {@link Kind#MOVED} changes.
+     *
+     * @param change The index of the change in this delta.
+     * @return The old x grid coordinate.
+     */
+    public int getOldX(int change) {
+        return oldXs[change];
+    }
+
+    /**
+     * Get the y coordinate a building was moved from. Only meaningful for {@link Kind#MOVED} changes.
+     *
+     * @param change The index of the change in this delta.
+     * @return The old y grid coordinate.
+     */
+    public int getOldY(int change) {
+        return oldYs[change];
+    }
+
+    public BuildingType getType(int change) {
+        return types[change];
+    }
+
+    /**
+     * Records the layout changes of a {@link Map} until they are taken as a {@link LayoutDelta}.
+     * If too many changes pile up, or the recorder is reset, the next delta is unavailable
+     * and views have to rebuild from the snapshot instead.
+     */
+    public static class Recorder implements MapListener {
+        private static final int INITIAL_CAPACITY = 16;
+        private final int maxSize;
+        private Kind[] kinds = new Kind[INITIAL_CAPACITY];
+        private int[] indices = new int[INITIAL_CAPACITY];
+        private int[] xs = new int[INITIAL_CAPACITY];
+        private int[] ys = new int[INITIAL_CAPACITY];
+        private int[] oldXs = new int[INITIAL_CAPACITY];
+        private int[] oldYs = new int[INITIAL_CAPACITY];
+        private BuildingType[] types = new BuildingType[INITIAL_CAPACITY];
+        private int size;
+        private boolean overflowed;
+
+        /**
+         * Create a new recorder.
+         *
+         * @param maxSize The number of changes after which recording stops and the next delta is unavailable.
+         */
+        public Recorder(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void buildingAdded(Building building, int index) {
+            record(Kind.ADDED, index, building, building.getPosition());
+        }
+
+        @Override
+        public void buildingRemoved(Building building, int index) {
+            record(Kind.REMOVED, index, building, building.getPosition());
+        }
+
+        @Override
+        public void buildingMoved(Building building, Position oldPosition) {
+            record(Kind.MOVED, -1, building, oldPosition);
+        }
+
+        @Override
+        public void buildingValueChanged(Building building, int oldValue) {
+            // values are not part of the layout
+        }
+
+        /**
+         * Forget the changes recorded so far and make the next delta unavailable,
+         * e.g. because the whole map was replaced.
+         */
+        public void reset() {
+            size = 0;
+            overflowed = true;
+        }
+
+        /**
+         * Take the changes recorded since the last call and start recording again.
+         *
+         * @return The recorded changes, or {@code null} if they are unavailable.
+         */
+        public LayoutDelta take() {
+            LayoutDelta delta = overflowed ? null : new LayoutDelta(this);
+            size = 0;
+            overflowed = false;
+            return delta;
+        }
+
+        /**
+         * Append a change, or give up recording if there are too many.
+         *
+         * @param kind     The kind of change.
+         * @param index    The list index of the change, {@code -1} for moves.
+         * @param building The building that changed, at its current position.
+         * @param position The position the building was added at or removed from, or moved from.
+         */
+        private void record(Kind kind, int index, Building building, Position position) {
+            if (overflowed) {
+                return;
+            }
+            if (size == maxSize) {
+                reset();
+                return;
+            }
+            if (size == kinds.length) {
+                grow(Math.min(maxSize, size * 2));
+            }
+            kinds[size] = kind;
+            indices[size] = index;
+            xs[size] = building.getPosition().getX();
+            ys[size] = building.getPosition().getY();
+            oldXs[size] = position.getX();
+            oldYs[size] = position.getY();
+            types[size] = building.getBuildingType();
+            size++;
+        }
+
+        /**
+         * Grow the arrays holding the changes to the given capacity.
+         */
+        private void grow(int capacity) {
+            kinds = Arrays.copyOf(kinds, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            oldXs = Arrays.copyOf(oldXs, capacity);
+            oldYs = Arrays.copyOf(oldYs, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A hash map from primitive {@code long} keys to values, used by the map's indexes and the views that
+ * draw it so that looking up a packed coordinate key (see {@link Position#key(int, int)}) neither boxes
+ * the key nor allocates.
+ * Uses open addressing with linear probing; {@code null} values are not allowed.
+ *
+ * @param <V> The type of the values.
+ */
+public class LongHashMap<V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Create a new empty map.
+     */
+    public LongHashMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Get the value stored under the given key.
+     *
+     * @param key The key to look up.
+     * @return The value, or {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Store a value under the given key, replacing any previous value.
+     *
+     * @param key   The key to store the value under.
+     * @param value The value to store, not {@code null}.
+     */
+    public void put(long key, V value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Remove the value stored under the given key, if any.
+     *
+     * @param key The key to remove.
+     */
+    public void remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == null) {
+            return;
+        }
+        values[i] = null;
+        size--;
+
+        // shift back the entries after the removed one that would no longer be found
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    /**
+     * Visit every value in this map, in no particular order. The map must not be changed while visiting.
+     *
+     * @param visitor Called with every value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<V> visitor) {
+        for (Object value : values) {
+            if (value != null) {
+                visitor.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every entry from this map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Move every entry into new arrays of the given capacity.
+     *
+     * @param capacity The new capacity, a power of two.
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot a key would be stored in if there were no collisions.
+     *
+     * @param key  The key.
+     * @param mask The capacity of the map minus one.
+     */
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
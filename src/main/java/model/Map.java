@@ -1,6 +1,7 @@
 package model;
 
 import model.buildings.Building;
+import model.buildings.BuildingObserver;
 import model.buildings.BuildingType;
 import model.exceptions.BuildingNotFoundException;
 import org.json.JSONArray;
@@ -8,44 +9,134 @@ import org.json.JSONObject;
 import persistence.Writable;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * A map that keeps track of buildings in a {@link City}.
+ * <p>
+ * Every building on the map has an ID that is unique within the map. Buildings keep the ID they had
+ * when they are added, e.g. when loaded from a save, unless it is unset or already taken.
+ * Buildings are found by ID in constant time, and removed in constant time by moving the last building
+ * of the building list (and of its type bucket) into the removed building's place.
+ * <p>
+ * Where buildings are is stored in chunks of 64 by 64 cells that only exist while they hold a building,
+ * so the map can span millions of cells in every direction, and lookups by position only touch the
+ * chunks involved.
+ * <p>
+ * The positions, types, values and capacities of the buildings are also kept in primitive columns
+ * in building list order, which whole-map passes such as recomputing totals and taking snapshots read.
  */
 public class Map implements Writable {
+    private static final AtomicLong LAYOUT_VERSIONS = new AtomicLong();
+    private static final int LIST_SLOT = 0;
+    private static final int BUCKET_SLOT = 1;
     private final List<Building> buildingList;
+    private final LongHashMap<int[]> slots;
+    private final BuildingColumns columns;
+    private final ChunkGrid chunks;
+    private final AdjacencyGraph adjacency;
+    private final EnumMap<BuildingType, List<Building>> typeBuckets;
+    private final EnumMap<BuildingType, List<Building>> typeViews;
+    private final BuildingIndex<String> nameIndex;
+    private final ValueIndex valueIndex;
+    private final BuildingObserver observer;
+    private long totalValue;
+    // the tax income of every building summed up, for the tax rate it was last asked for
+    private double incomeTaxRate;
+    private long totalTaxIncome;
+    private int totalResidentCapacity;
+    private int totalWorkerCapacity;
+    private int totalProductionRate;
+    private long layoutVersion;
+    private long nextId;
+    private MapListener listener;
 
     /**
      * Create a new empty map.
      */
     public Map() {
         buildingList = new ArrayList<>();
+        slots = new LongHashMap<>();
+        columns = new BuildingColumns();
+        nextId = Building.NO_ID + 1;
+        chunks = new ChunkGrid();
+        adjacency = new AdjacencyGraph(this);
+        typeBuckets = new EnumMap<>(BuildingType.class);
+        typeViews = new EnumMap<>(BuildingType.class);
+        for (BuildingType type : BuildingType.values()) {
+            List<Building> bucket = new ArrayList<>();
+            typeBuckets.put(type, bucket);
+            typeViews.put(type, Collections.unmodifiableList(bucket));
+        }
+        nameIndex = new BuildingIndex<>();
+        valueIndex = new ValueIndex(columns);
+        observer = new MapBuildingObserver();
+        layoutChanged();
     }
 
     /**
-     * Adds a building to this map.
+     * Adds a building to this map, giving it a new ID if it has none or its ID is taken.
+     * Does nothing if the building is already on this map.
      *
      * @param building The building to add.
      */
     public void addBuilding(Building building) {
+        if (findBuildingById(building.getId()) == building) {
+            return;
+        }
+        if (building.getId() == Building.NO_ID || slots.get(building.getId()) != null) {
+            building.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, building.getId() + 1);
+        }
+        List<Building> bucket = typeBuckets.get(building.getBuildingType());
+        slots.put(building.getId(), new int[]{buildingList.size(), bucket.size()});
         buildingList.add(building);
-        Event logEvent = new Event(String.format("A building (%s) was added to the map", building.getName()));
-        EventLog.getInstance().logEvent(logEvent);
+        columns.add(building);
+        bucket.add(building);
+        chunks.add(building, building.getPosition());
+        adjacency.add(building);
+        nameIndex.add(building.getName(), building);
+        valueIndex.invalidate();
+        updateAggregates(building, 1);
+        building.setObserver(observer);
+        layoutChanged();
+        if (listener != null) {
+            listener.buildingAdded(building, buildingList.size() - 1);
+        }
+        EventLog.getInstance().logEvent(EventKind.BUILDING_ADDED, building.getName());
     }
 
     /**
-     * Removes a building from this map.
+     * Removes a building from this map. The last building in the building list takes its place.
      *
      * @param building The building to remove.
      */
     public void removeBuilding(Building building) {
-        buildingList.remove(building);
-        Event logEvent = new Event(String.format("A building (%s) was removed from the map", building.getName()));
-        EventLog.getInstance().logEvent(logEvent);
+        int[] slot = slots.get(building.getId());
+        if (slot != null && buildingList.get(slot[LIST_SLOT]) == building) {
+            int index = slot[LIST_SLOT];
+            slots.remove(building.getId());
+            swapRemove(buildingList, index, LIST_SLOT);
+            columns.swapRemove(index);
+            swapRemove(typeBuckets.get(building.getBuildingType()), slot[BUCKET_SLOT], BUCKET_SLOT);
+            chunks.remove(building, building.getPosition());
+            adjacency.remove(building, building.getPosition());
+            nameIndex.remove(building.getName(), building);
+            valueIndex.invalidate();
+            updateAggregates(building, -1);
+            building.setObserver(null);
+            layoutChanged();
+            if (listener != null) {
+                listener.buildingRemoved(building, index);
+            }
+        }
+        EventLog.getInstance().logEvent(EventKind.BUILDING_REMOVED, building.getName());
     }
 
     /**
@@ -59,20 +150,96 @@ public class Map implements Writable {
         return buildingList.get(index);
     }
 
+    /**
+     * Get the building with the given ID.
+     *
+     * @param id The ID of the building to get.
+     * @return The building with the given ID.
+     * @throws BuildingNotFoundException If no building on this map has the given ID.
+     */
+    public Building getBuildingById(long id) throws BuildingNotFoundException {
+        Building building = findBuildingById(id);
+        if (building == null) {
+            throw new BuildingNotFoundException();
+        }
+        return building;
+    }
+
+    /**
+     * Get the building with the given ID without throwing if there is none.
+     *
+     * @param id The ID of the building to get.
+     * @return The building with the given ID, or {@code null} if no building on this map has it.
+     */
+    public Building findBuildingById(long id) {
+        int[] slot = slots.get(id);
+        return slot == null ? null : buildingList.get(slot[LIST_SLOT]);
+    }
+
+    /**
+     * Get the index of a building in the building list.
+     *
+     * @param building The building to look for.
+     * @return The index of the building, or {@code -1} if it is not on this map.
+     */
+    public int indexOf(Building building) {
+        int[] slot = slots.get(building.getId());
+        if (slot == null || buildingList.get(slot[LIST_SLOT]) != building) {
+            return -1;
+        }
+        return slot[LIST_SLOT];
+    }
+
     /**
      * Get the building with the given name.
-     * If multiple buildings have the same name, returns the first one that's found.
+     * If multiple buildings have the same name, returns the one that was added first.
      *
      * @param name The name of the building to get.
      * @throws BuildingNotFoundException No building with the given name exists.
      */
     public Building getBuilding(String name) throws BuildingNotFoundException {
-        for (Building b : buildingList) {
-            if (b.getName().equals(name)) {
-                return b;
+        Building building = nameIndex.first(name);
+        if (building == null) {
+            throw new BuildingNotFoundException();
+        }
+        return building;
+    }
+
+    /**
+     * Find every building that matches the given query.
+     * Candidates are taken from the most selective index the query can use (the name index
+     * for a name prefix, then the value index for a value range, then the type buckets)
+     * and the remaining conditions are checked on each candidate.
+     *
+     * @param query The conditions buildings must match.
+     * @return A new list of the matching buildings, sorted by name if the query has a name prefix,
+     *         otherwise by value (then map order) if it has a value range, otherwise in map order.
+     */
+    public List<Building> findBuildings(BuildingQuery query) {
+        Collection<? extends Collection<Building>> candidates;
+        if (query.hasNamePrefix()) {
+            candidates = nameIndex.range(query.getNamePrefix(), prefixEnd(query.getNamePrefix()));
+        } else if (query.hasValueRange()) {
+            if (query.getMinValue() > query.getMaxValue()) {
+                return new ArrayList<>();
             }
+            candidates = Collections.singletonList(
+                    valueIndex.find(query.getMinValue(), query.getMaxValue(), buildingList));
+        } else if (query.getType() != null) {
+            candidates = Collections.singletonList(typeBuckets.get(query.getType()));
+        } else {
+            candidates = Collections.singletonList(buildingList);
         }
-        throw new BuildingNotFoundException();
+
+        List<Building> matches = new ArrayList<>();
+        for (Collection<Building> group : candidates) {
+            for (Building b : group) {
+                if (query.matches(b)) {
+                    matches.add(b);
+                }
+            }
+        }
+        return matches;
     }
 
     /**
@@ -83,13 +250,99 @@ public class Map implements Writable {
      * @throws BuildingNotFoundException If no building exists at the given position.
      */
     public Building getBuildingAtPosition(Position position) throws BuildingNotFoundException {
-        for (Building b : buildingList) {
-            if (b.getPosition().equals(position)) {
-                return b;
-            }
+        return getBuildingAt(position.getX(), position.getY());
+    }
+
+    /**
+     * Get the building at the given cell.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The building at the given cell.
+     * @throws BuildingNotFoundException If no building exists at the given cell.
+     */
+    public Building getBuildingAt(int x, int y) throws BuildingNotFoundException {
+        Building building = findBuildingAt(x, y);
+        if (building == null) {
+            throw new BuildingNotFoundException();
         }
+        return building;
+    }
 
-        throw new BuildingNotFoundException();
+    /**
+     * Get the building at the given position without throwing if there is none.
+     * If multiple buildings share the position, returns the one that was added first.
+     *
+     * @param position The position of the building to get.
+     * @return The building at the given position, or {@code null} if the position is empty.
+     */
+    public Building findBuildingAtPosition(Position position) {
+        return chunks.first(position.getX(), position.getY());
+    }
+
+    /**
+     * Get the building at the given cell without throwing if there is none.
+     * If multiple buildings share the cell, returns the one that was added first.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The building at the given cell, or {@code null} if the cell is empty.
+     */
+    public Building findBuildingAt(int x, int y) {
+        return chunks.first(x, y);
+    }
+
+    /**
+     * Get every building at the given cell, if there is more than one.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return A list of the buildings in the order they were added, which must not be modified,
+     *         or {@code null} if the cell holds at most one building.
+     */
+    List<Building> stackAt(int x, int y) {
+        return chunks.stack(x, y);
+    }
+
+    /**
+     * Get the columns holding the positions, types, values and capacities of the buildings,
+     * in building list order. They must not be changed outside of this map.
+     */
+    BuildingColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of chunks of {@code Chunk.SIZE} by {@code Chunk.SIZE} cells that hold at least one
+     * building. Only these chunks take up memory, however far apart they are.
+     */
+    public int getNumOfChunks() {
+        return chunks.getNumOfChunks();
+    }
+
+    /**
+     * Get a number that changes whenever a building is added, removed or moved, so views that
+     * only depend on where buildings are can tell when they need to be redrawn.
+     * Versions are unique across all maps, so a different map never has the same version.
+     *
+     * @return The current layout version.
+     */
+    public long getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    public MapListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set the listener that is notified when buildings are added to, removed from,
+     * moved around, or change value in this map.
+     *
+     * @param listener The new listener, or {@code null} for none.
+     */
+    public void setListener(MapListener listener) {
+        this.listener = listener;
     }
 
     /**
@@ -102,19 +355,25 @@ public class Map implements Writable {
     }
 
     /**
-     * Get all buildings in the map that match the given type.
+     * Get all buildings in the map that match the given type, in map order.
+     * The returned list is a read-only view that reflects later changes to the map,
+     * so it must not be held onto while buildings are being added or removed.
      *
      * @param type The type of the buildings to get.
-     * @return A list of buildings that match the given type.
+     * @return A read-only list of buildings that match the given type.
      */
     public List<Building> getBuildingsFromType(BuildingType type) {
-        List<Building> buildings = new ArrayList<>();
-        for (Building b : buildingList) {
-            if (b.getBuildingType().equals(type)) {
-                buildings.add(b);
-            }
-        }
-        return buildings;
+        return typeViews.get(type);
+    }
+
+    /**
+     * Get the number of buildings in this map that match the given type.
+     *
+     * @param type The type of the buildings to count.
+     * @return The number of buildings of the given type.
+     */
+    public int getNumOfBuildingsFromType(BuildingType type) {
+        return typeBuckets.get(type).size();
     }
 
     /**
@@ -124,16 +383,23 @@ public class Map implements Writable {
      * @return Whether or not there is a building at the given position.
      */
     public boolean checkBuildingCollision(Position position) {
-        try {
-            getBuildingAtPosition(position);
-            return true;
-        } catch (BuildingNotFoundException e) {
-            return false;
-        }
+        return checkBuildingCollision(position.getX(), position.getY());
     }
 
     /**
-     * Get all the buildings in this map.
+     * Returns whether there is a building at the given cell already.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return Whether or not there is a building at the given cell.
+     */
+    public boolean checkBuildingCollision(int x, int y) {
+        return chunks.first(x, y) != null;
+    }
+
+    /**
+     * Get all the buildings in this map, in map order: the order they were added,
+     * except that removing a building moves the last building into its place.
      *
      * @return A list of every building in this map.
      */
@@ -142,31 +408,214 @@ public class Map implements Writable {
     }
 
     /**
-     * Get every adjacent building to a given building.
+     * Get every adjacent building to a given building, i.e. the first building at each of the cells
+     * above, right of, below and left of it, in that order.
+     * For a building on this map this takes constant time and returns a cached view.
      *
      * @param b The building to get the adjacent buildings of.
-     * @return A list of adjacent buildings.
+     * @return A read-only list of adjacent buildings, which follows later changes to the map if
+     *         the building is on this map.
      */
     public List<Building> getAdjacentBuildings(Building b) {
+        List<Building> adjacent = adjacency.get(b);
+        if (adjacent != null) {
+            return adjacent;
+        }
         Position position = b.getPosition();
-        int x = position.getX();
-        int y = position.getY();
-        List<Position> adjacentPositions = Arrays.asList(
-                new Position(x, y + 1),
-                new Position(x + 1, y),
-                new Position(x, y - 1),
-                new Position(x - 1, y)
-        );
-        return adjacentPositions.stream()
-                .map(p -> {
-                    try {
-                        return getBuildingAtPosition(p);
-                    } catch (BuildingNotFoundException e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Building> buildings = new ArrayList<>(AdjacencyGraph.DIRECTIONS);
+        for (int d = 0; d < AdjacencyGraph.DIRECTIONS; d++) {
+            Building building = findBuildingAt(AdjacencyGraph.offsetX(position.getX(), d),
+                    AdjacencyGraph.offsetY(position.getY(), d));
+            if (building != null) {
+                buildings.add(building);
+            }
+        }
+        return Collections.unmodifiableList(buildings);
+    }
+
+    /**
+     * Visit every building inside the given rectangle of grid cells (bounds inclusive), in no particular order.
+     * Only the part of the map that overlaps the rectangle is looked at, and nothing is allocated.
+     * The map must not be changed while visiting.
+     *
+     * @param minX    The smallest x coordinate of the rectangle.
+     * @param minY    The smallest y coordinate of the rectangle.
+     * @param maxX    The largest x coordinate of the rectangle.
+     * @param maxY    The largest y coordinate of the rectangle.
+     * @param visitor Called with every building inside the rectangle.
+     */
+    public void forEachBuildingIn(int minX, int minY, int maxX, int maxY, Consumer<Building> visitor) {
+        chunks.forEachIn(minX, minY, maxX, maxY, visitor);
+    }
+
+    /**
+     * Get every building inside the given rectangle of grid cells (bounds inclusive).
+     *
+     * @param minX The smallest x coordinate of the rectangle.
+     * @param minY The smallest y coordinate of the rectangle.
+     * @param maxX The largest x coordinate of the rectangle.
+     * @param maxY The largest y coordinate of the rectangle.
+     * @return A new list of the buildings inside the rectangle, in no particular order.
+     */
+    public List<Building> findBuildingsIn(int minX, int minY, int maxX, int maxY) {
+        List<Building> buildings = new ArrayList<>();
+        chunks.forEachIn(minX, minY, maxX, maxY, buildings::add);
+        return buildings;
+    }
+
+    /**
+     * Visit every building whose distance to the given cell is at most the given radius, in no particular order.
+     * Distances are measured in a straight line between cells. Nothing is allocated, and
+     * the map must not be changed while visiting.
+     *
+     * @param x       The x coordinate of the cell.
+     * @param y       The y coordinate of the cell.
+     * @param radius  The largest allowed distance, in cells.
+     * @param visitor Called with every building within the radius.
+     */
+    public void forEachBuildingWithin(int x, int y, double radius, Consumer<Building> visitor) {
+        chunks.forEachWithin(x, y, radius, visitor);
+    }
+
+    /**
+     * Get every building whose distance to the given cell is at most the given radius.
+     *
+     * @param x      The x coordinate of the cell.
+     * @param y      The y coordinate of the cell.
+     * @param radius The largest allowed distance, in cells.
+     * @return A new list of the buildings within the radius, in no particular order.
+     */
+    public List<Building> findBuildingsWithin(int x, int y, double radius) {
+        List<Building> buildings = new ArrayList<>();
+        chunks.forEachWithin(x, y, radius, buildings::add);
+        return buildings;
+    }
+
+    /**
+     * Get the buildings closest to the given cell, measured in a straight line between cells.
+     * Buildings at the same distance are ordered by ID.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @param k The largest number of buildings to get.
+     * @return A new list of at most {@code k} buildings, nearest first.
+     */
+    public List<Building> findNearestBuildings(int x, int y, int k) {
+        return chunks.nearest(x, y, k);
+    }
+
+    /**
+     * Get the sum of the values of every building in this map.
+     */
+    public long getTotalValue() {
+        return totalValue;
+    }
+
+    /**
+     * Get the sum of the tax incomes of every building in this map, where the income of each building
+     * is its value times the tax rate, rounded towards zero. The total is kept up to date as buildings
+     * change, and only recomputed from scratch when the tax rate differs from the previous call.
+     *
+     * @param taxRate The tax rate.
+     * @return The total tax income.
+     */
+    public long getTotalTaxIncome(double taxRate) {
+        if (Double.compare(taxRate, incomeTaxRate) != 0) {
+            incomeTaxRate = taxRate;
+            totalTaxIncome = columns.sumTaxIncomes(taxRate);
+        }
+        return totalTaxIncome;
+    }
+
+    /**
+     * Get the sum of the resident capacities of all housing in this map.
+     */
+    public int getTotalResidentCapacity() {
+        return totalResidentCapacity;
+    }
+
+    /**
+     * Get the sum of the worker capacities of all businesses in this map.
+     */
+    public int getTotalWorkerCapacity() {
+        return totalWorkerCapacity;
+    }
+
+    /**
+     * Get the sum of the production rates of all power plants in this map.
+     */
+    public int getTotalProductionRate() {
+        return totalProductionRate;
+    }
+
+    /**
+     * Recompute every running total from scratch and compare it against the
+     * incrementally maintained value. Intended for debugging; this is O(n) in map size,
+     * but only reads the building columns.
+     *
+     * @throws IllegalStateException A running total does not match the recomputed total.
+     */
+    public void verifyAggregates() {
+        checkAggregate("total value", columns.sumValues(), totalValue);
+        checkAggregate("tax income", columns.sumTaxIncomes(incomeTaxRate), totalTaxIncome);
+        checkAggregate("resident capacity", columns.sumCapacities(BuildingType.HOUSING), totalResidentCapacity);
+        checkAggregate("worker capacity", columns.sumCapacities(BuildingType.BUSINESS), totalWorkerCapacity);
+        checkAggregate("production rate", columns.sumCapacities(BuildingType.POWER_PLANT), totalProductionRate);
+    }
+
+    /**
+     * Throws if a recomputed total does not match its running total.
+     *
+     * @param name     The name of the total, used in the error message.
+     * @param expected The recomputed total.
+     * @param actual   The running total.
+     */
+    private static void checkAggregate(String name, long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException(
+                    String.format("Running %s is %s but a full recompute gives %s", name, actual, expected));
+        }
+    }
+
+    /**
+     * Add (or subtract) a building's contribution to the running totals.
+     *
+     * @param building The building whose contribution is applied.
+     * @param sign     {@code 1} to add the contribution, {@code -1} to subtract it.
+     */
+    private void updateAggregates(Building building, int sign) {
+        totalValue += sign * (long) building.getValue();
+        totalTaxIncome += sign * BuildingColumns.taxIncomeOf(building.getValue(), incomeTaxRate);
+        int capacity = sign * BuildingColumns.capacityOf(building);
+        switch (building.getBuildingType()) {
+            case HOUSING:
+                totalResidentCapacity += capacity;
+                break;
+            case BUSINESS:
+                totalWorkerCapacity += capacity;
+                break;
+            case POWER_PLANT:
+                totalProductionRate += capacity;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Remove the building at the given index of a list by moving the last building of the list into its place,
+     * and record the moved building's new index in its slot.
+     *
+     * @param list  The building list or type bucket to remove from.
+     * @param index The index of the building to remove.
+     * @param kind  Which index of the slots refers to this list, {@code LIST_SLOT} or {@code BUCKET_SLOT}.
+     */
+    private void swapRemove(List<Building> list, int index, int kind) {
+        Building last = list.remove(list.size() - 1);
+        if (index < list.size()) {
+            list.set(index, last);
+            slots.get(last.getId())[kind] = index;
+        }
     }
 
     @Override
@@ -182,4 +631,60 @@ public class Map implements Writable {
 
         return jsonObject;
     }
+
+    /**
+     * Returns the smallest string that sorts after every string starting with the given prefix.
+     *
+     * @param prefix A non-empty prefix.
+     * @return The end of the prefix range, or {@code null} if no string sorts after the range.
+     */
+    private static String prefixEnd(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
+    /**
+     * Give this map a new layout version after buildings were added, removed or moved.
+     */
+    private void layoutChanged() {
+        layoutVersion = LAYOUT_VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Keeps the map's indexes and running totals in sync when a building on this map changes.
+     */
+    private class MapBuildingObserver implements BuildingObserver {
+        @Override
+        public void positionChanged(Building building, Position oldPosition) {
+            chunks.remove(building, oldPosition);
+            chunks.add(building, building.getPosition());
+            columns.setPosition(slots.get(building.getId())[LIST_SLOT], building.getPosition());
+            adjacency.move(building, oldPosition);
+            layoutChanged();
+            if (listener != null) {
+                listener.buildingMoved(building, oldPosition);
+            }
+        }
+
+        @Override
+        public void valueChanged(Building building, int oldValue) {
+            if (building.getValue() == oldValue) {
+                return;
+            }
+            totalValue += (long) building.getValue() - oldValue;
+            totalTaxIncome += (long) BuildingColumns.taxIncomeOf(building.getValue(), incomeTaxRate)
+                    - BuildingColumns.taxIncomeOf(oldValue, incomeTaxRate);
+            columns.setValue(slots.get(building.getId())[LIST_SLOT], building.getValue());
+            valueIndex.invalidate();
+            if (listener != null) {
+                listener.buildingValueChanged(building, oldValue);
+            }
+        }
+    }
 }
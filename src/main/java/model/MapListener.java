@@ -0,0 +1,43 @@
+package model;
+
+import model.buildings.Building;
+
+/**
+ * Interface implemented by objects that need to be notified when buildings
+ * are added to, removed from, moved around, or change value in a {@link Map}.
+ */
+public interface MapListener {
+    /**
+     * Called after a building has been added to the map.
+     *
+     * @param building The building that was added, at its current position.
+     * @param index    The index the building was added at in the map's building list.
+     */
+    void buildingAdded(Building building, int index);
+
+    /**
+     * Called after a building has been removed from the map.
+     * The building that was last in the map's building list has been moved to the removed building's index,
+     * unless the removed building was the last one.
+     *
+     * @param building The building that was removed, at the position it was removed from.
+     * @param index    The index the building was removed from in the map's building list.
+     */
+    void buildingRemoved(Building building, int index);
+
+    /**
+     * Called after a building in the map has been moved to a new position.
+     *
+     * @param building    The building that was moved, at its new position.
+     * @param oldPosition The position of the building before it was moved.
+     */
+    void buildingMoved(Building building, Position oldPosition);
+
+    /**
+     * Called after the value of a building in the map has changed.
+     *
+     * @param building The building whose value changed.
+     * @param oldValue The value of the building before it changed.
+     */
+    void buildingValueChanged(Building building, int oldValue);
+}
@@ -1,9 +1,10 @@
 package model;
 
-import java.util.Objects;
-
 /**
  * A position in 2D space with an x and y coordinate.
+ * <p>
+ * Code that looks positions up often can use the coordinates directly, or pack them into a single
+ * {@code long} key with {@link #key(int, int)}, instead of allocating a new position for every lookup.
  */
 public class Position {
     public static final Position ORIGIN = new Position(0, 0);
@@ -22,6 +23,44 @@ public class Position {
         this.posY = posY;
     }
 
+    /**
+     * Pack the coordinates of a cell into a key that is different for every cell.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The x coordinate in the upper 32 bits and the y coordinate in the lower 32 bits.
+     */
+    public static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the x coordinate of a key made by {@link #key(int, int)}.
+     *
+     * @param key The packed key.
+     * @return The x coordinate.
+     */
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Get the y coordinate of a key made by {@link #key(int, int)}.
+     *
+     * @param key The packed key.
+     * @return The y coordinate.
+     */
+    public static int keyY(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Returns the coordinates of this position packed with {@link #key(int, int)}.
+     */
+    public long toKey() {
+        return key(posX, posY);
+    }
+
     public int getX() {
         return posX;
     }
@@ -44,6 +83,6 @@ public class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(posX, posY);
+        return 31 * posX + posY;
     }
 }
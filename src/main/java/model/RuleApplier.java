@@ -1,25 +1,58 @@
 package model;
 
-import model.buildings.Building;
 import model.buildings.BuildingType;
+import model.rules.CityField;
+import model.rules.EnergyRule;
+import model.rules.ParallelRule;
+import model.rules.ParkAttractionRule;
+import model.rules.PowerPlantRule;
+import model.rules.Rule;
+import model.rules.RuleDelta;
+import model.rules.RuleStats;
+import model.rules.TaxRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
- * Applies a series of simulation rules to a {@link City}.
+ * Applies a series of simulation {@link Rule}s to a {@link City}.
+ * Rules are applied in an order that respects what they read and write: a rule that writes something
+ * another rule only reads is applied first. Rules that don't depend on each other, or that depend on
+ * each other both ways, are applied in the order they were added. The time each rule takes is recorded.
+ * <p>
+ * In parallel mode, consecutive {@link ParallelRule}s are computed together from the state the city had
+ * before any of them was committed, including a copy of every building's value, spreading the work across
+ * cores. The changes are then committed one rule at a time in the usual order. A rule whose compute phase
+ * reads what an earlier rule writes waits for that rule to be committed, so the city ends up in exactly
+ * the same state as in serial mode.
  */
 public class RuleApplier {
-    public static final double POWER_PLANT_ATTRACTION_DEPRECIATION = 0.15;
-    public static final double POWER_PLANT_BUILDING_VALUE_MULTIPLIER = 0.5;
-    public static final double ENERGY_OVER_CONSUMPTION_ATTRACTION_DEPRECIATION = 0.2;
-    public static final int ENERGY_OVER_CONSUMPTION_MONEY_PENALTY = 1000;
-    public static final double NEUTRAL_TAX_RATE = 0.15;
-    public static final double PARK_ATTRACTION_MODIFIER = 0.1;
     private final City city;
+    private final List<Rule> rules = new ArrayList<>();
+    private final IdentityHashMap<Rule, RuleStats> stats = new IdentityHashMap<>();
+    private List<Rule> order = new ArrayList<>();
+    private boolean parallel;
+    // the values the rules of a batch are computed from, reused from batch to batch
+    private int[] values;
+
     /**
-     * Create a new rule applier.
+     * Create a new rule applier with the default rules.
+     *
      * @param city The city that the rules should be applied to.
      */
     public RuleApplier(City city) {
         this.city = city;
+        addRule(new PowerPlantRule());
+        addRule(new EnergyRule());
+        addRule(new TaxRule());
+        addRule(new ParkAttractionRule());
     }
 
     /**
@@ -27,52 +60,237 @@ public class RuleApplier {
      * associated city. This will mutate the {@link City} state.
      */
     public void applyRules() {
-        powerPlantRule();
-        energyRule();
-        taxRule();
-        parkAttractionRule();
+        if (parallel) {
+            applyRulesInParallel();
+            return;
+        }
+        for (Rule rule : order) {
+            long start = System.nanoTime();
+            rule.apply(city);
+            stats.get(rule).record(System.nanoTime() - start);
+        }
     }
 
     /**
-     * Apply the power plant rule. This will depreciate the value
-     * of buildings that are surrounded by a power plant, as well as the city's attraction.
+     * Apply the simulation rules in parallel mode. Consecutive {@link ParallelRule}s whose compute phases
+     * don't read what another of them writes are computed together, then committed in order.
      */
-    private void powerPlantRule() {
-        Map map = city.getMap();
-        for (Building powerPlant : map.getBuildingsFromType(BuildingType.POWER_PLANT)) {
-            for (Building building : map.getAdjacentBuildings(powerPlant)) {
-                building.setValue((int)(building.getValue() * POWER_PLANT_BUILDING_VALUE_MULTIPLIER));
+    private void applyRulesInParallel() {
+        List<ParallelRule> batch = new ArrayList<>();
+        Set<BuildingType> writtenTypes = EnumSet.noneOf(BuildingType.class);
+        Set<CityField> writtenFields = EnumSet.noneOf(CityField.class);
+        for (Rule rule : order) {
+            boolean isParallel = rule instanceof ParallelRule;
+            boolean readsBatch = overlaps(writtenTypes, rule.getReadTypes()) || overlaps(writtenFields,
+                    isParallel ? ((ParallelRule) rule).getComputeReadFields() : rule.getReadFields());
+            if (readsBatch || !isParallel) {
+                applyBatch(batch);
+                batch.clear();
+                writtenTypes.clear();
+                writtenFields.clear();
             }
-            city.setAttraction(city.getAttraction() - POWER_PLANT_ATTRACTION_DEPRECIATION);
+            if (isParallel) {
+                batch.add((ParallelRule) rule);
+                writtenTypes.addAll(rule.getWrittenTypes());
+                writtenFields.addAll(rule.getWrittenFields());
+            } else {
+                long start = System.nanoTime();
+                rule.apply(city);
+                stats.get(rule).record(System.nanoTime() - start);
+            }
+        }
+        applyBatch(batch);
+    }
+
+    /**
+     * Compute the changes of the given rules at the same time, then commit them in order.
+     * The time recorded for each rule is the time of its own compute and commit phases.
+     *
+     * @param batch The rules to apply, none of whose compute phases reads what another one writes.
+     */
+    private void applyBatch(List<ParallelRule> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        values = city.getMap().getColumns().copyValues(values);
+        int[] batchValues = values;
+        long[] computeNanos = new long[batch.size()];
+        List<RuleDelta> deltas;
+        if (batch.size() == 1) {
+            long start = System.nanoTime();
+            deltas = Collections.singletonList(batch.get(0).compute(city, batchValues));
+            computeNanos[0] = System.nanoTime() - start;
+        } else {
+            deltas = IntStream.range(0, batch.size()).parallel().mapToObj(i -> {
+                long start = System.nanoTime();
+                RuleDelta delta = batch.get(i).compute(city, batchValues);
+                computeNanos[i] = System.nanoTime() - start;
+                return delta;
+            }).collect(Collectors.toList());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            long start = System.nanoTime();
+            deltas.get(i).commit(city);
+            stats.get(batch.get(i)).record(computeNanos[i] + System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Add a rule to be applied after the rules it depends on.
+     *
+     * @param rule The rule to add.
+     * @throws IllegalArgumentException The rule was already added, or its dependencies
+     *                                  on the other rules form a cycle.
+     */
+    public void addRule(Rule rule) {
+        if (stats.containsKey(rule)) {
+            throw new IllegalArgumentException("Rule already added: " + rule.getName());
+        }
+        List<Rule> added = new ArrayList<>(rules);
+        added.add(rule);
+        order = sort(added);
+        rules.add(rule);
+        stats.put(rule, new RuleStats(rule));
+    }
+
+    /**
+     * Remove a rule so that it is no longer applied.
+     *
+     * @param rule The rule to remove.
+     * @return Whether the rule had been added.
+     */
+    public boolean removeRule(Rule rule) {
+        if (stats.remove(rule) == null) {
+            return false;
+        }
+        rules.remove(rule);
+        order = sort(rules);
+        return true;
+    }
+
+    /**
+     * Get the rules in the order they are applied.
+     *
+     * @return A read-only list of the rules.
+     */
+    public List<Rule> getRules() {
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Get the timing statistics of every rule, in the order the rules are applied.
+     *
+     * @return A list of the statistics.
+     */
+    public List<RuleStats> getStats() {
+        List<RuleStats> list = new ArrayList<>(order.size());
+        for (Rule rule : order) {
+            list.add(stats.get(rule));
+        }
+        return list;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Enable or disable parallel mode, in which {@link ParallelRule}s compute their changes across cores.
+     * The resulting city state is the same in both modes.
+     *
+     * @param parallel Whether to apply rules in parallel mode.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Forget the timing statistics recorded so far.
+     */
+    public void resetStats() {
+        for (RuleStats ruleStats : stats.values()) {
+            ruleStats.reset();
         }
     }
 
     /**
-     * Apply the energy rule. This will compare the city's energy usage to the capacity.
-     * If the usage is higher than the capacity, the city's attraction and money will fall.
-     * If it's not, then nothing will happen.
+     * Order rules so that every rule is applied after the rules it depends on,
+     * keeping the given order wherever the dependencies allow it.
+     *
+     * @param rules The rules in the order they were added.
+     * @return The rules in the order they should be applied.
+     * @throws IllegalArgumentException The dependencies between the rules form a cycle.
      */
-    private void energyRule() {
-        if (city.getEnergyUsage() > city.getEnergyCapacity()) {
-            city.setAttraction(city.getAttraction() - ENERGY_OVER_CONSUMPTION_ATTRACTION_DEPRECIATION);
-            city.setMoney(city.getMoney() - ENERGY_OVER_CONSUMPTION_MONEY_PENALTY);
+    private static List<Rule> sort(List<Rule> rules) {
+        int size = rules.size();
+        List<List<Integer>> next = new ArrayList<>(size);
+        int[] numBefore = new int[size];
+        for (int i = 0; i < size; i++) {
+            next.add(new ArrayList<>());
         }
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                Rule first = rules.get(i);
+                Rule second = rules.get(j);
+                boolean firstFeedsSecond = writesRead(first, second) || writesWritten(first, second);
+                boolean secondFeedsFirst = writesRead(second, first);
+                if (secondFeedsFirst && !firstFeedsSecond) {
+                    next.get(j).add(i);
+                    numBefore[i]++;
+                } else if (firstFeedsSecond || secondFeedsFirst) {
+                    next.get(i).add(j);
+                    numBefore[j]++;
+                }
+            }
+        }
+
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < size; i++) {
+            if (numBefore[i] == 0) {
+                ready.add(i);
+            }
+        }
+        List<Rule> sorted = new ArrayList<>(size);
+        while (!ready.isEmpty()) {
+            int i = ready.poll();
+            sorted.add(rules.get(i));
+            for (int j : next.get(i)) {
+                if (--numBefore[j] == 0) {
+                    ready.add(j);
+                }
+            }
+        }
+        if (sorted.size() != size) {
+            throw new IllegalArgumentException("Rules have cyclic dependencies");
+        }
+        return sorted;
     }
 
     /**
-     * Increase/decrease the attraction depending on the city's tax rate.
+     * Returns whether the first rule writes anything the second rule reads.
      */
-    private void taxRule() {
-        double taxRate = city.getTaxRate();
-        double difference = (NEUTRAL_TAX_RATE - taxRate) / (NEUTRAL_TAX_RATE * 6.0);
-        city.setAttraction(city.getAttraction() + difference);
+    private static boolean writesRead(Rule writer, Rule reader) {
+        return overlaps(writer.getWrittenTypes(), reader.getReadTypes())
+                || overlaps(writer.getWrittenFields(), reader.getReadFields());
     }
 
     /**
-     * Increase the attraction of the city based on the number of parks.
+     * Returns whether both rules write the same thing.
      */
-    private void parkAttractionRule() {
-        int numParks = city.getMap().getBuildingsFromType(BuildingType.PARK).size();
-        city.setAttraction(city.getAttraction() + numParks * PARK_ATTRACTION_MODIFIER);
+    private static boolean writesWritten(Rule first, Rule second) {
+        return overlaps(first.getWrittenTypes(), second.getWrittenTypes())
+                || overlaps(first.getWrittenFields(), second.getWrittenFields());
+    }
+
+    /**
+     * Returns whether the two sets have an element in common.
+     */
+    private static <T> boolean overlaps(Set<T> a, Set<T> b) {
+        for (T element : a) {
+            if (b.contains(element)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
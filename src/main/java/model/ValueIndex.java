@@ -0,0 +1,98 @@
+package model;
+
+import model.buildings.Building;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sorted index of the buildings of a {@link Map} by value, used to find the buildings in a value
+ * range without looking at every building.
+ * <p>
+ * Values change on almost every tick, so the index is not updated when they do: it is only marked
+ * as stale, and rebuilt from the map's {@link BuildingColumns} the next time it is searched. Each
+ * entry packs a value and the row of its building into one {@code long}, so sorting and searching
+ * never box a value or allocate per building.
+ */
+class ValueIndex {
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+    private final BuildingColumns columns;
+    private long[] entries;
+    private int size;
+    private boolean stale;
+
+    /**
+     * Create a new index over the given columns.
+     *
+     * @param columns The columns holding the value of every building, in building list order.
+     */
+    ValueIndex(BuildingColumns columns) {
+        this.columns = columns;
+        entries = new long[0];
+        stale = true;
+    }
+
+    /**
+     * Record that buildings were added or removed, or that a value changed,
+     * so the index must be rebuilt before it is searched again.
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Get the buildings with values in the given range.
+     *
+     * @param min       The smallest value in the range (inclusive).
+     * @param max       The largest value in the range (inclusive).
+     * @param buildings The map's building list, in the same order as the columns.
+     * @return A new list of the matching buildings, sorted by value and then by building list order.
+     */
+    List<Building> find(int min, int max, List<Building> buildings) {
+        rebuildIfStale();
+        int from = lowerBound((long) min << 32);
+        // rows never use the top bit of the low half, so no entry equals this key
+        int to = lowerBound(((long) max << 32) | ROW_MASK);
+        List<Building> matches = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            matches.add(buildings.get((int) (entries[i] & ROW_MASK)));
+        }
+        return matches;
+    }
+
+    /**
+     * Sort the rows of the columns by value if the index is stale.
+     */
+    private void rebuildIfStale() {
+        if (!stale) {
+            return;
+        }
+        size = columns.size();
+        if (entries.length < size) {
+            entries = new long[size];
+        }
+        for (int row = 0; row < size; row++) {
+            entries[row] = ((long) columns.getValue(row) << 32) | row;
+        }
+        Arrays.sort(entries, 0, size);
+        stale = false;
+    }
+
+    /**
+     * Returns the index of the first entry that is not less than the given key.
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
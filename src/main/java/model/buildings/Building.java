@@ -14,10 +14,13 @@ import java.util.List;
  * An abstract class that represents a building with basic properties.
  */
 public abstract class Building implements Writable, Summarizable {
+    public static final long NO_ID = 0;
     private final String name;
+    private long id;
     private int value;
     protected BuildingType type;
     private Position position;
+    private BuildingObserver observer;
 
     /**
      * Create a new building.
@@ -67,6 +70,30 @@ public abstract class Building implements Writable, Summarizable {
         return type;
     }
 
+    /**
+     * Get the ID of this building, which identifies it within its map and stays the same when it is saved and loaded.
+     *
+     * @return The ID of this building, or {@link #NO_ID} if it has never been added to a map.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Set the ID of this building. IDs are assigned by the map the building is added to,
+     * so this should only be called by the map and by readers restoring a saved ID.
+     * A building that is on a map is indexed by its ID, so its ID cannot be changed.
+     *
+     * @param id The new ID.
+     * @throws IllegalStateException The building is on a map, i.e. has an observer.
+     */
+    public void setId(long id) {
+        if (observer != null) {
+            throw new IllegalStateException("Cannot change the ID of a building that is on a map");
+        }
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -75,21 +102,48 @@ public abstract class Building implements Writable, Summarizable {
         return value;
     }
 
+    /**
+     * Set the value of this building, notifying its observer (if any).
+     *
+     * @param value The new value of the building.
+     */
     public void setValue(int value) {
+        int oldValue = this.value;
         this.value = value;
+        if (observer != null) {
+            observer.valueChanged(this, oldValue);
+        }
     }
 
     public Position getPosition() {
         return position;
     }
 
+    /**
+     * Move this building to a new position, notifying its observer (if any).
+     *
+     * @param position The new position of the building.
+     */
     public void setPosition(Position position) {
+        Position oldPosition = this.position;
         this.position = position;
+        if (observer != null) {
+            observer.positionChanged(this, oldPosition);
+        }
+    }
+
+    public BuildingObserver getObserver() {
+        return observer;
+    }
+
+    public void setObserver(BuildingObserver observer) {
+        this.observer = observer;
     }
 
     @Override
     public JSONObject toJson() {
         JSONObject jsonObject = new JSONObject();
+        jsonObject.put("id", getId());
         jsonObject.put("name", getName());
         jsonObject.put("type", getBuildingType().toString());
         jsonObject.put("value", getValue());
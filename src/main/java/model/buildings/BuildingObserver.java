@@ -0,0 +1,25 @@
+package model.buildings;
+
+import model.Position;
+
+/**
+ * Interface implemented by objects that need to be notified when
+ * the state of a {@link Building} they keep track of changes.
+ */
+public interface BuildingObserver {
+    /**
+     * Called after a building has been moved to a new position.
+     *
+     * @param building    The building that was moved.
+     * @param oldPosition The position of the building before it was moved.
+     */
+    void positionChanged(Building building, Position oldPosition);
+
+    /**
+     * Called after the value of a building has changed.
+     *
+     * @param building The building whose value changed.
+     * @param oldValue The value of the building before it changed.
+     */
+    void valueChanged(Building building, int oldValue);
+}
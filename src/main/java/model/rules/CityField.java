@@ -0,0 +1,13 @@
+package model.rules;
+
+/**
+ * Specifies the fields of a {@link model.City} that a {@link Rule} can read or write.
+ */
+public enum CityField {
+    MONEY,
+    POPULATION,
+    ATTRACTION,
+    TAX_RATE,
+    ENERGY_USAGE,
+    ENERGY_CAPACITY
+}
@@ -0,0 +1,60 @@
+package model.rules;
+
+import model.City;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Compares the city's energy usage to its capacity. If the usage is higher than
+ * the capacity, the city's attraction and money will fall. If it's not, nothing will happen.
+ */
+public class EnergyRule implements ParallelRule {
+    public static final double ENERGY_OVER_CONSUMPTION_ATTRACTION_DEPRECIATION = 0.2;
+    public static final int ENERGY_OVER_CONSUMPTION_MONEY_PENALTY = 1000;
+
+    @Override
+    public String getName() {
+        return "Energy";
+    }
+
+    @Override
+    public Set<CityField> getReadFields() {
+        return Collections.unmodifiableSet(EnumSet.of(CityField.ENERGY_USAGE, CityField.ENERGY_CAPACITY,
+                CityField.ATTRACTION, CityField.MONEY));
+    }
+
+    @Override
+    public Set<CityField> getWrittenFields() {
+        return Collections.unmodifiableSet(EnumSet.of(CityField.ATTRACTION, CityField.MONEY));
+    }
+
+    @Override
+    public Set<CityField> getComputeReadFields() {
+        return Collections.unmodifiableSet(EnumSet.of(CityField.ENERGY_USAGE, CityField.ENERGY_CAPACITY));
+    }
+
+    @Override
+    public void apply(City city) {
+        if (city.getEnergyUsage() > city.getEnergyCapacity()) {
+            penalize(city);
+        }
+    }
+
+    @Override
+    public RuleDelta compute(City city, int[] values) {
+        if (city.getEnergyUsage() > city.getEnergyCapacity()) {
+            return EnergyRule::penalize;
+        }
+        return target -> { };
+    }
+
+    /**
+     * Lower the attraction and money of a city that uses more energy than it produces.
+     */
+    private static void penalize(City city) {
+        city.setAttraction(city.getAttraction() - ENERGY_OVER_CONSUMPTION_ATTRACTION_DEPRECIATION);
+        city.setMoney(city.getMoney() - ENERGY_OVER_CONSUMPTION_MONEY_PENALTY);
+    }
+}
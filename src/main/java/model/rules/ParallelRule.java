@@ -0,0 +1,32 @@
+package model.rules;
+
+import model.City;
+
+import java.util.Set;
+
+/**
+ * A {@link Rule} that can be applied in two phases: a compute phase that only reads the city and may
+ * spread its work across cores, and a commit phase that applies the computed changes on the thread
+ * that owns the city. Used by {@link model.RuleApplier} in parallel mode.
+ */
+public interface ParallelRule extends Rule {
+    /**
+     * Compute the changes this rule would make to the city, without changing it.
+     * May be called at the same time as the compute phase of other rules, while no one changes the city.
+     *
+     * @param city   The city to compute the changes for.
+     * @param values The value of every building of the city's map, in building list order, as it was
+     *               before the rules computed together with this one were committed. Must not be changed.
+     * @return The changes to commit.
+     */
+    RuleDelta compute(City city, int[] values);
+
+    /**
+     * Returns the city fields the compute phase reads. By default these are all the fields the rule reads,
+     * but a rule whose commit phase only adjusts a field, e.g. adds to the attraction, can leave that field
+     * out so it is computed together with the rules that write the field.
+     */
+    default Set<CityField> getComputeReadFields() {
+        return getReadFields();
+    }
+}
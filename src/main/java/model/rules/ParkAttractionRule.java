@@ -0,0 +1,51 @@
+package model.rules;
+
+import model.City;
+import model.buildings.BuildingType;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Increases the attraction of the city based on the number of parks.
+ */
+public class ParkAttractionRule implements ParallelRule {
+    public static final double PARK_ATTRACTION_MODIFIER = 0.1;
+
+    @Override
+    public String getName() {
+        return "Parks";
+    }
+
+    @Override
+    public Set<BuildingType> getReadTypes() {
+        return Collections.singleton(BuildingType.PARK);
+    }
+
+    @Override
+    public Set<CityField> getReadFields() {
+        return Collections.singleton(CityField.ATTRACTION);
+    }
+
+    @Override
+    public Set<CityField> getWrittenFields() {
+        return Collections.singleton(CityField.ATTRACTION);
+    }
+
+    @Override
+    public Set<CityField> getComputeReadFields() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void apply(City city) {
+        int numParks = city.getMap().getNumOfBuildingsFromType(BuildingType.PARK);
+        city.setAttraction(city.getAttraction() + numParks * PARK_ATTRACTION_MODIFIER);
+    }
+
+    @Override
+    public RuleDelta compute(City city, int[] values) {
+        int numParks = city.getMap().getNumOfBuildingsFromType(BuildingType.PARK);
+        return target -> target.setAttraction(target.getAttraction() + numParks * PARK_ATTRACTION_MODIFIER);
+    }
+}
@@ -0,0 +1,153 @@
+package model.rules;
+
+import model.City;
+import model.Map;
+import model.buildings.Building;
+import model.buildings.BuildingType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Depreciates the value of buildings that are next to a power plant,
+ * as well as the city's attraction for every power plant.
+ * In parallel mode the neighbours of the power plants are found across cores, and the value every
+ * neighbour ends up with is computed from the values before the rule, so committing only writes
+ * each changed value once and lowers the attraction once for every power plant.
+ */
+public class PowerPlantRule implements ParallelRule {
+    public static final double POWER_PLANT_ATTRACTION_DEPRECIATION = 0.15;
+    public static final double POWER_PLANT_BUILDING_VALUE_MULTIPLIER = 0.5;
+    private static final int PLANTS_PER_TASK = 256;
+    private static final int MAX_NEIGHBOURS = 4;
+    // how many power plants each building is next to, by building list index; all zero between ticks
+    private int[] depreciations = new int[0];
+
+    @Override
+    public String getName() {
+        return "Power plants";
+    }
+
+    @Override
+    public Set<BuildingType> getReadTypes() {
+        return Collections.unmodifiableSet(EnumSet.allOf(BuildingType.class));
+    }
+
+    @Override
+    public Set<BuildingType> getWrittenTypes() {
+        return Collections.unmodifiableSet(EnumSet.allOf(BuildingType.class));
+    }
+
+    @Override
+    public Set<CityField> getReadFields() {
+        return Collections.singleton(CityField.ATTRACTION);
+    }
+
+    @Override
+    public Set<CityField> getWrittenFields() {
+        return Collections.singleton(CityField.ATTRACTION);
+    }
+
+    @Override
+    public void apply(City city) {
+        Map map = city.getMap();
+        for (Building powerPlant : map.getBuildingsFromType(BuildingType.POWER_PLANT)) {
+            List<Building> neighbours = map.getAdjacentBuildings(powerPlant);
+            for (int i = 0; i < neighbours.size(); i++) {
+                Building building = neighbours.get(i);
+                building.setValue((int) (building.getValue() * POWER_PLANT_BUILDING_VALUE_MULTIPLIER));
+            }
+            city.setAttraction(city.getAttraction() - POWER_PLANT_ATTRACTION_DEPRECIATION);
+        }
+    }
+
+    @Override
+    public Set<CityField> getComputeReadFields() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public RuleDelta compute(City city, int[] values) {
+        Map map = city.getMap();
+        List<Building> powerPlants = map.getBuildingsFromType(BuildingType.POWER_PLANT);
+        int numPlants = powerPlants.size();
+        int numTasks = (numPlants + PLANTS_PER_TASK - 1) / PLANTS_PER_TASK;
+        int[][] neighbours = IntStream.range(0, numTasks).parallel()
+                .mapToObj(task -> findNeighbours(map, powerPlants.subList(task * PLANTS_PER_TASK,
+                        Math.min(numPlants, (task + 1) * PLANTS_PER_TASK))))
+                .toArray(int[][]::new);
+
+        // count how many power plants each building is next to, listing each building once in the
+        // order apply() first depreciates it
+        if (depreciations.length < values.length) {
+            depreciations = new int[values.length];
+        }
+        int numTargets = 0;
+        for (int[] group : neighbours) {
+            numTargets += group.length;
+        }
+        int[] targets = new int[numTargets];
+        numTargets = 0;
+        for (int[] group : neighbours) {
+            for (int index : group) {
+                if (depreciations[index]++ == 0) {
+                    targets[numTargets++] = index;
+                }
+            }
+        }
+        int[] indices = Arrays.copyOf(targets, numTargets);
+        int[] newValues = new int[numTargets];
+        Arrays.parallelSetAll(newValues, i -> depreciate(values[indices[i]], depreciations[indices[i]]));
+        for (int index : indices) {
+            depreciations[index] = 0;
+        }
+
+        return target -> {
+            Map targetMap = target.getMap();
+            for (int i = 0; i < indices.length; i++) {
+                targetMap.getBuilding(indices[i]).setValue(newValues[i]);
+            }
+            for (int i = 0; i < numPlants; i++) {
+                target.setAttraction(target.getAttraction() - POWER_PLANT_ATTRACTION_DEPRECIATION);
+            }
+        };
+    }
+
+    /**
+     * Returns the value a building ends up with after being depreciated by the given number of power plants,
+     * one after the other as in {@link #apply(City)}.
+     *
+     * @param value The value of the building before it is depreciated.
+     * @param times The number of power plants the building is next to.
+     */
+    private static int depreciate(int value, int times) {
+        for (int i = 0; i < times; i++) {
+            value = (int) (value * POWER_PLANT_BUILDING_VALUE_MULTIPLIER);
+        }
+        return value;
+    }
+
+    /**
+     * Find the buildings next to each of the given power plants, without changing the map.
+     *
+     * @param map         The map the power plants are on.
+     * @param powerPlants The power plants to look around.
+     * @return The building list indices of the neighbours of every power plant in turn,
+     *         with a building listed once for every power plant it is next to.
+     */
+    private static int[] findNeighbours(Map map, List<Building> powerPlants) {
+        int[] neighbours = new int[powerPlants.size() * MAX_NEIGHBOURS];
+        int count = 0;
+        for (Building powerPlant : powerPlants) {
+            List<Building> adjacent = map.getAdjacentBuildings(powerPlant);
+            for (int i = 0; i < adjacent.size(); i++) {
+                neighbours[count++] = map.indexOf(adjacent.get(i));
+            }
+        }
+        return Arrays.copyOf(neighbours, count);
+    }
+}
@@ -0,0 +1,54 @@
+package model.rules;
+
+import model.City;
+import model.buildings.BuildingType;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A simulation rule that is applied to a {@link City} on every tick by a {@link model.RuleApplier}.
+ * A rule declares the building types and city fields it reads and writes, so that rules
+ * which depend on each other's results are always applied in the right order.
+ */
+public interface Rule {
+    /**
+     * Returns a short name for this rule, e.g. to show it in timing reports.
+     */
+    String getName();
+
+    /**
+     * Returns the types of the buildings whose positions or values this rule reads.
+     */
+    default Set<BuildingType> getReadTypes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the types of the buildings whose values this rule may change.
+     */
+    default Set<BuildingType> getWrittenTypes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the city fields this rule reads.
+     */
+    default Set<CityField> getReadFields() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the city fields this rule may change.
+     */
+    default Set<CityField> getWrittenFields() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Apply this rule to the given city. This will mutate the {@link City} state.
+     *
+     * @param city The city to apply the rule to.
+     */
+    void apply(City city);
+}
@@ -0,0 +1,16 @@
+package model.rules;
+
+import model.City;
+
+/**
+ * The changes a {@link ParallelRule} computed for a {@link City}, waiting to be committed.
+ */
+public interface RuleDelta {
+    /**
+     * Apply the changes to the city. Must be called on the thread that owns the city, and must leave
+     * the city in exactly the state {@link Rule#apply(City)} would have.
+     *
+     * @param city The city the changes were computed for.
+     */
+    void commit(City city);
+}
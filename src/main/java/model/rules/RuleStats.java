@@ -0,0 +1,69 @@
+package model.rules;
+
+/**
+ * Keeps track of how many times a {@link Rule} was applied and how long it took.
+ */
+public class RuleStats {
+    private final Rule rule;
+    private long invocations;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Create new, empty statistics for the given rule.
+     *
+     * @param rule The rule the statistics are kept for.
+     */
+    public RuleStats(Rule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Record one application of the rule.
+     *
+     * @param nanos How long the rule took to apply, in nanoseconds.
+     */
+    public void record(long nanos) {
+        invocations++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Forget every application recorded so far.
+     */
+    public void reset() {
+        invocations = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the average time the rule took to apply in nanoseconds, or {@code 0} if it was never applied.
+     */
+    public long getAverageNanos() {
+        return invocations == 0 ? 0 : totalNanos / invocations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, %.3f ms total, %.3f ms max",
+                rule.getName(), invocations, totalNanos / 1e6, maxNanos / 1e6);
+    }
+}
@@ -0,0 +1,53 @@
+package model.rules;
+
+import model.City;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Increases or decreases the city's attraction depending on how far its tax rate is from the neutral rate.
+ */
+public class TaxRule implements ParallelRule {
+    public static final double NEUTRAL_TAX_RATE = 0.15;
+
+    @Override
+    public String getName() {
+        return "Tax";
+    }
+
+    @Override
+    public Set<CityField> getReadFields() {
+        return Collections.unmodifiableSet(EnumSet.of(CityField.TAX_RATE, CityField.ATTRACTION));
+    }
+
+    @Override
+    public Set<CityField> getWrittenFields() {
+        return Collections.singleton(CityField.ATTRACTION);
+    }
+
+    @Override
+    public Set<CityField> getComputeReadFields() {
+        return Collections.singleton(CityField.TAX_RATE);
+    }
+
+    @Override
+    public void apply(City city) {
+        double difference = attractionChange(city.getTaxRate());
+        city.setAttraction(city.getAttraction() + difference);
+    }
+
+    @Override
+    public RuleDelta compute(City city, int[] values) {
+        double difference = attractionChange(city.getTaxRate());
+        return target -> target.setAttraction(target.getAttraction() + difference);
+    }
+
+    /**
+     * Returns the change in attraction for the given tax rate.
+     */
+    private static double attractionChange(double taxRate) {
+        return (NEUTRAL_TAX_RATE - taxRate) / (NEUTRAL_TAX_RATE * 6.0);
+    }
+}
@@ -2,22 +2,36 @@ package persistence;
 
 import model.City;
 import model.buildings.*;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A json reader that reads in a City from a json file
  * partially modelled around the JsonReader class in the
  * <a href="https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo">JsonSerializationDemo</a>
+ * <p>
+ * The file is parsed as a stream: city fields are read as they are reached, and each entry of
+ * the {@code map.buildings} array is turned into a {@link Building} before the next one is read,
+ * so only a single building record is held as a {@link JSONObject} at any time.
  */
 public class JsonReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final List<String> REQUIRED_FIELDS =
+            Arrays.asList("name", "population", "money", "attraction", "taxRate", "map");
     private final String source;
 
     /**
@@ -33,66 +47,182 @@ public class JsonReader {
      * Creates a {@link City} object, reading data from a JSON file.
      * Adapted from the <a href="https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo">JsonSerializationDemo</a>.
      *
-     * @throws IOException Failed to read the JSON source file.
+     * @throws IOException   Failed to read the JSON source file.
+     * @throws JSONException The file is not valid JSON, has content after the city object,
+     *                       repeats a key, or is missing a city field or the map's buildings.
      */
     public City read() throws IOException, JSONException {
-        String jsonString = readFileToString();
-        JSONObject jsonObject = new JSONObject(jsonString);
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+             Reader reader = new BufferedReader(
+                Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1), BUFFER_SIZE)) {
+            JSONTokener tokener = new JSONTokener(reader);
+            City city = parseCity(tokener);
+            if (tokener.nextClean() != 0) {
+                throw tokener.syntaxError("Unexpected content after the city object");
+            }
+            return city;
+        }
+    }
 
-        return parseCity(jsonObject);
+    /**
+     * Parses a city object from the tokener and creates and returns a new City object from it.
+     * Fields may appear in any order; unknown fields are skipped.
+     *
+     * @param tokener The {@link JSONTokener} positioned before the city object.
+     * @return The parsed {@link City}.
+     */
+    private City parseCity(JSONTokener tokener) {
+        City city = new City("");
+        Set<String> seen = readObject(tokener, key -> {
+            switch (key) {
+                case "name":
+                    city.setName(nextString(tokener));
+                    break;
+                case "population":
+                    city.setPopulation(nextNumber(tokener).intValue());
+                    break;
+                case "money":
+                    city.setMoney(nextNumber(tokener).intValue());
+                    break;
+                case "attraction":
+                    city.setAttraction(nextNumber(tokener).doubleValue());
+                    break;
+                case "taxRate":
+                    city.setTaxRate(nextNumber(tokener).doubleValue());
+                    break;
+                case "map":
+                    parseMap(tokener, city);
+                    break;
+                default:
+                    tokener.nextValue();
+            }
+        });
+
+        for (String field : REQUIRED_FIELDS) {
+            if (!seen.contains(field)) {
+                throw new JSONException(String.format("City is missing field \"%s\"", field));
+            }
+        }
+        return city;
     }
 
     /**
-     * Reads the source file's contents.
-     * Adapted from the <a href="https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo">JsonSerializationDemo</a>.
+     * Parses a map object from the tokener, adding each building to the given city as it is read.
      *
-     * @return The contents of the file.
-     * @throws IOException The source file's contents cannot be read.
+     * @param tokener The {@link JSONTokener} positioned before the map object.
+     * @param city    The {@link City} to add the buildings to.
      */
-    private String readFileToString() throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
+    private void parseMap(JSONTokener tokener, City city) {
+        Set<String> seen = readObject(tokener, key -> {
+            if (key.equals("buildings")) {
+                addBuildings(tokener, city);
+            } else {
+                tokener.nextValue();
+            }
+        });
 
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(stringBuilder::append);
+        if (!seen.contains("buildings")) {
+            throw new JSONException("Map is missing field \"buildings\"");
         }
+    }
 
-        return stringBuilder.toString();
+    /**
+     * Reads the buildings array one element at a time, adding each building to the given city.
+     *
+     * @param tokener The {@link JSONTokener} positioned before the buildings array.
+     * @param city    The {@link City} to add the buildings to.
+     */
+    private void addBuildings(JSONTokener tokener, City city) {
+        expect(tokener, '[');
+        if (tokener.nextClean() == ']') {
+            return;
+        }
+        tokener.back();
+        while (true) {
+            Object value = tokener.nextValue();
+            if (!(value instanceof JSONObject)) {
+                throw tokener.syntaxError("Expected a building object");
+            }
+            addBuilding(city, (JSONObject) value);
+
+            char c = tokener.nextClean();
+            if (c == ']') {
+                return;
+            } else if (c != ',') {
+                throw tokener.syntaxError("Expected ',' or ']'");
+            }
+        }
     }
 
     /**
-     * Parses data from json and creates and returns a new City object from it.
-     * Adapted from the <a href="https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo">JsonSerializationDemo</a>.
+     * Reads the members of a JSON object, handing each key to the given handler,
+     * which must consume the key's value from the tokener.
+     * Like {@link JSONObject}, a key that appears more than once is rejected.
      *
-     * @param jsonObject The {@link JSONObject} to parse.
-     * @return The parsed {@link City} from the jsonObject.
+     * @param tokener The {@link JSONTokener} positioned before the object.
+     * @param handler The handler that reads the value of each member.
+     * @return The keys of the object's members.
      */
-    private City parseCity(JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        City city = new City(name);
-        city.setPopulation(jsonObject.getInt("population"));
-        city.setMoney(jsonObject.getInt("money"));
-        city.setAttraction(jsonObject.getDouble("attraction"));
-        city.setTaxRate(jsonObject.getDouble("taxRate"));
-        addBuildings(city, jsonObject);
+    private Set<String> readObject(JSONTokener tokener, MemberHandler handler) {
+        Set<String> keys = new HashSet<>();
+        expect(tokener, '{');
+        if (tokener.nextClean() == '}') {
+            return keys;
+        }
+        tokener.back();
+        while (true) {
+            expect(tokener, '"');
+            String key = tokener.nextString('"');
+            if (!keys.add(key)) {
+                throw tokener.syntaxError(String.format("Duplicate key \"%s\"", key));
+            }
+            expect(tokener, ':');
+            handler.readValue(key);
 
-        return city;
+            char c = tokener.nextClean();
+            if (c == '}') {
+                return keys;
+            } else if (c != ',') {
+                throw tokener.syntaxError("Expected ',' or '}'");
+            }
+        }
     }
 
     /**
-     * Adds all buildings in a json object to the given city.
-     * Adapted from the <a href="https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo">JsonSerializationDemo</a>.
+     * Reads the next non-whitespace character and throws if it is not the expected one.
      *
-     * @param city       The {@link City} to add the buildings to.
-     * @param jsonObject The {@link JSONObject} to parse the buildings from.
+     * @param tokener  The {@link JSONTokener} to read from.
+     * @param expected The expected character.
      */
-    private void addBuildings(City city, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONObject("map").getJSONArray("buildings");
-        for (Object json : jsonArray) {
-            JSONObject buildingJson = (JSONObject) json;
-            addBuilding(city, buildingJson);
+    private static void expect(JSONTokener tokener, char expected) {
+        char c = tokener.nextClean();
+        if (c != expected) {
+            throw tokener.syntaxError(String.format("Expected '%s'", expected));
         }
     }
 
+    /**
+     * Reads the next value and throws if it is not a string.
+     */
+    private static String nextString(JSONTokener tokener) {
+        Object value = tokener.nextValue();
+        if (!(value instanceof String)) {
+            throw tokener.syntaxError("Expected a string");
+        }
+        return (String) value;
+    }
+
+    /**
+     * Reads the next value and throws if it is not a number.
+     */
+    private static Number nextNumber(JSONTokener tokener) {
+        Object value = tokener.nextValue();
+        if (!(value instanceof Number)) {
+            throw tokener.syntaxError("Expected a number");
+        }
+        return (Number) value;
+    }
+
     /**
      * Adds a building specified by json data into a given city.
      *
@@ -103,6 +233,8 @@ public class JsonReader {
         String stringType = jsonObject.getString("type");
         BuildingType type = BuildingType.valueOf(stringType);
         Building b = getBuildingFromType(type, jsonObject);
+        // saves from before buildings had IDs get new ones from the map
+        b.setId(jsonObject.optLong("id", Building.NO_ID));
         city.getMap().addBuilding(b);
     }
 
@@ -131,4 +263,16 @@ public class JsonReader {
             return School.fromJson(jsonObject);
         }
     }
+
+    /**
+     * Reads the value of a single member of a JSON object.
+     */
+    private interface MemberHandler {
+        /**
+         * Consume the value of the member with the given key from the tokener.
+         *
+         * @param key The member's key.
+         */
+        void readValue(String key);
+    }
 }
@@ -1,28 +1,39 @@
 package persistence;
 
 import model.City;
+import model.buildings.Building;
 import org.json.JSONObject;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 
 /**
  * JSOn writer that writes {@link City} data to a JSON file.
  * partially modelled around JsonWriter class from the
  * <a href="https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo">JsonSerializationDemo</a>
+ * <p>
+ * The city is streamed to the file: the city fields are written first, followed by
+ * each building's JSON record one at a time, so the whole city is never held in memory as JSON.
  */
 public class JsonWriter {
     private static final int TAB = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
     private final String destination;
     private PrintWriter writer;
+    private boolean prettyPrint;
 
     /**
-     * Creates a new writer.
+     * Creates a new writer that pretty-prints its output.
      *
      * @param destination The destination path to write the file to.
      */
     public JsonWriter(String destination) {
         this.destination = destination;
+        this.prettyPrint = true;
     }
 
     /**
@@ -31,15 +42,33 @@ public class JsonWriter {
      * @throws FileNotFoundException The destination file cannot be opened.
      */
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(destination);
+        writer = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(destination), StandardCharsets.UTF_8), BUFFER_SIZE));
     }
 
     /**
      * Writes city data (converted to json) to the destination file.
      */
     public void write(City city) {
-        JSONObject json = city.toJson();
-        saveToFile(json.toString(TAB));
+        JSONObject header = city.headerToJson();
+
+        writer.print('{');
+        for (String key : header.keySet()) {
+            newLine(1);
+            writeKey(key);
+            writer.print(JSONObject.valueToString(header.get(key)));
+            writer.print(',');
+        }
+        newLine(1);
+        writeKey("map");
+        writer.print('{');
+        newLine(2);
+        writeKey("buildings");
+        writeBuildings(city);
+        newLine(1);
+        writer.print('}');
+        newLine(0);
+        writer.print('}');
     }
 
     /**
@@ -50,12 +79,76 @@ public class JsonWriter {
     }
 
     /**
-     * Writes a string to file.
+     * Returns whether the output is indented over multiple lines.
+     */
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    /**
+     * Set whether the output is indented over multiple lines or written compactly.
+     *
+     * @param prettyPrint Whether to pretty-print the output.
+     */
+    public void setPrettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    /**
+     * Writes the map's buildings as a JSON array, converting one building at a time.
+     *
+     * @param city The {@link City} whose buildings are written.
+     */
+    private void writeBuildings(City city) {
+        writer.print('[');
+        boolean first = true;
+        for (Building b : city.getMap().getBuildings()) {
+            if (!first) {
+                writer.print(',');
+            }
+            first = false;
+            newLine(3);
+            writeJson(b.toJson(), 3);
+        }
+        if (!first) {
+            newLine(2);
+        }
+        writer.print(']');
+    }
+
+    /**
+     * Writes a JSON object at the given nesting depth.
+     *
+     * @param json  The {@link JSONObject} to write.
+     * @param depth The nesting depth of the object.
+     */
+    private void writeJson(JSONObject json, int depth) {
+        json.write(writer, prettyPrint ? TAB : 0, prettyPrint ? depth * TAB : 0);
+    }
+
+    /**
+     * Writes a quoted object key followed by a separator.
+     *
+     * @param key The key to write.
+     */
+    private void writeKey(String key) {
+        writer.print(JSONObject.quote(key));
+        writer.print(prettyPrint ? ": " : ":");
+    }
+
+    /**
+     * Starts a new line indented to the given depth, if pretty-printing.
      *
-     * @param json The JSON string to write to the writer's destination file.
+     * @param depth The nesting depth of the new line.
      */
-    private void saveToFile(String json) {
-        writer.print(json);
+    private void newLine(int depth) {
+        if (!prettyPrint) {
+            return;
+        }
+        writer.print('\n');
+        for (int i = 0; i < depth * TAB; i++) {
+            writer.print(' ');
+        }
     }
 
     /**
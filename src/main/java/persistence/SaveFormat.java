@@ -0,0 +1,64 @@
+package persistence;
+
+import model.City;
+import org.json.JSONException;
+
+import java.io.IOException;
+
+/**
+ * The file formats a {@link City} can be saved in and loaded from.
+ */
+public enum SaveFormat {
+    JSON("JSON"),
+    SNAPSHOT("Binary snapshot");
+
+    private final String displayName;
+
+    /**
+     * Create a new save format.
+     *
+     * @param displayName The display-friendly name of the format.
+     */
+    SaveFormat(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Write the city to a file in this format.
+     *
+     * @param city The {@link City} to save.
+     * @param path The path of the file to write.
+     * @throws IOException The file cannot be written.
+     */
+    public void save(City city, String path) throws IOException {
+        if (this == JSON) {
+            new JsonWriter(path).writeAndClose(city);
+        } else {
+            new SnapshotWriter(path).write(city);
+        }
+    }
+
+    /**
+     * Read a city from a file in this format.
+     *
+     * @param path The path of the file to read.
+     * @return The loaded {@link City}.
+     * @throws IOException The file cannot be read or parsed.
+     */
+    public City load(String path) throws IOException {
+        if (this == JSON) {
+            try {
+                return new JsonReader(path).read();
+            } catch (JSONException e) {
+                throw new IOException(e);
+            }
+        } else {
+            return new SnapshotReader(path).read();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
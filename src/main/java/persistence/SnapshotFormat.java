@@ -0,0 +1,29 @@
+package persistence;
+
+/**
+ * Layout constants of the binary city snapshot format, shared by
+ * {@link SnapshotWriter} and {@link SnapshotReader}. All values are big-endian.
+ * <pre>
+ * header:    int magic, int version,
+ *            string name, int population, int money, double attraction, double taxRate
+ * names:     int count, count * string          (distinct building names)
+ * buildings: int count, count * record
+ * record:    long id, byte type, int nameIndex, int x, int y, int value, long extension, int counter
+ * string:    int byteLength, UTF-8 bytes
+ * </pre>
+ * {@code type} is the {@link model.buildings.BuildingType} ordinal. {@code extension} and
+ * {@code counter} hold the per-type fields, e.g. capacity and residents for housing,
+ * the production rate for power plants, and the raw bits of a park's value modifier.
+ * <p>
+ * Version 1 records have no {@code id}; buildings read from them get new IDs when added to the map.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x4D435459;
+    static final int VERSION = 2;
+    static final int VERSION_WITHOUT_IDS = 1;
+    static final int RECORD_SIZE = 8 + 1 + 4 + 4 + 4 + 4 + 8 + 4;
+    static final int RECORD_SIZE_WITHOUT_ID = RECORD_SIZE - 8;
+
+    private SnapshotFormat() {
+    }
+}
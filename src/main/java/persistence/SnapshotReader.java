@@ -0,0 +1,181 @@
+package persistence;
+
+import model.City;
+import model.Map;
+import model.Position;
+import model.buildings.*;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a {@link City} from a binary snapshot file written by {@link SnapshotWriter}.
+ * The file is memory-mapped, so building records are decoded straight from the page cache.
+ */
+public class SnapshotReader {
+    private static final BuildingType[] TYPES = BuildingType.values();
+    private final String source;
+
+    /**
+     * Create a new snapshot reader.
+     *
+     * @param source The source snapshot file.
+     */
+    public SnapshotReader(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Creates a {@link City} object, reading data from a snapshot file.
+     *
+     * @throws IOException The file cannot be read, is not a snapshot, or is truncated.
+     */
+    public City read() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parseCity(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(String.format("Snapshot %s is truncated", source), e);
+        }
+    }
+
+    /**
+     * Parses the header and buildings of a snapshot. Snapshots written before buildings had IDs
+     * are still read, and their buildings are given new IDs by the map.
+     *
+     * @param buffer The buffer holding the snapshot.
+     * @return The parsed {@link City}.
+     * @throws IOException The buffer does not hold a supported snapshot.
+     */
+    private City parseCity(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != SnapshotFormat.MAGIC) {
+            throw new IOException(String.format("%s is not a city snapshot", source));
+        }
+        int version = buffer.getInt();
+        if (version != SnapshotFormat.VERSION && version != SnapshotFormat.VERSION_WITHOUT_IDS) {
+            throw new IOException(String.format("Unsupported snapshot version %s", version));
+        }
+        boolean hasIds = version != SnapshotFormat.VERSION_WITHOUT_IDS;
+
+        City city = new City(readString(buffer));
+        city.setPopulation(buffer.getInt());
+        city.setMoney(buffer.getInt());
+        city.setAttraction(buffer.getDouble());
+        city.setTaxRate(buffer.getDouble());
+
+        String[] names = new String[readLength(buffer)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = readString(buffer);
+        }
+
+        int count = buffer.getInt();
+        int recordSize = hasIds ? SnapshotFormat.RECORD_SIZE : SnapshotFormat.RECORD_SIZE_WITHOUT_ID;
+        if ((long) count * recordSize > buffer.remaining()) {
+            throw new IOException(String.format("Snapshot %s is truncated", source));
+        }
+        Map map = city.getMap();
+        for (int i = 0; i < count; i++) {
+            map.addBuilding(hasIds ? readBuilding(buffer, names) : readBuildingFields(buffer, names));
+        }
+        return city;
+    }
+
+    /**
+     * Decodes a single fixed-width building record.
+     *
+     * @param buffer The buffer positioned at the record.
+     * @param names  The snapshot's name table.
+     * @return The decoded building.
+     */
+    private Building readBuilding(ByteBuffer buffer, String[] names) throws IOException {
+        long id = buffer.getLong();
+        Building building = readBuildingFields(buffer, names);
+        building.setId(id);
+        return building;
+    }
+
+    /**
+     * Decodes the type-specific fields of a building record.
+     *
+     * @param buffer The buffer positioned after the record's ID, or at the record if it has none.
+     * @param names  The snapshot's name table.
+     * @return The decoded building, whose ID is {@link Building#NO_ID}.
+     */
+    private Building readBuildingFields(ByteBuffer buffer, String[] names) throws IOException {
+        int typeIndex = buffer.get();
+        if (typeIndex < 0 || typeIndex >= TYPES.length) {
+            throw new IOException(String.format("Unknown building type %s in snapshot", typeIndex));
+        }
+        int nameIndex = buffer.getInt();
+        if (nameIndex < 0 || nameIndex >= names.length) {
+            throw new IOException("Corrupt snapshot");
+        }
+        String name = names[nameIndex];
+        Position position = new Position(buffer.getInt(), buffer.getInt());
+        int value = buffer.getInt();
+        long extension = buffer.getLong();
+        int counter = buffer.getInt();
+
+        switch (TYPES[typeIndex]) {
+            case BUSINESS:
+                Business business = new Business(name, value, (int) extension, position);
+                business.setWorkers(counter);
+                return business;
+            case FIRE_HALL:
+                FireHall fireHall = new FireHall(name, value, position);
+                fireHall.setTrucks(counter);
+                return fireHall;
+            case HOSPITAL:
+                Hospital hospital = new Hospital(name, value, position);
+                hospital.setAmbulances(counter);
+                return hospital;
+            case HOUSING:
+                Housing housing = new Housing(name, value, (int) extension, position);
+                housing.setResidents(counter);
+                return housing;
+            case LANDFILL:
+                Landfill landfill = new Landfill(name, value, (int) extension, position);
+                landfill.setTrucks(counter);
+                return landfill;
+            case PARK:
+                return new Park(name, value, Double.longBitsToDouble(extension), position);
+            case POWER_PLANT:
+                return new PowerPlant(name, value, (int) extension, position);
+            default:
+                School school = new School(name, value, (int) extension, position);
+                school.setStudents(counter);
+                return school;
+        }
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @throws IOException The length of the string is corrupt.
+     */
+    private static String readString(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a length or count, which can be no larger than the number of bytes left since
+     * every element takes at least one byte.
+     *
+     * @throws IOException The length is negative or larger than the rest of the buffer.
+     */
+    private static int readLength(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt snapshot");
+        }
+        return length;
+    }
+}
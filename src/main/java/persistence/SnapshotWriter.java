@@ -0,0 +1,138 @@
+package persistence;
+
+import model.City;
+import model.buildings.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link City} data to a compact binary snapshot file.
+ * See {@link SnapshotFormat} for the layout.
+ */
+public class SnapshotWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final String destination;
+
+    /**
+     * Creates a new snapshot writer.
+     *
+     * @param destination The destination path to write the file to.
+     */
+    public SnapshotWriter(String destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * Writes the city to the destination file, replacing its contents.
+     *
+     * @param city The {@link City} to write.
+     * @throws IOException The destination file cannot be written.
+     */
+    public void write(City city) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(destination), BUFFER_SIZE))) {
+            out.writeInt(SnapshotFormat.MAGIC);
+            out.writeInt(SnapshotFormat.VERSION);
+            writeString(out, city.getName());
+            out.writeInt(city.getPopulation());
+            out.writeInt(city.getMoney());
+            out.writeDouble(city.getAttraction());
+            out.writeDouble(city.getTaxRate());
+
+            List<Building> buildings = city.getMap().getBuildings();
+            Map<String, Integer> names = collectNames(buildings);
+            out.writeInt(names.size());
+            for (String name : names.keySet()) {
+                writeString(out, name);
+            }
+
+            out.writeInt(buildings.size());
+            for (Building b : buildings) {
+                writeBuilding(out, b, names.get(b.getName()));
+            }
+        }
+    }
+
+    /**
+     * Assign an index to every distinct building name, in order of first appearance.
+     *
+     * @param buildings The buildings whose names are collected.
+     * @return The index of each distinct name.
+     */
+    private Map<String, Integer> collectNames(List<Building> buildings) {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        for (Building b : buildings) {
+            names.putIfAbsent(b.getName(), names.size());
+        }
+        return names;
+    }
+
+    /**
+     * Writes a single fixed-width building record.
+     *
+     * @param out       The stream to write to.
+     * @param b         The building to write.
+     * @param nameIndex The index of the building's name in the name table.
+     */
+    private void writeBuilding(DataOutputStream out, Building b, int nameIndex) throws IOException {
+        long extension = 0;
+        int counter = 0;
+        switch (b.getBuildingType()) {
+            case BUSINESS:
+                extension = ((Business) b).getWorkerCapacity();
+                counter = ((Business) b).getWorkers();
+                break;
+            case FIRE_HALL:
+                counter = ((FireHall) b).getTrucks();
+                break;
+            case HOSPITAL:
+                counter = ((Hospital) b).getAmbulances();
+                break;
+            case HOUSING:
+                extension = ((Housing) b).getResidentCapacity();
+                counter = ((Housing) b).getResidents();
+                break;
+            case LANDFILL:
+                extension = ((Landfill) b).getCapacity();
+                counter = ((Landfill) b).getTrucks();
+                break;
+            case PARK:
+                extension = Double.doubleToLongBits(((Park) b).getValueModifier());
+                break;
+            case POWER_PLANT:
+                extension = ((PowerPlant) b).getProductionRate();
+                break;
+            case SCHOOL:
+                extension = ((School) b).getStudentCapacity();
+                counter = ((School) b).getStudents();
+                break;
+            default:
+                break;
+        }
+
+        out.writeLong(b.getId());
+        out.writeByte(b.getBuildingType().ordinal());
+        out.writeInt(nameIndex);
+        out.writeInt(b.getPosition().getX());
+        out.writeInt(b.getPosition().getY());
+        out.writeInt(b.getValue());
+        out.writeLong(extension);
+        out.writeInt(counter);
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string.
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,202 @@
+package simulation;
+
+import model.City;
+import model.CitySnapshot;
+import model.CityChanges;
+import persistence.SaveFormat;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a {@link City} on a dedicated simulation thread that is the only thread allowed to touch it.
+ * Other threads (normally the Swing event dispatch thread) change the city by submitting commands,
+ * which are queued and run between ticks, and read it through immutable {@link CitySnapshot}s
+ * that are published after every tick and every batch of commands.
+ * <p>
+ * Snapshots and command results are handed to the dispatcher given at construction, e.g.
+ * {@code SwingUtilities::invokeLater}. Snapshots are coalesced: if the dispatcher falls behind,
+ * only the newest snapshot is delivered.
+ */
+public class SimulationExecutor {
+    private static final int MAX_DELTA_SIZE = 1 << 16;
+    private final ScheduledExecutorService worker;
+    private final Executor dispatcher;
+    private final Consumer<CitySnapshot> listener;
+    private final AtomicBoolean publishPending = new AtomicBoolean();
+    private final AtomicReference<CitySnapshot> pendingSnapshot = new AtomicReference<>();
+    private final CityChanges.Recorder recorder = new CityChanges.Recorder(MAX_DELTA_SIZE);
+    private City city;
+    private CitySnapshot lastSnapshot;
+
+    /**
+     * Create a new executor that owns the given city. The executor does not tick until {@link #start(long)}.
+     *
+     * @param city       The city to simulate. Must not be touched by any other thread afterwards.
+     * @param dispatcher The executor that snapshots and command results are delivered on.
+     * @param listener   Receives every published snapshot, on the dispatcher.
+     */
+    public SimulationExecutor(City city, Executor dispatcher, Consumer<CitySnapshot> listener) {
+        this.city = city;
+        city.setListener(recorder);
+        this.dispatcher = dispatcher;
+        this.listener = listener;
+        this.worker = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start ticking the city. Each tick starts the given delay after the previous one finished,
+     * so a slow tick delays the next one instead of piling up behind it.
+     *
+     * @param periodMillis The delay between ticks in milliseconds.
+     */
+    public void start(long periodMillis) {
+        worker.scheduleWithFixedDelay(this::tick, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop ticking and discard any commands that have not run yet.
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Queue a command that changes the city. A snapshot is published after it runs.
+     *
+     * @param command The command to run on the simulation thread.
+     */
+    public void submit(Consumer<City> command) {
+        worker.execute(() -> {
+            command.accept(city);
+            requestPublish();
+        });
+    }
+
+    /**
+     * Queue a command that changes the city and produces a result. A snapshot is published
+     * after it runs, and is delivered before the result so the callback sees the change.
+     *
+     * @param command  The command to run on the simulation thread.
+     * @param callback Receives the result of the command, on the dispatcher.
+     * @param <T>      The type of the result.
+     */
+    public <T> void submit(Function<City, T> command, Consumer<T> callback) {
+        worker.execute(() -> {
+            T result = command.apply(city);
+            publish();
+            dispatcher.execute(() -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Queue a read-only query against the city. No snapshot is published afterwards,
+     * so the query must not change the city.
+     *
+     * @param query    The query to run on the simulation thread.
+     * @param callback Receives the result of the query, on the dispatcher.
+     * @param <T>      The type of the result.
+     */
+    public <T> void query(Function<City, T> query, Consumer<T> callback) {
+        worker.execute(() -> {
+            T result = query.apply(city);
+            dispatcher.execute(() -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Queue saving the city to a file.
+     *
+     * @param format   The format to save the city in.
+     * @param path     The path of the file.
+     * @param callback Receives {@code null} on success, or the error that stopped the save, on the dispatcher.
+     */
+    public void save(SaveFormat format, String path, Consumer<IOException> callback) {
+        query(city -> {
+            try {
+                format.save(city, path);
+                return null;
+            } catch (IOException e) {
+                return e;
+            }
+        }, callback);
+    }
+
+    /**
+     * Queue replacing the city with one loaded from a file. The current city is kept if loading fails.
+     * A snapshot of the resulting city is delivered before the callback.
+     *
+     * @param format   The format of the file.
+     * @param path     The path of the file.
+     * @param callback Receives {@code null} on success, or the error that stopped the load, on the dispatcher.
+     */
+    public void load(SaveFormat format, String path, Consumer<IOException> callback) {
+        worker.execute(() -> {
+            IOException error = null;
+            try {
+                city = format.load(path);
+                city.setListener(recorder);
+                recorder.reset();
+            } catch (IOException e) {
+                error = e;
+            }
+            IOException result = error;
+            publish();
+            dispatcher.execute(() -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Take a snapshot of the city right now. Must only be called before {@link #start(long)}
+     * or from a command, i.e. when no other thread can be changing the city.
+     *
+     * @return A new snapshot of the city.
+     */
+    public CitySnapshot takeSnapshot() {
+        long version = lastSnapshot == null ? 0 : lastSnapshot.getVersion() + 1;
+        lastSnapshot = new CitySnapshot(city, version, lastSnapshot, recorder.take());
+        return lastSnapshot;
+    }
+
+    /**
+     * Apply the simulation rules, update the city once, and publish the result.
+     */
+    private void tick() {
+        city.applyRules();
+        city.update();
+        requestPublish();
+    }
+
+    /**
+     * Schedule a snapshot to be published once the commands already queued have run.
+     * Several requests made before the snapshot is taken result in a single snapshot.
+     */
+    private void requestPublish() {
+        if (publishPending.compareAndSet(false, true)) {
+            worker.execute(this::publish);
+        }
+    }
+
+    /**
+     * Take a snapshot and hand it to the dispatcher, unless the previous one has not been delivered yet,
+     * in which case it is replaced by the new one. Listeners that rely on layout deltas have to check
+     * snapshot versions to notice that one was skipped.
+     */
+    private void publish() {
+        publishPending.set(false);
+        if (pendingSnapshot.getAndSet(takeSnapshot()) == null) {
+            dispatcher.execute(() -> listener.accept(pendingSnapshot.getAndSet(null)));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package simulation;
+
+import model.City;
+import model.rules.RuleStats;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Advances a {@link City} by a fixed number of ticks without any user interface,
+ * as fast as the CPU allows. Useful for batch runs and benchmarks on machines with no display.
+ */
+public class SimulationRunner {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final String USAGE =
+            "Usage: SimulationRunner <input.json> <ticks> <output.json> [--verify] [--parallel]";
+    private final City city;
+    private long ticksRun;
+    private long elapsedNanos;
+
+    /**
+     * Create a new runner for the given city.
+     *
+     * @param city The {@link City} to simulate.
+     */
+    public SimulationRunner(City city) {
+        this.city = city;
+    }
+
+    /**
+     * Load a city from a save file, simulate it, and write the final state to another file.
+     * Usage: {@code SimulationRunner <input.json> <ticks> <output.json> [--verify] [--parallel]}
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        int ticks;
+        try {
+            ticks = parseTicks(args[1]);
+        } catch (IllegalArgumentException e) {
+            System.err.printf("Invalid tick count: %s%n", args[1]);
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        try {
+            City city = new JsonReader(args[0]).read();
+            List<String> options = Arrays.asList(args).subList(3, args.length);
+            city.setVerifyAggregates(options.contains("--verify"));
+            city.getRuleApplier().setParallel(options.contains("--parallel"));
+
+            SimulationRunner runner = new SimulationRunner(city);
+            runner.run(ticks);
+            new JsonWriter(args[2]).writeAndClose(city);
+
+            System.out.printf("Simulated %s ticks of %s (%s buildings) in %.3f s (%.1f ticks/s)%n",
+                    runner.getTicksRun(), city.getName(), city.getMap().getNumOfBuildings(),
+                    runner.getElapsedNanos() / NANOS_PER_SECOND, runner.getTicksPerSecond());
+            for (RuleStats stats : city.getRuleApplier().getStats()) {
+                System.out.println("  " + stats);
+            }
+        } catch (IOException e) {
+            System.err.printf("Failed to read or write city: %s%n", e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Parse a tick count given on the command line.
+     *
+     * @param arg The command line argument.
+     * @return The number of ticks.
+     * @throws IllegalArgumentException The argument is not a number, or is negative.
+     */
+    static int parseTicks(String arg) {
+        int ticks = Integer.parseInt(arg);
+        if (ticks < 0) {
+            throw new IllegalArgumentException(String.format("Tick count %s is negative", ticks));
+        }
+        return ticks;
+    }
+
+    /**
+     * Apply the simulation rules and update the city once.
+     */
+    public void tick() {
+        city.applyRules();
+        city.update();
+    }
+
+    /**
+     * Run the given number of ticks back to back, accumulating the time taken.
+     *
+     * @param ticks The number of ticks to run.
+     * @throws IllegalArgumentException The number of ticks is negative.
+     */
+    public void run(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException(String.format("Tick count %s is negative", ticks));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+        elapsedNanos += System.nanoTime() - start;
+        ticksRun += ticks;
+    }
+
+    /**
+     * Get the average number of ticks simulated per second of wall-clock time.
+     *
+     * @return The tick rate, or {@code 0} if no time has elapsed yet.
+     */
+    public double getTicksPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return ticksRun * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public City getCity() {
+        return city;
+    }
+
+    public long getTicksRun() {
+        return ticksRun;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -1,15 +1,19 @@
 package ui;
 
+import model.BuildingQuery;
 import model.City;
+import model.CitySnapshot;
+import model.LayoutDelta;
 import model.Position;
 import model.buildings.Building;
 import model.buildings.BuildingType;
 import model.exceptions.InsufficientMoneyException;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.SaveFormat;
+import simulation.SimulationExecutor;
 import ui.components.BuildingsPanel;
 import ui.components.CityPanel;
 import ui.components.graphics.MapView;
+import ui.components.list.SearchResultModel;
 import ui.util.BuildingCreator;
 
 import javax.swing.*;
@@ -17,14 +21,23 @@ import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * An editor that contains components for viewing and editing {@link City} properties.
+ * <p>
+ * The city itself is owned by a {@link SimulationExecutor} running on its own thread. The editor
+ * only ever reads the latest {@link CitySnapshot} it published, and changes the city by submitting
+ * commands to the executor, so all Swing work stays on the event dispatch thread.
+ * Each snapshot is handed to the components through a {@link SnapshotBus}, so every component
+ * only updates when the parts of the city it displays have changed.
  */
 public class CityEditor extends JFrame {
-    private City city;
+    private static final long TICK_PERIOD = 5000;
+    private final SimulationExecutor executor;
+    private final SnapshotBus bus;
+    private CitySnapshot snapshot;
     private MapView mapView;
     private BuildingsPanel buildingsPanel;
     private CityPanel cityPanel;
@@ -38,7 +51,9 @@ public class CityEditor extends JFrame {
      * @param city The {@link City} this editor is associated with.
      */
     public CityEditor(City city) {
-        this.city = city;
+        executor = new SimulationExecutor(city, SwingUtilities::invokeLater, this::displaySnapshot);
+        snapshot = executor.takeSnapshot();
+        bus = new SnapshotBus(snapshot);
     }
 
     /**
@@ -60,14 +75,15 @@ public class CityEditor extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         addComponents();
         setVisible(true);
-        setupTimer();
+        executor.start(TICK_PERIOD);
 
-        // print the event log when the window is closing
+        // stop the simulation and print the event log when the window is closing
         addWindowListener(new WindowAdapter() {
-            // EFFECTS: print the event log when the editor is closed
+            // EFFECTS: stop the simulation and print the event log when the editor is closed
             @Override
             public void windowClosing(WindowEvent e) {
                 super.windowClosing(e);
+                executor.shutdown();
                 CitySimulator.printLog();
             }
         });
@@ -80,6 +96,11 @@ public class CityEditor extends JFrame {
         mapView = new MapView(this);
         buildingsPanel = new BuildingsPanel(this);
         cityPanel = new CityPanel(this);
+        // the map and list have to show the new layout before the selection is checked against it
+        bus.subscribe(mapView);
+        bus.subscribe(buildingsPanel);
+        bus.subscribe(cityPanel);
+        bus.subscribe(new SelectionListener());
 
         JTabbedPane tabbedPane = new JTabbedPane();
         tabbedPane.add(buildingsPanel);
@@ -97,20 +118,6 @@ public class CityEditor extends JFrame {
         add(splitPane, BorderLayout.CENTER);
     }
 
-    /**
-     * Sets up the timer that periodically updates the {@link City} and gui.
-     */
-    private void setupTimer() {
-        Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                updateCity();
-                updateCityDisplay();
-            }
-        }, 0, 5000);
-    }
-
     /**
      * Update the actively selected building in appropriate info panels.
      *
@@ -120,7 +127,25 @@ public class CityEditor extends JFrame {
         selectedBuilding = b;
         buildingsPanel.setSelectedBuilding(b);
         mapView.setSelectedBuilding(b);
-        mapView.update();
+        displaySelectedBuilding();
+    }
+
+    /**
+     * Show the current state of the selected building in the inspector.
+     * The summary is read on the simulation thread and displayed once it arrives,
+     * unless the selection has changed in the meantime.
+     */
+    private void displaySelectedBuilding() {
+        Building b = selectedBuilding;
+        if (b == null) {
+            buildingsPanel.setInspectorSummary(null);
+            return;
+        }
+        executor.query(city -> b.getSummary(), summary -> {
+            if (b == selectedBuilding) {
+                buildingsPanel.setInspectorSummary(summary);
+            }
+        });
     }
 
     /**
@@ -131,7 +156,8 @@ public class CityEditor extends JFrame {
             buildingsPanel.showRemoveError();
             return;
         }
-        city.getMap().removeBuilding(selectedBuilding);
+        Building b = selectedBuilding;
+        executor.submit(city -> city.getMap().removeBuilding(b));
         clearSelectedBuilding();
     }
 
@@ -162,56 +188,126 @@ public class CityEditor extends JFrame {
      * @param position The position that the new building will be placed in.
      */
     public void addBuilding(Position position) {
-        if (!city.getMap().checkBuildingCollision(position)) {
-            potentialBuilding.setPosition(position);
-            try {
-                city.buyBuilding(potentialBuilding);
-                update();
-            } catch (InsufficientMoneyException e) {
-                buildingsPanel.showCostError();
+        if (selectOccupant(position)) {
+            return;
+        }
+
+        // the building belongs to the simulation thread from here on, so never touch it again
+        Building b = potentialBuilding;
+        b.setPosition(position);
+        potentialBuilding = BuildingCreator.createBuildingFromType(addBuildingType);
+        executor.submit(city -> buyBuilding(city, b), result -> {
+            switch (result) {
+                case BOUGHT:
+                    update();
+                    break;
+                case OCCUPIED:
+                    // the snapshot already includes whatever filled the cell since the click
+                    selectOccupant(position);
+                    break;
+                default:
+                    buildingsPanel.showCostError();
             }
-        } else {
-            setSelectedBuilding(city.getMap().getBuildingAtPosition(position));
+        });
+    }
+
+    /**
+     * Select the building at the given position in the current snapshot, if there is one.
+     *
+     * @param position The position to look at.
+     * @return {@code true} if a building was selected, {@code false} if the position is empty.
+     */
+    private boolean selectOccupant(Position position) {
+        int occupant = snapshot.findBuildingAt(position.getX(), position.getY());
+        if (occupant == -1) {
+            return false;
         }
+        setSelectedBuilding(snapshot.getBuilding(occupant));
+        return true;
     }
 
     /**
-     * Save the city to a file.
+     * Buy a building for the city unless its cell has been filled since the click.
+     * Runs on the simulation thread.
      *
-     * @throws IOException The JSON file couldn't be saved to disk.
+     * @param city The city buying the building.
+     * @param b    The building to buy.
+     * @return {@link PurchaseResult#BOUGHT} if the building was added, {@link PurchaseResult#OCCUPIED}
+     *         if another building is now in its cell, or {@link PurchaseResult#INSUFFICIENT_MONEY}
+     *         if the city could not afford it.
      */
-    public void saveCity() throws IOException {
-        JsonWriter writer = new JsonWriter(CitySimulator.DATA_PATH);
-        writer.writeAndClose(city);
-        update();
+    private static PurchaseResult buyBuilding(City city, Building b) {
+        if (city.getMap().checkBuildingCollision(b.getPosition())) {
+            return PurchaseResult.OCCUPIED;
+        }
+        try {
+            city.buyBuilding(b);
+            return PurchaseResult.BOUGHT;
+        } catch (InsufficientMoneyException e) {
+            return PurchaseResult.INSUFFICIENT_MONEY;
+        }
     }
 
     /**
-     * Load the city from a file.
+     * Change the city, e.g. its name or tax rate, and run the given action once the change is visible.
      *
-     * @throws IOException The JSON file couldn't be read.
+     * @param edit      The change to make, run on the simulation thread.
+     * @param onApplied Run on the event dispatch thread after a snapshot including the change has been displayed.
      */
-    public void loadCity() throws IOException {
-        JsonReader reader = new JsonReader(CitySimulator.DATA_PATH);
-        city = reader.read();
-        clearSelectedBuilding();
+    public void editCity(Consumer<City> edit, Runnable onApplied) {
+        executor.submit(city -> {
+            edit.accept(city);
+            return null;
+        }, ignored -> onApplied.run());
     }
 
     /**
-     * Update this editor's {@link City}.
+     * Find the buildings matching the given query. The search runs on the simulation thread.
+     *
+     * @param query    The conditions buildings must match.
+     * @param callback Receives the matching buildings.
      */
-    private void updateCity() {
-        city.applyRules();
-        city.update();
+    public void searchBuildings(BuildingQuery query, Consumer<SearchResultModel> callback) {
+        executor.query(city -> new SearchResultModel(city.getMap().findBuildings(query)), callback);
     }
 
     /**
-     * Update gui to display changes made to city excluding building changes,
-     * i.e. no updating the map or list view.
+     * Save the city to a file in the given format. The file is written on the simulation thread.
+     *
+     * @param format   The format to save the city in.
+     * @param callback Receives {@code null} once the city is saved, or the error if it couldn't be saved to disk.
+     */
+    public void saveCity(SaveFormat format, Consumer<IOException> callback) {
+        executor.save(format, CitySimulator.getDataPath(format), error -> {
+            update();
+            callback.accept(error);
+        });
+    }
+
+    /**
+     * Load the city from a file in the given format. The file is read on the simulation thread.
+     *
+     * @param format   The format of the file to load.
+     * @param callback Receives {@code null} once the city is loaded, or the error if the file couldn't be read.
+     */
+    public void loadCity(SaveFormat format, Consumer<IOException> callback) {
+        executor.load(format, CitySimulator.getDataPath(format), error -> {
+            if (error == null) {
+                clearSelectedBuilding();
+            }
+            callback.accept(error);
+        });
+    }
+
+    /**
+     * Display a snapshot published by the simulation. Does not touch the city name
+     * and tax rate fields, so that a tick never overwrites what the user is typing.
+     *
+     * @param s The new snapshot.
      */
-    private void updateCityDisplay() {
-        buildingsPanel.updateMoneyDisplay(city.getMoney());
-        cityPanel.displayCity();
+    private void displaySnapshot(CitySnapshot s) {
+        snapshot = s;
+        bus.publish(s);
     }
 
     /**
@@ -228,7 +324,46 @@ public class CityEditor extends JFrame {
         return addBuildingType;
     }
 
-    public City getCity() {
-        return city;
+    public CitySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Keeps the selected building and its summary in the inspector up to date.
+     */
+    private class SelectionListener implements SnapshotListener {
+        /**
+         * Clear the selection if the selected building was removed, otherwise show its new position.
+         */
+        @Override
+        public void layoutChanged(CitySnapshot snapshot, LayoutDelta delta) {
+            if (selectedBuilding == null) {
+                return;
+            }
+            if (snapshot.indexOf(selectedBuilding) == -1) {
+                setSelectedBuilding(null);
+            } else {
+                displaySelectedBuilding();
+            }
+        }
+
+        /**
+         * Show the new summary of the selected building if its value changed.
+         */
+        @Override
+        public void valuesChanged(CitySnapshot snapshot, Set<Building> changed) {
+            if (selectedBuilding != null && (changed == null || changed.contains(selectedBuilding))) {
+                displaySelectedBuilding();
+            }
+        }
+    }
+
+    /**
+     * The outcome of trying to buy a building on the simulation thread.
+     */
+    private enum PurchaseResult {
+        BOUGHT,
+        OCCUPIED,
+        INSUFFICIENT_MONEY
     }
 }
@@ -4,6 +4,7 @@ import model.City;
 import model.Event;
 import model.EventLog;
 import persistence.JsonReader;
+import persistence.SaveFormat;
 
 import java.io.IOException;
 
@@ -12,6 +13,7 @@ import java.io.IOException;
  */
 public class CitySimulator {
     public static final String DATA_PATH = "./data/city.json";
+    public static final String SNAPSHOT_PATH = "./data/city.snapshot";
     public static final int STARTING_MONEY = 50000;
 
     /**
@@ -22,6 +24,16 @@ public class CitySimulator {
         launcher.run();
     }
 
+    /**
+     * Get the path that cities are saved to and loaded from in the given format.
+     *
+     * @param format The save format.
+     * @return The path of the save file.
+     */
+    public static String getDataPath(SaveFormat format) {
+        return format == SaveFormat.SNAPSHOT ? SNAPSHOT_PATH : DATA_PATH;
+    }
+
     /**
      * Print the event log to the console.
      */
@@ -0,0 +1,72 @@
+package ui;
+
+import model.CityChanges;
+import model.CitySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands the changes in each new {@link CitySnapshot} to the {@link SnapshotListener}s interested in them.
+ * The simulation coalesces changes per snapshot, so listeners hear about each kind of change at most once
+ * per tick. If a snapshot does not directly follow the previous one, e.g. because the city was loaded or
+ * a snapshot was skipped, the changes are unknown and every listener is told that everything changed.
+ */
+public class SnapshotBus {
+    private final List<SnapshotListener> listeners;
+    private long lastVersion;
+
+    /**
+     * Create a new bus whose listeners start out displaying the given snapshot.
+     *
+     * @param initial The snapshot the listeners display when they subscribe.
+     */
+    public SnapshotBus(CitySnapshot initial) {
+        listeners = new ArrayList<>();
+        lastVersion = initial.getVersion();
+    }
+
+    /**
+     * Add a listener. Listeners are notified in the order they subscribed.
+     *
+     * @param listener The listener to add.
+     */
+    public void subscribe(SnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Notify every listener about the changes in a new snapshot.
+     *
+     * @param snapshot The new snapshot.
+     */
+    public void publish(CitySnapshot snapshot) {
+        CityChanges changes = snapshot.getVersion() == lastVersion + 1 ? snapshot.getChanges() : null;
+        lastVersion = snapshot.getVersion();
+        for (SnapshotListener listener : listeners) {
+            if (changes == null) {
+                listener.layoutChanged(snapshot, null);
+                listener.valuesChanged(snapshot, null);
+                listener.statsChanged(snapshot);
+                listener.taxRateChanged(snapshot);
+                listener.nameChanged(snapshot);
+                continue;
+            }
+            if (changes.isLayoutChanged()) {
+                listener.layoutChanged(snapshot, changes.getLayoutDelta());
+            }
+            if (changes.areValuesChanged()) {
+                listener.valuesChanged(snapshot, changes.getValueChanges());
+            }
+            if (changes.isStatsChanged()) {
+                listener.statsChanged(snapshot);
+            }
+            if (changes.isTaxRateChanged()) {
+                listener.taxRateChanged(snapshot);
+            }
+            if (changes.isNameChanged()) {
+                listener.nameChanged(snapshot);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ui;
+
+import model.CitySnapshot;
+import model.LayoutDelta;
+import model.buildings.Building;
+
+import java.util.Set;
+
+/**
+ * Interface implemented by user interface components that display part of a {@link CitySnapshot}.
+ * Components subscribe to a {@link SnapshotBus} and are only called for the kinds of change they
+ * override, and only when such a change happened, so e.g. a value change never redraws the map layout.
+ * Every method is called on the event dispatch thread and does nothing by default.
+ */
+public interface SnapshotListener {
+    /**
+     * Called when buildings may have been added, removed or moved.
+     *
+     * @param snapshot The new snapshot.
+     * @param delta    The layout changes since the snapshot of the previous call,
+     *                 or {@code null} if they are unknown and the layout has to be rebuilt.
+     */
+    default void layoutChanged(CitySnapshot snapshot, LayoutDelta delta) {
+    }
+
+    /**
+     * Called when the values of buildings may have changed.
+     *
+     * @param snapshot The new snapshot.
+     * @param changed  The buildings whose value changed, or {@code null} if any of them may have changed.
+     */
+    default void valuesChanged(CitySnapshot snapshot, Set<Building> changed) {
+    }
+
+    /**
+     * Called when the city's statistics, e.g. its money or population, may have changed.
+     *
+     * @param snapshot The new snapshot.
+     */
+    default void statsChanged(CitySnapshot snapshot) {
+    }
+
+    /**
+     * Called when the city's tax rate may have changed.
+     *
+     * @param snapshot The new snapshot.
+     */
+    default void taxRateChanged(CitySnapshot snapshot) {
+    }
+
+    /**
+     * Called when the city's name may have changed.
+     *
+     * @param snapshot The new snapshot.
+     */
+    default void nameChanged(CitySnapshot snapshot) {
+    }
+}
@@ -0,0 +1,143 @@
+package ui.components;
+
+import model.BuildingQuery;
+import model.buildings.Building;
+import model.buildings.BuildingType;
+import ui.UIConstants;
+import ui.components.button.BasicButton;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * A form to search the buildings in the list view by name prefix, type and value range.
+ */
+public class BuildingSearchForm extends JPanel {
+    private static final String ANY_TYPE = "Any type";
+    private final BuildingsPanel buildingsPanel;
+    private JTextField nameField;
+    private JComboBox<String> typeBox;
+    private JTextField minValueField;
+    private JTextField maxValueField;
+
+    /**
+     * Create a new search form.
+     *
+     * @param buildingsPanel The parent {@link BuildingsPanel}.
+     */
+    public BuildingSearchForm(BuildingsPanel buildingsPanel) {
+        super();
+        this.buildingsPanel = buildingsPanel;
+        init();
+    }
+
+    /**
+     * Initialize and add components.
+     */
+    private void init() {
+        setBackground(Color.WHITE);
+        setLayout(new GridLayout(5, 2));
+
+        nameField = createField();
+        typeBox = new JComboBox<>();
+        typeBox.setFont(UIConstants.REGULAR_FONT);
+        typeBox.addItem(ANY_TYPE);
+        for (BuildingType type : BuildingType.values()) {
+            typeBox.addItem(Building.typeToString(type));
+        }
+        minValueField = createField();
+        maxValueField = createField();
+
+        JButton searchButton = new BasicButton("Search");
+        searchButton.addActionListener(new SearchListener());
+        JButton clearButton = new BasicButton("Show all");
+        clearButton.addActionListener(e -> clear());
+
+        add(createLabel("Name starts with"));
+        add(nameField);
+        add(createLabel("Type"));
+        add(typeBox);
+        add(createLabel("Minimum value"));
+        add(minValueField);
+        add(createLabel("Maximum value"));
+        add(maxValueField);
+        add(searchButton);
+        add(clearButton);
+    }
+
+    /**
+     * Returns a new label for a field of this form.
+     *
+     * @param text The text of the label.
+     */
+    private JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setOpaque(true);
+        label.setBackground(Color.WHITE);
+        label.setFont(UIConstants.REGULAR_FONT);
+        return label;
+    }
+
+    /**
+     * Returns a new text field that searches when enter is pressed.
+     */
+    private JTextField createField() {
+        JTextField field = new JTextField();
+        field.setFont(UIConstants.REGULAR_FONT);
+        field.addActionListener(new SearchListener());
+        return field;
+    }
+
+    /**
+     * Returns the building type chosen in the type box, or {@code null} if any type is allowed.
+     */
+    private BuildingType getSelectedType() {
+        int index = typeBox.getSelectedIndex();
+        return index <= 0 ? null : BuildingType.values()[index - 1];
+    }
+
+    /**
+     * Parse a value bound typed by the user.
+     *
+     * @param field     The field the bound was typed in.
+     * @param unbounded The bound to use if the field is empty.
+     * @return The parsed bound.
+     * @throws NumberFormatException The field contains something other than a whole number.
+     */
+    private static int parseBound(JTextField field, int unbounded) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? unbounded : Integer.parseInt(text);
+    }
+
+    /**
+     * Clear every field and list all buildings again.
+     */
+    private void clear() {
+        nameField.setText("");
+        typeBox.setSelectedIndex(0);
+        minValueField.setText("");
+        maxValueField.setText("");
+        buildingsPanel.clearSearch();
+    }
+
+    /**
+     * Action listener for the search button and fields.
+     */
+    private class SearchListener implements ActionListener {
+        /**
+         * Search for the buildings matching the form.
+         */
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            try {
+                int minValue = parseBound(minValueField, Integer.MIN_VALUE);
+                int maxValue = parseBound(maxValueField, Integer.MAX_VALUE);
+                buildingsPanel.search(new BuildingQuery(nameField.getText(), getSelectedType(), minValue, maxValue));
+            } catch (NumberFormatException exception) {
+                buildingsPanel.showSearchError();
+            }
+        }
+    }
+}
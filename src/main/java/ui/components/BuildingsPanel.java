@@ -1,22 +1,31 @@
 package ui.components;
 
+import model.BuildingQuery;
+import model.CitySnapshot;
+import model.LayoutDelta;
+import model.Summary;
 import model.buildings.Building;
 import model.buildings.BuildingType;
 import ui.CityEditor;
+import ui.SnapshotListener;
 import ui.components.inspector.BuildingInspector;
 import ui.components.list.ListView;
 
 import javax.swing.*;
+import java.awt.*;
+import java.util.Set;
 
 /**
  * The buildings panel manages components for viewing information
  * about buildings and adding and removing new buildings.
  */
-public class BuildingsPanel extends JSplitPane {
+public class BuildingsPanel extends JSplitPane implements SnapshotListener {
     private final CityEditor editor;
     private BuildingsEditor buildingsEditor;
     private BuildingInspector inspector;
     private ListView listView;
+    private BuildingQuery activeQuery;
+    private long searchedVersion;
 
     /**
      * Create a new building panel.
@@ -37,13 +46,18 @@ public class BuildingsPanel extends JSplitPane {
         buildingsEditor = new BuildingsEditor(this);
         inspector = new BuildingInspector();
 
-        listView = new ListView(this, editor.getCity().getMap());
+        listView = new ListView(this, editor.getSnapshot());
         JScrollPane listScrollPane = new JScrollPane(listView);
         listScrollPane.setBorder(BorderFactory.createEmptyBorder());
 
+        JPanel listPanel = new JPanel();
+        listPanel.setLayout(new BorderLayout());
+        listPanel.add(new BuildingSearchForm(this), BorderLayout.PAGE_START);
+        listPanel.add(listScrollPane, BorderLayout.CENTER);
+
         JSplitPane subPanel = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
         subPanel.setTopComponent(inspector);
-        subPanel.setBottomComponent(listScrollPane);
+        subPanel.setBottomComponent(listPanel);
         subPanel.setResizeWeight(0.7);
 
         setTopComponent(buildingsEditor);
@@ -52,12 +66,12 @@ public class BuildingsPanel extends JSplitPane {
     }
 
     /**
-     * Set the building that is displayed in the inspector.
+     * Set the building summary that is displayed in the inspector.
      *
-     * @param b The building to be displayed.
+     * @param summary The summary of the building to be displayed, or {@code null} for none.
      */
-    public void setInspectorBuilding(Building b) {
-        inspector.displayBuilding(b);
+    public void setInspectorSummary(Summary summary) {
+        inspector.displaySummary(summary);
     }
 
     /**
@@ -69,11 +83,11 @@ public class BuildingsPanel extends JSplitPane {
 
     /**
      * Update the edit panel with the given selected building.
+     * The inspector is updated separately once the building's summary has been read.
      *
      * @param b The building to update the panel with.
      */
     public void setSelectedBuilding(Building b) {
-        setInspectorBuilding(b);
         setListViewBuilding(b);
     }
 
@@ -88,10 +102,36 @@ public class BuildingsPanel extends JSplitPane {
 
     /**
      * Update the display to properly reflect program state.
+     * The list view is kept up to date by {@link #layoutChanged(CitySnapshot, LayoutDelta)}.
      */
     public void update() {
-        updateMoneyDisplay(editor.getCity().getMoney());
-        updateListView();
+        updateMoneyDisplay(editor.getSnapshot().getMoney());
+    }
+
+    /**
+     * Show the new list of buildings. If a search is active, it is run again so the results stay current.
+     */
+    @Override
+    public void layoutChanged(CitySnapshot snapshot, LayoutDelta delta) {
+        listView.update(snapshot, delta);
+        if (activeQuery != null) {
+            runSearch(activeQuery, snapshot.getVersion());
+        }
+    }
+
+    /**
+     * Run the active search again if it depends on building values.
+     */
+    @Override
+    public void valuesChanged(CitySnapshot snapshot, Set<Building> changed) {
+        if (activeQuery != null && activeQuery.hasValueRange()) {
+            runSearch(activeQuery, snapshot.getVersion());
+        }
+    }
+
+    @Override
+    public void statsChanged(CitySnapshot snapshot) {
+        updateMoneyDisplay(snapshot.getMoney());
     }
 
     /**
@@ -104,11 +144,42 @@ public class BuildingsPanel extends JSplitPane {
     }
 
     /**
-     * Update the list view.
+     * List only the buildings matching the given query, until the search is cleared.
+     *
+     * @param query The conditions buildings must match.
      */
-    public void updateListView() {
-        listView.setMap(editor.getCity().getMap());
-        listView.update();
+    public void search(BuildingQuery query) {
+        activeQuery = query;
+        searchedVersion = -1;
+        runSearch(query, editor.getSnapshot().getVersion());
+    }
+
+    /**
+     * List every building again.
+     */
+    public void clearSearch() {
+        activeQuery = null;
+        listView.showResults(null);
+    }
+
+    /**
+     * Run a search on the simulation thread and list its results once they arrive,
+     * unless a different search has been started or the search was cleared in the meantime.
+     * Does nothing if the search already ran for the given snapshot.
+     *
+     * @param query   The conditions buildings must match.
+     * @param version The version of the snapshot the search is run for.
+     */
+    private void runSearch(BuildingQuery query, long version) {
+        if (version == searchedVersion) {
+            return;
+        }
+        searchedVersion = version;
+        editor.searchBuildings(query, results -> {
+            if (query == activeQuery) {
+                listView.showResults(results);
+            }
+        });
     }
 
     /**
@@ -143,6 +214,13 @@ public class BuildingsPanel extends JSplitPane {
         inspector.showCostError();
     }
 
+    /**
+     * Display the search input error in the building inspector.
+     */
+    public void showSearchError() {
+        inspector.showSearchError();
+    }
+
     /**
      * Display the remove error in the building inspector.
      */
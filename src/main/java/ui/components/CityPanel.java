@@ -1,6 +1,10 @@
 package ui.components;
 
+import model.CitySnapshot;
+import persistence.SaveFormat;
 import ui.CityEditor;
+import ui.CitySimulator;
+import ui.SnapshotListener;
 import ui.UIConstants;
 import ui.components.button.BasicButton;
 import ui.components.inspector.CityInspector;
@@ -9,16 +13,16 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.IOException;
 
 /**
  * A city panel displays general information about a {@link model.City}.
  */
-public class CityPanel extends JPanel {
+public class CityPanel extends JPanel implements SnapshotListener {
     private final CityEditor editor;
     private CityInspector inspector;
     private JTextField taxField;
     private JTextField nameField;
+    private JComboBox<SaveFormat> formatBox;
 
     /**
      * Create a new city panel.
@@ -62,11 +66,12 @@ public class CityPanel extends JPanel {
         separator.setOpaque(true);
 
         JPanel editPanel = new JPanel();
-        editPanel.setLayout(new GridLayout(6, 1));
+        editPanel.setLayout(new GridLayout(7, 1));
         editPanel.add(createTaxForm());
         editPanel.add(createNameForm());
         editPanel.add(updateButton);
         editPanel.add(separator);
+        editPanel.add(createFormatForm());
         editPanel.add(saveButton);
         editPanel.add(loadButton);
 
@@ -86,7 +91,7 @@ public class CityPanel extends JPanel {
         label.setBackground(Color.WHITE);
         label.setFont(UIConstants.REGULAR_FONT);
 
-        taxField = new JTextField(String.valueOf(editor.getCity().getTaxRate() * 100));
+        taxField = new JTextField(String.valueOf(editor.getSnapshot().getTaxRate() * 100));
         taxField.setFont(UIConstants.REGULAR_FONT);
         taxField.addActionListener(new UpdateListener());
 
@@ -107,7 +112,7 @@ public class CityPanel extends JPanel {
         label.setBackground(Color.WHITE);
         label.setFont(UIConstants.REGULAR_FONT);
 
-        nameField = new JTextField(editor.getCity().getName());
+        nameField = new JTextField(editor.getSnapshot().getName());
         nameField.setFont(UIConstants.REGULAR_FONT);
         nameField.addActionListener(new UpdateListener());
 
@@ -116,6 +121,33 @@ public class CityPanel extends JPanel {
         return nameForm;
     }
 
+    /**
+     * Returns a new form to choose the format cities are saved and loaded in.
+     */
+    private JPanel createFormatForm() {
+        JPanel formatForm = new JPanel();
+        formatForm.setLayout(new GridLayout(1, 2));
+
+        JLabel label = new JLabel("Save file format");
+        label.setOpaque(true);
+        label.setBackground(Color.WHITE);
+        label.setFont(UIConstants.REGULAR_FONT);
+
+        formatBox = new JComboBox<>(SaveFormat.values());
+        formatBox.setFont(UIConstants.REGULAR_FONT);
+
+        formatForm.add(label);
+        formatForm.add(formatBox);
+        return formatForm;
+    }
+
+    /**
+     * Returns the save format currently chosen in the format form.
+     */
+    private SaveFormat getSelectedFormat() {
+        return (SaveFormat) formatBox.getSelectedItem();
+    }
+
     /**
      * Update display to match program state.
      */
@@ -126,24 +158,39 @@ public class CityPanel extends JPanel {
     }
 
     /**
-     * Add child components to this component.
+     * Display the latest city snapshot in the inspector.
      */
     public void displayCity() {
-        inspector.displayCity(editor.getCity());
+        inspector.displayCity(editor.getSnapshot());
+    }
+
+    @Override
+    public void statsChanged(CitySnapshot snapshot) {
+        displayCity();
+    }
+
+    @Override
+    public void taxRateChanged(CitySnapshot snapshot) {
+        displayCity();
+    }
+
+    @Override
+    public void nameChanged(CitySnapshot snapshot) {
+        displayCity();
     }
 
     /**
      * Update the text in the tax field.
      */
     private void updateTaxField() {
-        taxField.setText(String.format("%.2f", editor.getCity().getTaxRate() * 100));
+        taxField.setText(String.format("%.2f", editor.getSnapshot().getTaxRate() * 100));
     }
 
     /**
      * Update the text in the name field.
      */
     private void updateNameField() {
-        nameField.setText(editor.getCity().getName());
+        nameField.setText(editor.getSnapshot().getName());
     }
 
     /**
@@ -155,12 +202,15 @@ public class CityPanel extends JPanel {
          */
         @Override
         public void actionPerformed(ActionEvent e) {
-            try {
-                editor.saveCity();
-                inspector.showSaveSuccess();
-            } catch (IOException ioException) {
-                inspector.showSaveError();
-            }
+            SaveFormat format = getSelectedFormat();
+            String path = CitySimulator.getDataPath(format);
+            editor.saveCity(format, error -> {
+                if (error == null) {
+                    inspector.showSaveSuccess(path);
+                } else {
+                    inspector.showSaveError(path);
+                }
+            });
         }
     }
 
@@ -173,12 +223,15 @@ public class CityPanel extends JPanel {
          */
         @Override
         public void actionPerformed(ActionEvent e) {
-            try {
-                editor.loadCity();
-                inspector.showLoadSuccess();
-            } catch (IOException ioException) {
-                inspector.showLoadError();
-            }
+            SaveFormat format = getSelectedFormat();
+            String path = CitySimulator.getDataPath(format);
+            editor.loadCity(format, error -> {
+                if (error == null) {
+                    inspector.showLoadSuccess(path);
+                } else {
+                    inspector.showLoadError(path);
+                }
+            });
         }
     }
 
@@ -192,22 +245,33 @@ public class CityPanel extends JPanel {
         @Override
         public void actionPerformed(ActionEvent e) {
             String nameFieldText = nameField.getText();
-            editor.getCity().setName(nameFieldText);
 
             String taxFieldText = taxField.getText();
             try {
                 double newTaxRate = Double.parseDouble(taxFieldText) / 100;
                 if (newTaxRate < 0) {
-                    update();
-                    inspector.showTaxInputError();
+                    rejectTaxRate(nameFieldText);
                     return;
                 }
-                editor.getCity().setTaxRate(newTaxRate);
-                editor.update();
+                editor.editCity(city -> {
+                    city.setName(nameFieldText);
+                    city.setTaxRate(newTaxRate);
+                }, editor::update);
             } catch (NumberFormatException exception) {
+                rejectTaxRate(nameFieldText);
+            }
+        }
+
+        /**
+         * Apply only the new city name and show the tax input error.
+         *
+         * @param name The new city name.
+         */
+        private void rejectTaxRate(String name) {
+            editor.editCity(city -> city.setName(name), () -> {
                 update();
                 inspector.showTaxInputError();
-            }
+            });
         }
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import model.Position;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 
 /**
  * An image buffer that can be drawn on.
@@ -16,15 +17,28 @@ public class Buffer {
     private final int height;
     private final BufferedImage image;
     private final Graphics2D graphics;
+    private final int[] pixels;
+    private int strokeSize;
 
     /**
      * Create a new buffer with default dimensions.
      */
     public Buffer() {
-        this.width = DEFAULT_WIDTH;
-        this.height = DEFAULT_HEIGHT;
-        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Create a new buffer with the given dimensions.
+     *
+     * @param width  The width of the buffer in pixels.
+     * @param height The height of the buffer in pixels.
+     */
+    public Buffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         graphics = image.createGraphics();
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
     }
 
     /**
@@ -52,7 +66,10 @@ public class Buffer {
      * @param size The new brush size.
      */
     public void setStrokeSize(int size) {
-        graphics.setStroke(new BasicStroke(size));
+        if (size != strokeSize) {
+            graphics.setStroke(new BasicStroke(size));
+            strokeSize = size;
+        }
     }
 
     /**
@@ -81,6 +98,47 @@ public class Buffer {
         graphics.fillRect(x, y, width, height);
     }
 
+    /**
+     * Blend a translucent color over a rectangle, clipped to the buffer. The pixels are written directly
+     * instead of through the buffer's graphics, so drawing many small rectangles neither allocates
+     * nor pays the graphics pipeline's cost for each one.
+     *
+     * @param x      The x coordinate.
+     * @param y      The y coordinate.
+     * @param width  The rectangle's width.
+     * @param height The rectangle's height.
+     * @param argb   The color, with its (not premultiplied) alpha in the top byte.
+     */
+    public void blendRect(int x, int y, int width, int height, int argb) {
+        int minX = Math.max(x, 0);
+        int minY = Math.max(y, 0);
+        int maxX = Math.min(x + width, this.width);
+        int maxY = Math.min(y + height, this.height);
+        if (minX >= maxX || minY >= maxY) {
+            return;
+        }
+        int alpha = argb >>> 24;
+        int inverse = 255 - alpha;
+        int red = ((argb >> 16) & 0xFF) * alpha;
+        int green = ((argb >> 8) & 0xFF) * alpha;
+        int blue = (argb & 0xFF) * alpha;
+        // most of a rectangle usually covers the same color, so remember the last blend
+        int last = ~pixels[minY * this.width + minX];
+        int blended = 0;
+        for (int row = minY; row < maxY; row++) {
+            int end = row * this.width + maxX;
+            for (int i = row * this.width + minX; i < end; i++) {
+                int pixel = pixels[i];
+                if (pixel != last) {
+                    last = pixel;
+                    blended = (red + ((pixel >> 16) & 0xFF) * inverse) / 255 << 16
+                            | (green + ((pixel >> 8) & 0xFF) * inverse) / 255 << 8
+                            | (blue + (pixel & 0xFF) * inverse) / 255;
+                }
+                pixels[i] = blended;
+            }
+        }
+    }
 
     /**
      * Takes a position on a given rect (with width and height)
@@ -93,11 +151,31 @@ public class Buffer {
      * @return The scaled {@link Position} in the buffer's coordinates.
      */
     public Position scaleToBuffer(int x, int y, int width, int height) {
-        double scaleX = x / (double) width;
-        double scaleY = y / (double) height;
-        int bufferX = (int) (scaleX * getWidth());
-        int bufferY = (int) (scaleY * getHeight());
-        return new Position(bufferX, bufferY);
+        return new Position(scaleXToBuffer(x, width), scaleYToBuffer(y, height));
+    }
+
+    /**
+     * Takes an x coordinate on a rect of the given width
+     * and returns it scaled relative to this buffer, without allocating.
+     *
+     * @param x     The x coordinate.
+     * @param width The rectangle's width.
+     * @return The scaled x coordinate in the buffer's coordinates.
+     */
+    public int scaleXToBuffer(int x, int width) {
+        return (int) (x / (double) width * getWidth());
+    }
+
+    /**
+     * Takes a y coordinate on a rect of the given height
+     * and returns it scaled relative to this buffer, without allocating.
+     *
+     * @param y      The y coordinate.
+     * @param height The rectangle's height.
+     * @return The scaled y coordinate in the buffer's coordinates.
+     */
+    public int scaleYToBuffer(int y, int height) {
+        return (int) (y / (double) height * getHeight());
     }
 
     /**
@@ -0,0 +1,98 @@
+package ui.components.graphics;
+
+/**
+ * A camera looking at an unbounded grid of cells. It converts between screen coordinates
+ * (pixels relative to the top-left of the view) and grid cells, and can be panned and zoomed.
+ */
+public class Camera {
+    public static final double MIN_ZOOM = 1.0 / 32;
+    public static final double MAX_ZOOM = 160;
+    private double x;
+    private double y;
+    private double zoom;
+
+    /**
+     * Create a new camera with the top-left corner of cell (0, 0) at the top-left of the screen.
+     *
+     * @param zoom The initial size of a cell on screen, in pixels.
+     */
+    public Camera(double zoom) {
+        this.zoom = clampZoom(zoom);
+    }
+
+    /**
+     * Returns the x coordinate of the grid cell under the given screen x coordinate.
+     *
+     * @param screenX The x screen coordinate.
+     */
+    public int screenToCellX(int screenX) {
+        return (int) Math.floor(x + screenX / zoom);
+    }
+
+    /**
+     * Returns the y coordinate of the grid cell under the given screen y coordinate.
+     *
+     * @param screenY The y screen coordinate.
+     */
+    public int screenToCellY(int screenY) {
+        return (int) Math.floor(y + screenY / zoom);
+    }
+
+    /**
+     * Returns the screen x coordinate of the left edge of the given cell column.
+     *
+     * @param cellX The x grid coordinate.
+     */
+    public int cellToScreenX(int cellX) {
+        return (int) Math.floor((cellX - x) * zoom);
+    }
+
+    /**
+     * Returns the screen y coordinate of the top edge of the given cell row.
+     *
+     * @param cellY The y grid coordinate.
+     */
+    public int cellToScreenY(int cellY) {
+        return (int) Math.floor((cellY - y) * zoom);
+    }
+
+    /**
+     * Move the camera so the grid follows a drag of the mouse.
+     *
+     * @param dx The distance dragged along the x axis, in pixels.
+     * @param dy The distance dragged along the y axis, in pixels.
+     */
+    public void pan(int dx, int dy) {
+        x -= dx / zoom;
+        y -= dy / zoom;
+    }
+
+    /**
+     * Zoom in or out while keeping the point under the given screen coordinates in place.
+     * The zoom is kept between {@link #MIN_ZOOM} and {@link #MAX_ZOOM}.
+     *
+     * @param screenX The x screen coordinate to zoom around.
+     * @param screenY The y screen coordinate to zoom around.
+     * @param factor  The factor to multiply the zoom by, greater than 1 to zoom in.
+     */
+    public void zoomAt(int screenX, int screenY, double factor) {
+        double worldX = x + screenX / zoom;
+        double worldY = y + screenY / zoom;
+        zoom = clampZoom(zoom * factor);
+        x = worldX - screenX / zoom;
+        y = worldY - screenY / zoom;
+    }
+
+    /**
+     * Returns the given zoom limited to the allowed range.
+     *
+     * @param zoom The zoom to limit.
+     */
+    private static double clampZoom(double zoom) {
+        return Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+}
@@ -1,33 +1,56 @@
 package ui.components.graphics;
 
-import model.Map;
+import model.CitySnapshot;
+import model.LayoutDelta;
 import model.Position;
 import model.buildings.Building;
-import model.exceptions.BuildingNotFoundException;
 import ui.CityEditor;
+import ui.SnapshotListener;
 import ui.util.ColorMap;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.List;
+import java.awt.event.MouseWheelEvent;
+import java.util.function.IntConsumer;
 
 /**
  * Class that is responsible for displaying a visual representation of a {@link model.City} map.
+ * <p>
+ * The map is an unbounded grid seen through a {@link Camera} that can be zoomed with the mouse wheel
+ * and panned by dragging. Only the buildings inside the visible cells are drawn, found through the
+ * snapshot's spatial index, so the cost of a frame depends on what is on screen rather than on city size.
+ * <p>
+ * When zoomed out far enough that cells are smaller than a couple of pixels, the map is drawn from a
+ * {@link TilePyramid} instead, which is kept up to date from the layout deltas of the snapshots.
+ * <p>
+ * The view only listens for layout changes, and buildings are drawn into a retained layer that is
+ * only redrawn when the layout or the camera changes.
+ * The selection highlight and building placer are drawn on top of it as an overlay when painting,
+ * and moving them only repaints the cells they leave and enter. Cells are passed around as plain
+ * coordinates, so painting and following the mouse do not allocate.
  */
-public class MapView extends JPanel {
+public class MapView extends JPanel implements SnapshotListener {
     private static final Color BACKGROUND_COLOR = new Color(216, 233, 168);
     private static final int HIGHLIGHT_SIZE = 2;
-    private static final int ROW_COUNT = 25;
-    private static final int COLUMN_COUNT = 25;
+    private static final BasicStroke HIGHLIGHT_STROKE = new BasicStroke(HIGHLIGHT_SIZE);
+    private static final double DEFAULT_ZOOM = 40;
+    private static final double ZOOM_STEP = 1.15;
     private final CityEditor editor;
-    private final Buffer buffer;
-    private int cellWidth;
-    private int cellHeight;
+    private final Camera camera;
+    private final TilePyramid pyramid;
+    // created once so drawing a frame building by building does not allocate a visitor
+    private final IntConsumer buildingDrawer = this::drawBuilding;
+    private boolean pyramidCurrent;
+    private Buffer buffer;
+    private boolean layerDirty;
     private EditMode mode;
-    private Map map;
+    private CitySnapshot snapshot;
     private Building selectedBuilding;
+    private boolean placerVisible;
+    private int placerX;
+    private int placerY;
 
     /**
      * Creates a new graphics panel representing a {@link model.City} map.
@@ -37,99 +60,154 @@ public class MapView extends JPanel {
     public MapView(CityEditor editor) {
         super();
         this.editor = editor;
-        this.map = editor.getCity().getMap();
-        this.buffer = new Buffer();
+        this.snapshot = editor.getSnapshot();
+        this.camera = new Camera(DEFAULT_ZOOM);
+        this.pyramid = new TilePyramid();
 
         init();
-        buffer.clear(BACKGROUND_COLOR);
     }
 
     /**
-     * Create buffer and initialize graphics panel and fields.
+     * Initialize graphics panel and fields.
      */
     private void init() {
         enableSelectMode();
-
-        cellWidth = buffer.getWidth() / COLUMN_COUNT;
-        cellHeight = buffer.getHeight() / ROW_COUNT;
+        layerDirty = true;
 
         MapMouseListener listener = new MapMouseListener();
         addMouseListener(listener);
         addMouseMotionListener(listener);
+        addMouseWheelListener(listener);
     }
 
     /**
-     * Draws all buildings in the city onto the buffer.
+     * Redraws the buildings inside the visible cells onto the retained building layer,
+     * recreating the layer first if the size of the view changed.
      */
     private void drawMap() {
-        List<Building> buildings = map.getBuildings();
-        for (Building b : buildings) {
-            Position screenPosition = getBuildingCoordinates(b);
-            Color buildingColor = ColorMap.getBuildingColor(b.getBuildingType());
-            buffer.setColor(buildingColor);
-            buffer.fillRect(screenPosition.getX(), screenPosition.getY(), cellWidth, cellHeight);
+        if (buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight()) {
+            buffer = new Buffer(getWidth(), getHeight());
+        }
+        buffer.clear(BACKGROUND_COLOR);
+        int level = TilePyramid.chooseLevel(camera.getZoom());
+        if (level > 0) {
+            drawPyramid(level);
+        } else {
+            drawBuildings();
         }
         buffer.resetBrush();
+        layerDirty = false;
+    }
+
+    /**
+     * Draws every visible building onto the building layer one by one.
+     */
+    private void drawBuildings() {
+        snapshot.forEachBuildingIn(camera.screenToCellX(0), camera.screenToCellY(0),
+                camera.screenToCellX(getWidth() - 1), camera.screenToCellY(getHeight() - 1), buildingDrawer);
+    }
+
+    /**
+     * Draws one building of the current snapshot onto the building layer.
+     *
+     * @param index The index of the building in the snapshot.
+     */
+    private void drawBuilding(int index) {
+        buffer.setColor(ColorMap.getBuildingColor(snapshot.getBuildingType(index)));
+        fillCell(snapshot.getX(index), snapshot.getY(index));
+    }
+
+    /**
+     * Draws the visible tiles of the given pyramid level onto the building layer,
+     * rebuilding the pyramid first if it could not follow the layout changes.
+     *
+     * @param level The pyramid level to draw.
+     */
+    private void drawPyramid(int level) {
+        if (!pyramidCurrent) {
+            pyramid.rebuild(snapshot);
+            pyramidCurrent = true;
+        }
+        pyramid.draw(buffer, camera, level);
+    }
+
+    /**
+     * Fill the screen area of a grid cell on the building layer.
+     *
+     * @param cellX The x grid coordinate.
+     * @param cellY The y grid coordinate.
+     */
+    private void fillCell(int cellX, int cellY) {
+        int x = camera.cellToScreenX(cellX);
+        int y = camera.cellToScreenY(cellY);
+        buffer.fillRect(x, y, camera.cellToScreenX(cellX + 1) - x, camera.cellToScreenY(cellY + 1) - y);
+    }
+
+    /**
+     * Draw an outline around a grid cell.
+     *
+     * @param g     The graphics object to draw to.
+     * @param cellX The x grid coordinate of the cell to outline.
+     * @param cellY The y grid coordinate of the cell to outline.
+     */
+    private void outlineCell(Graphics2D g, int cellX, int cellY) {
+        int x = camera.cellToScreenX(cellX);
+        int y = camera.cellToScreenY(cellY);
+        g.setStroke(HIGHLIGHT_STROKE);
+        g.drawRect(x, y, camera.cellToScreenX(cellX + 1) - x, camera.cellToScreenY(cellY + 1) - y);
     }
 
     /**
      * Highlights (puts a border around) the current
      * selected building on the map.
+     *
+     * @param g The graphics object to draw to.
      */
-    private void highlightSelectedBuilding() {
-        if (selectedBuilding == null) {
+    private void highlightSelectedBuilding(Graphics2D g) {
+        int index = snapshot.indexOf(selectedBuilding);
+        if (index == -1) {
             return;
         }
 
-        Position p = getBuildingCoordinates(selectedBuilding);
-        int x = p.getX();
-        int y = p.getY();
-
-        buffer.setStrokeSize(HIGHLIGHT_SIZE);
-        buffer.drawRect(x, y, cellWidth, cellHeight);
-        buffer.resetBrush();
+        g.setColor(Color.BLACK);
+        outlineCell(g, snapshot.getX(index), snapshot.getY(index));
     }
 
     /**
      * Draws a "building placer", an outline of the building image
-     * that follows the mouse cursor, helping show where a building
+     * in the cell under the mouse cursor, helping show where a building
      * is about to be placed.
      *
-     * @param x The x grid coordinate of the placer.
-     * @param y The y grid coordinate of the placer.
+     * @param g The graphics object to draw to.
      */
-    private void drawBuildingPlacer(int x, int y) {
-        Position bufferPos = buffer.scaleToBuffer(x, y, getWidth(), getHeight());
-        Position snapPos = snapToNearestCell(bufferPos.getX(), bufferPos.getY());
-
-        buffer.setColor(ColorMap.getBuildingColor(editor.getAddBuildingType()));
-        buffer.setStrokeSize(HIGHLIGHT_SIZE);
-        buffer.drawRect(snapPos.getX(), snapPos.getY(), cellWidth, cellHeight);
+    private void drawBuildingPlacer(Graphics2D g) {
+        if (!placerVisible) {
+            return;
+        }
 
-        buffer.resetBrush();
+        g.setColor(ColorMap.getBuildingColor(editor.getAddBuildingType()));
+        outlineCell(g, placerX, placerY);
     }
 
     /**
-     * Converts the building's "virtual" position
-     * into coordinates relative to the buffer.
-     *
-     * @param b The building to get the position of.
+     * Schedule a repaint of the grid cell of the selected building,
+     * if a building in the current snapshot is selected.
      */
-    private Position getBuildingCoordinates(Building b) {
-        Position p = b.getPosition();
-        return new Position(p.getX() * cellWidth, p.getY() * cellHeight);
+    private void repaintSelectedCell() {
+        int index = snapshot.indexOf(selectedBuilding);
+        if (index != -1) {
+            repaintCell(snapshot.getX(index), snapshot.getY(index));
+        }
     }
 
     /**
-     * Converts a mouse position into a grid position.
+     * Converts a mouse position into a grid position through the camera.
      *
      * @param x The mouse's x screen coordinate.
      * @param y The mouse's y screen coordinate.
      */
     private Position getClickedPosition(int x, int y) {
-        int gridX = x / (getWidth() / COLUMN_COUNT);
-        int gridY = y / (getHeight() / ROW_COUNT);
-        return new Position(gridX, gridY);
+        return new Position(camera.screenToCellX(x), camera.screenToCellY(y));
     }
 
     /**
@@ -138,31 +216,19 @@ public class MapView extends JPanel {
      *
      * @param x The mouse's x screen coordinate.
      * @param y The mouse's y screen coordinate.
+     * @return The building under the cursor, or {@code null} if there is none.
      */
-    private Building getClickedBuilding(int x, int y) throws BuildingNotFoundException {
-        Position gridPos = getClickedPosition(x, y);
-        return map.getBuildingAtPosition(gridPos);
-    }
-
-    /**
-     * Returns the top-left coordinate of the cell
-     * closest to the given position (relative to the buffer).
-     *
-     * @param x The x buffer coordinate.
-     * @param y The y buffer coordinate.
-     */
-    private Position snapToNearestCell(int x, int y) {
-        int cellX = x / cellWidth;
-        int cellY = y / cellHeight;
-        return new Position(cellX * cellWidth, cellY * cellHeight);
+    private Building getClickedBuilding(int x, int y) {
+        int index = snapshot.findBuildingAt(camera.screenToCellX(x), camera.screenToCellY(y));
+        return index == -1 ? null : snapshot.getBuilding(index);
     }
 
     /**
      * Initiate adding a building when add mode is enabled
      * and the mouse is clicked on the map.
      *
-     * @param x The x buffer coordinate.
-     * @param y The y buffer coordinate.
+     * @param x The x screen coordinate.
+     * @param y The y screen coordinate.
      */
     private void addBuildingAtPosition(int x, int y) {
         enableSelectMode();
@@ -178,15 +244,48 @@ public class MapView extends JPanel {
      * @param y The y mouse coordinate.
      */
     public void setSelectedBuilding(int x, int y) {
-        try {
-            selectedBuilding = getClickedBuilding(x, y);
-        } catch (BuildingNotFoundException exception) {
-            selectedBuilding = null;
-        }
+        setSelectedBuilding(getClickedBuilding(x, y));
     }
 
+    /**
+     * Set the selected building, repainting only the cells of the old and new highlight.
+     *
+     * @param b The building to select, or {@code null} to clear the selection.
+     */
     public void setSelectedBuilding(Building b) {
+        if (b == selectedBuilding) {
+            return;
+        }
+        repaintSelectedCell();
         selectedBuilding = b;
+        repaintSelectedCell();
+    }
+
+    /**
+     * Move the building placer to the given cell, repainting only the cells it leaves and enters.
+     *
+     * @param cellX The x grid coordinate of the new cell of the placer.
+     * @param cellY The y grid coordinate of the new cell of the placer.
+     */
+    private void setPlacerCell(int cellX, int cellY) {
+        if (placerVisible && placerX == cellX && placerY == cellY) {
+            return;
+        }
+        hidePlacer();
+        placerVisible = true;
+        placerX = cellX;
+        placerY = cellY;
+        repaintCell(placerX, placerY);
+    }
+
+    /**
+     * Hide the building placer, repainting only the cell it leaves.
+     */
+    private void hidePlacer() {
+        if (placerVisible) {
+            placerVisible = false;
+            repaintCell(placerX, placerY);
+        }
     }
 
     /**
@@ -202,71 +301,92 @@ public class MapView extends JPanel {
      */
     public void enableSelectMode() {
         mode = EditMode.SELECT;
+        hidePlacer();
     }
 
     /**
      * Clears the current selected building.
      */
     private void resetSelectedBuilding() {
-        selectedBuilding = null;
-        paint();
+        setSelectedBuilding(null);
     }
 
     /**
-     * Update the map view's graphics.
+     * Show the new layout of the map, bringing the tile pyramid up to date by applying the layout delta.
+     * If the delta is unknown, the pyramid is marked out of date and rebuilt the next time it is drawn.
+     *
+     * @param next  The new snapshot.
+     * @param delta The layout changes since the previous layout, or {@code null} if they are unknown.
      */
-    public void update() {
-        map = editor.getCity().getMap();
-        paint();
+    @Override
+    public void layoutChanged(CitySnapshot next, LayoutDelta delta) {
+        if (pyramidCurrent && delta != null) {
+            pyramid.apply(delta);
+        } else {
+            pyramidCurrent = false;
+        }
+        snapshot = next;
+        layerDirty = true;
+        repaint();
     }
 
     /**
-     * Paint the buffer onto the graphics panel
+     * Paint the building layer and the overlay onto the graphics panel.
+     * Only the area inside the clip (the dirty region) is actually drawn.
      *
      * @param g The graphics object to paint to.
      */
     @Override
-    public void paint(Graphics g) {
-        if (g == null) {
+    protected void paintComponent(Graphics g) {
+        if (getWidth() <= 0 || getHeight() <= 0) {
             return;
         }
-        drawMap();
+        if (layerDirty || buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight()) {
+            drawMap();
+        }
 
+        // draw on the given graphics and put back what the overlay changes, rather than copying it every frame
+        Graphics2D g2 = (Graphics2D) g;
+        Stroke stroke = g2.getStroke();
+        Color color = g2.getColor();
+        g2.drawImage(buffer.getImage(), 0, 0, this);
         if (mode.equals(EditMode.ADD)) {
-            Point mousePos = getMousePosition();
-            if (mousePos != null) {
-                drawBuildingPlacer(mousePos.x, mousePos.y);
-            }
+            drawBuildingPlacer(g2);
         } else if (mode.equals(EditMode.SELECT)) {
-            highlightSelectedBuilding();
+            highlightSelectedBuilding(g2);
         }
-
-        drawBuffer(g);
+        g2.setStroke(stroke);
+        g2.setColor(color);
     }
 
     /**
-     * Wrapper for {@link MapView#paint(Graphics)}, paints on current graphics object for the panel,
-     * clears buffer before painting
+     * Schedule a repaint of the screen area covered by a grid cell and its outline.
+     *
+     * @param cellX The x grid coordinate of the cell to repaint.
+     * @param cellY The y grid coordinate of the cell to repaint.
      */
-    private void paint() {
-        buffer.clear(BACKGROUND_COLOR);
-        paint(getGraphics());
+    private void repaintCell(int cellX, int cellY) {
+        int x = camera.cellToScreenX(cellX);
+        int y = camera.cellToScreenY(cellY);
+        int width = camera.cellToScreenX(cellX + 1) - x;
+        int height = camera.cellToScreenY(cellY + 1) - y;
+        repaint(x - HIGHLIGHT_SIZE, y - HIGHLIGHT_SIZE, width + 2 * HIGHLIGHT_SIZE + 1, height + 2 * HIGHLIGHT_SIZE + 1);
     }
 
     /**
-     * Draws the current buffer image onto the given graphics object.
-     * MODIFIES g.
-     *
-     * @param g The graphics object to draw to.
+     * Redraw the whole view after the camera moved.
      */
-    private void drawBuffer(Graphics g) {
-        g.drawImage(buffer.getImage(), 0, 0, getWidth(), getHeight(), this);
+    private void cameraMoved() {
+        layerDirty = true;
+        repaint();
     }
 
     /**
      * Mouse event listener for the graphics panel.
      */
     private class MapMouseListener extends MouseAdapter {
+        private Point dragStart;
+
         /**
          * Get the building under the mouse cursor when it is clicked,
          * and perform appropriate action depending on the edit mode.
@@ -281,24 +401,55 @@ public class MapView extends JPanel {
                 case SELECT:
                     editor.setSelectedBuilding(selectedBuilding);
             }
-
-            paint();
         }
 
         /**
-         * Draw a building placer if in add mode.
+         * Move the building placer if in add mode.
          */
         @Override
         public void mouseMoved(MouseEvent e) {
-            paint();
+            if (mode.equals(EditMode.ADD)) {
+                setPlacerCell(camera.screenToCellX(e.getX()), camera.screenToCellY(e.getY()));
+            }
         }
 
         /**
-         * Behave the same as when mouse is moved.
+         * Remember where a drag starts.
+         */
+        @Override
+        public void mousePressed(MouseEvent e) {
+            dragStart = e.getPoint();
+        }
+
+        /**
+         * Pan the camera along with the mouse, then behave the same as when mouse is moved.
          */
         @Override
         public void mouseDragged(MouseEvent e) {
+            if (dragStart != null) {
+                camera.pan(e.getX() - dragStart.x, e.getY() - dragStart.y);
+                dragStart = e.getPoint();
+                cameraMoved();
+            }
             mouseMoved(e);
         }
+
+        /**
+         * Zoom in or out around the mouse cursor.
+         */
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            camera.zoomAt(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+            cameraMoved();
+            mouseMoved(e);
+        }
+
+        /**
+         * Hide the building placer when the mouse leaves the map.
+         */
+        @Override
+        public void mouseExited(MouseEvent e) {
+            hidePlacer();
+        }
     }
 }
@@ -0,0 +1,386 @@
+package ui.components.graphics;
+
+import model.CitySnapshot;
+import model.LayoutDelta;
+import model.LongHashMap;
+import model.Position;
+import model.buildings.BuildingType;
+import ui.util.ColorMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A pyramid of pre-aggregated texels for drawing a zoomed-out map.
+ * On level {@code k}, each texel covers a square of {@code 2^k} by {@code 2^k} cells and is
+ * colored with the {@link ColorMap} color of the most common building type in it, more opaque the more
+ * of its cells are built on. Texels are grouped into square tiles, and only tiles containing buildings exist.
+ * <p>
+ * Each texel is a single byte holding its dominant type and density. Only level 1 counts the buildings of
+ * each type, and only in texels that hold buildings; every higher texel is merged from the four texels
+ * below it, so a change stops climbing the pyramid as soon as a texel keeps its color.
+ * <p>
+ * The pyramid is updated one building at a time, so it can follow the {@link LayoutDelta}s of snapshots
+ * instead of being rebuilt, and a zoomed-out frame only costs one rectangle per visible texel,
+ * written straight into the buffer without allocating.
+ */
+public class TilePyramid {
+    public static final int MAX_LEVEL = 6;
+    private static final double LOD_ZOOM = 2;
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final BuildingType[] TYPES = BuildingType.values();
+    private static final int MIN_ALPHA = 96;
+    // a texel is 0 if it is empty, otherwise its density (1 to MAX_DENSITY) above its dominant type's ordinal
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int MAX_DENSITY = (1 << (Byte.SIZE - TYPE_BITS)) - 1;
+    private static final int[] COLORS = texelColors();
+    private final List<LongHashMap<Tile>> levels;
+    // reused by every merge and every frame
+    private final int[] weights = new int[TYPES.length];
+    private final int[] edgesX = new int[TILE_SIZE + 1];
+    private final int[] edgesY = new int[TILE_SIZE + 1];
+
+    /**
+     * Create a new empty pyramid.
+     */
+    public TilePyramid() {
+        levels = new ArrayList<>();
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            levels.add(new LongHashMap<>());
+        }
+    }
+
+    /**
+     * Get the level of detail to draw a map at for the given camera zoom.
+     *
+     * @param zoom The size of a cell on screen, in pixels.
+     * @return {@code 0} if buildings should be drawn one by one,
+     *         otherwise the pyramid level whose texels are closest to {@code LOD_ZOOM} pixels.
+     */
+    public static int chooseLevel(double zoom) {
+        if (zoom >= LOD_ZOOM) {
+            return 0;
+        }
+        int level = (int) Math.ceil(Math.log(LOD_ZOOM / zoom) / Math.log(2));
+        return Math.min(level, MAX_LEVEL);
+    }
+
+    /**
+     * Remove every building from the pyramid and add all buildings of the given snapshot.
+     *
+     * @param snapshot The snapshot to rebuild from.
+     */
+    public void rebuild(CitySnapshot snapshot) {
+        for (LongHashMap<Tile> tiles : levels) {
+            tiles.clear();
+        }
+        for (int i = 0; i < snapshot.getNumOfBuildings(); i++) {
+            add(snapshot.getX(i), snapshot.getY(i), snapshot.getBuildingType(i));
+        }
+    }
+
+    /**
+     * Apply every change in a layout delta, in order.
+     *
+     * @param delta The changes to apply.
+     */
+    public void apply(LayoutDelta delta) {
+        for (int i = 0; i < delta.size(); i++) {
+            switch (delta.getKind(i)) {
+                case ADDED:
+                    add(delta.getX(i), delta.getY(i), delta.getType(i));
+                    break;
+                case REMOVED:
+                    remove(delta.getX(i), delta.getY(i), delta.getType(i));
+                    break;
+                case MOVED:
+                    remove(delta.getOldX(i), delta.getOldY(i), delta.getType(i));
+                    add(delta.getX(i), delta.getY(i), delta.getType(i));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Add a building to every level of the pyramid.
+     *
+     * @param x    The x grid coordinate of the building.
+     * @param y    The y grid coordinate of the building.
+     * @param type The type of the building.
+     */
+    public void add(int x, int y, BuildingType type) {
+        update(x, y, type, 1);
+    }
+
+    /**
+     * Remove a building from every level of the pyramid.
+     *
+     * @param x    The x grid coordinate of the building.
+     * @param y    The y grid coordinate of the building.
+     * @param type The type of the building.
+     */
+    public void remove(int x, int y, BuildingType type) {
+        update(x, y, type, -1);
+    }
+
+    /**
+     * Count a building in or out of its level 1 texel, then merge each changed texel into the level above.
+     *
+     * @param x    The x grid coordinate of the building.
+     * @param y    The y grid coordinate of the building.
+     * @param type The type of the building.
+     * @param sign {@code 1} to add the building, {@code -1} to remove it.
+     */
+    private void update(int x, int y, BuildingType type, int sign) {
+        int tx = x >> 1;
+        int ty = y >> 1;
+        Tile tile = getTile(1, tx, ty, sign > 0);
+        if (tile == null) {
+            return;
+        }
+        byte texel = tile.count(texelIndex(tx, ty), type, sign);
+        for (int level = 1; setTexel(level, tile, tx, ty, texel) && level < MAX_LEVEL; level++) {
+            Tile below = tile;
+            tx >>= 1;
+            ty >>= 1;
+            texel = merge(below, texelIndex(tx << 1, ty << 1));
+            tile = getTile(level + 1, tx, ty, texel != 0);
+            if (tile == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the tile holding a texel, creating it if asked to.
+     *
+     * @param level  The level of the texel.
+     * @param tx     The x coordinate of the texel on its level.
+     * @param ty     The y coordinate of the texel on its level.
+     * @param create Whether to create the tile if it does not exist.
+     * @return The tile, or {@code null} if it does not exist and was not created.
+     */
+    private Tile getTile(int level, int tx, int ty, boolean create) {
+        LongHashMap<Tile> tiles = levels.get(level - 1);
+        long key = tileKey(tx >> TILE_SHIFT, ty >> TILE_SHIFT);
+        Tile tile = tiles.get(key);
+        if (tile == null && create) {
+            tile = new Tile(level == 1);
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Set a texel, dropping its tile once the tile is empty.
+     *
+     * @param level The level of the texel.
+     * @param tile  The tile holding the texel.
+     * @param tx    The x coordinate of the texel on its level.
+     * @param ty    The y coordinate of the texel on its level.
+     * @param texel The new texel.
+     * @return Whether the texel changed.
+     */
+    private boolean setTexel(int level, Tile tile, int tx, int ty, byte texel) {
+        int index = texelIndex(tx, ty);
+        byte old = tile.texels[index];
+        if (old == texel) {
+            return false;
+        }
+        tile.texels[index] = texel;
+        tile.occupied += (old == 0 ? 1 : 0) - (texel == 0 ? 1 : 0);
+        if (tile.occupied == 0) {
+            levels.get(level - 1).remove(tileKey(tx >> TILE_SHIFT, ty >> TILE_SHIFT));
+        }
+        return true;
+    }
+
+    /**
+     * Merge a square of two by two texels into the texel covering them on the level above.
+     * The dominant type is the one covering the most of the square, weighted by density.
+     *
+     * @param tile  The tile holding the square.
+     * @param index The index of the square's top left texel in the tile.
+     * @return The merged texel.
+     */
+    private byte merge(Tile tile, int index) {
+        int total = 0;
+        for (int i = 0; i < 4; i++) {
+            int texel = tile.texels[index + (i >> 1) * TILE_SIZE + (i & 1)] & 0xFF;
+            weights[texel & TYPE_MASK] += texel >>> TYPE_BITS;
+            total += texel >>> TYPE_BITS;
+        }
+        int dominant = dominant(weights);
+        Arrays.fill(weights, 0);
+        return texel(dominant, (total + 3) / 4);
+    }
+
+    /**
+     * Draw the texels of one level that are visible through the camera onto a buffer.
+     * Requires that {@code 1 <= level <= MAX_LEVEL}.
+     *
+     * @param buffer The buffer to draw to, covering the whole view.
+     * @param camera The camera the map is seen through.
+     * @param level  The level of the pyramid to draw.
+     */
+    public void draw(Buffer buffer, Camera camera, int level) {
+        LongHashMap<Tile> tiles = levels.get(level - 1);
+        int shift = level + TILE_SHIFT;
+        int minX = camera.screenToCellX(0) >> shift;
+        int minY = camera.screenToCellY(0) >> shift;
+        int maxX = camera.screenToCellX(buffer.getWidth() - 1) >> shift;
+        int maxY = camera.screenToCellY(buffer.getHeight() - 1) >> shift;
+        for (int tileY = minY; tileY <= maxY; tileY++) {
+            for (int tileX = minX; tileX <= maxX; tileX++) {
+                Tile tile = tiles.get(tileKey(tileX, tileY));
+                if (tile != null) {
+                    drawTile(buffer, camera, level, tile, tileX, tileY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw every texel of a tile as a rectangle on a buffer.
+     *
+     * @param buffer The buffer to draw to.
+     * @param camera The camera the map is seen through.
+     * @param level  The level of the tile.
+     * @param tile   The tile to draw.
+     * @param tileX  The x coordinate of the tile on its level.
+     * @param tileY  The y coordinate of the tile on its level.
+     */
+    private void drawTile(Buffer buffer, Camera camera, int level, Tile tile, int tileX, int tileY) {
+        for (int i = 0; i <= TILE_SIZE; i++) {
+            edgesX[i] = camera.cellToScreenX(((tileX << TILE_SHIFT) + i) << level);
+            edgesY[i] = camera.cellToScreenY(((tileY << TILE_SHIFT) + i) << level);
+        }
+        for (int ty = 0; ty < TILE_SIZE; ty++) {
+            int y = edgesY[ty];
+            int height = edgesY[ty + 1] - y;
+            for (int tx = 0; tx < TILE_SIZE; tx++) {
+                int texel = tile.texels[ty * TILE_SIZE + tx] & 0xFF;
+                if (texel != 0) {
+                    buffer.blendRect(edgesX[tx], y, edgesX[tx + 1] - edgesX[tx], height, COLORS[texel]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a texel in its tile.
+     *
+     * @param tx The x coordinate of the texel on its level.
+     * @param ty The y coordinate of the texel on its level.
+     */
+    private static int texelIndex(int tx, int ty) {
+        return (ty & (TILE_SIZE - 1)) * TILE_SIZE + (tx & (TILE_SIZE - 1));
+    }
+
+    /**
+     * Returns a key that uniquely identifies a tile on one level.
+     *
+     * @param tileX The x coordinate of the tile.
+     * @param tileY The y coordinate of the tile.
+     */
+    private static long tileKey(int tileX, int tileY) {
+        return Position.key(tileX, tileY);
+    }
+
+    /**
+     * Returns a texel of the given type and density, or an empty texel if the density is {@code 0}.
+     *
+     * @param type    The ordinal of the dominant building type.
+     * @param density The density, clamped to {@code MAX_DENSITY}.
+     */
+    private static byte texel(int type, int density) {
+        return density == 0 ? 0 : (byte) (Math.min(density, MAX_DENSITY) << TYPE_BITS | type);
+    }
+
+    /**
+     * Returns the index of the largest weight, the lowest index on ties.
+     */
+    private static int dominant(int[] weights) {
+        int dominant = 0;
+        for (int i = 1; i < weights.length; i++) {
+            if (weights[i] > weights[dominant]) {
+                dominant = i;
+            }
+        }
+        return dominant;
+    }
+
+    /**
+     * Returns the ARGB color of every possible texel, indexed by the texel as an unsigned byte.
+     */
+    private static int[] texelColors() {
+        int[] colors = new int[1 << Byte.SIZE];
+        for (int texel = 1; texel < colors.length; texel++) {
+            int density = texel >>> TYPE_BITS;
+            int type = texel & TYPE_MASK;
+            if (density == 0 || type >= TYPES.length) {
+                continue;
+            }
+            int alpha = MIN_ALPHA + (255 - MIN_ALPHA) * density / MAX_DENSITY;
+            colors[texel] = (alpha << 24) | (ColorMap.getBuildingColor(TYPES[type]).getRGB() & 0xFFFFFF);
+        }
+        return colors;
+    }
+
+    /**
+     * A square of texels on one level of the pyramid. On level 1 it also counts the buildings
+     * of each type in every texel that holds any.
+     */
+    private static class Tile {
+        private final byte[] texels = new byte[TILE_SIZE * TILE_SIZE];
+        // the count of each type, followed by the total, for every occupied texel on level 1
+        private final char[][] counts;
+        private int occupied;
+
+        /**
+         * Create an empty tile.
+         *
+         * @param counted Whether the tile counts buildings, i.e. is on level 1.
+         */
+        Tile(boolean counted) {
+            counts = counted ? new char[TILE_SIZE * TILE_SIZE][] : null;
+        }
+
+        /**
+         * Count a building in or out of a texel of this level 1 tile.
+         *
+         * @param index The index of the texel in the tile.
+         * @param type  The type of the building.
+         * @param sign  {@code 1} to add the building, {@code -1} to remove it.
+         * @return The texel for the new counts.
+         */
+        byte count(int index, BuildingType type, int sign) {
+            char[] texelCounts = counts[index];
+            if (texelCounts == null) {
+                if (sign < 0) {
+                    return texels[index];
+                }
+                texelCounts = new char[TYPES.length + 1];
+                counts[index] = texelCounts;
+            }
+            texelCounts[type.ordinal()] += sign;
+            texelCounts[TYPES.length] += sign;
+            int total = texelCounts[TYPES.length];
+            if (total == 0) {
+                counts[index] = null;
+                return 0;
+            }
+            int dominant = 0;
+            for (int i = 1; i < TYPES.length; i++) {
+                if (texelCounts[i] > texelCounts[dominant]) {
+                    dominant = i;
+                }
+            }
+            // a level 1 texel covers four cells
+            return texel(dominant, (total * MAX_DENSITY + 3) / 4);
+        }
+    }
+}
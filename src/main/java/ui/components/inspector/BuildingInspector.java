@@ -1,5 +1,6 @@
 package ui.components.inspector;
 
+import model.Summary;
 import model.buildings.Building;
 import ui.UIConstants;
 
@@ -10,19 +11,19 @@ import java.awt.*;
  */
 public class BuildingInspector extends Inspector {
     /**
-     * Displays the summary of the given building in the inspector
+     * Displays the summary of a building in the inspector
      *
-     * @param b The building to display the summary of.
+     * @param summary The summary of the building, or {@code null} if no building is selected.
      */
-    public void displayBuilding(Building b) {
+    public void displaySummary(Summary summary) {
         reset();
-        if (b == null) {
+        if (summary == null) {
             setDefaultText();
             return;
         }
 
-        displaySummaryHeader(b.getSummary());
-        displaySummaryProperties(b.getSummary());
+        displaySummaryHeader(summary);
+        displaySummaryProperties(summary);
     }
 
     /**
@@ -73,6 +74,16 @@ public class BuildingInspector extends Inspector {
         appendString("ERROR: No building selected to remove!");
     }
 
+    /**
+     * Notify the user that a value bound they searched by is not a whole number.
+     */
+    public void showSearchError() {
+        reset();
+        setColor(Color.RED);
+        setStyleFont(UIConstants.HEADER_FONT);
+        appendString("ERROR: Search values must be whole numbers!");
+    }
+
     @Override
     protected void setDefaultText() {
         super.setDefaultText();
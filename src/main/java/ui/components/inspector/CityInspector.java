@@ -1,7 +1,6 @@
 package ui.components.inspector;
 
-import model.City;
-import ui.CitySimulator;
+import model.CitySnapshot;
 import ui.UIConstants;
 
 import java.awt.*;
@@ -11,46 +10,54 @@ import java.awt.*;
  */
 public class CityInspector extends Inspector {
     /**
-     * Displays information about the given {@link City}.
+     * Displays information about a {@link model.City}.
      *
-     * @param city The city to display information about.
+     * @param snapshot A snapshot of the city to display information about.
      */
-    public void displayCity(City city) {
+    public void displayCity(CitySnapshot snapshot) {
         reset();
-        displaySummaryHeader(city.getSummary());
-        displaySummaryProperties(city.getSummary());
+        displaySummaryHeader(snapshot.getSummary());
+        displaySummaryProperties(snapshot.getSummary());
     }
 
     /**
      * Show a success message when saving a city succeeds.
+     *
+     * @param path The path of the save file.
      */
-    public void showSaveSuccess() {
+    public void showSaveSuccess(String path) {
         prepareSuccess();
-        appendString(String.format("Successfully saved city to %s", CitySimulator.DATA_PATH));
+        appendString(String.format("Successfully saved city to %s", path));
     }
 
     /**
      * Show an error message when saving a city fails.
+     *
+     * @param path The path of the save file.
      */
-    public void showSaveError() {
+    public void showSaveError(String path) {
         prepareError();
-        appendString(String.format("Failed to save city to %s", CitySimulator.DATA_PATH));
+        appendString(String.format("Failed to save city to %s", path));
     }
 
     /**
      * Show a success message when loading a city succeeds.
+     *
+     * @param path The path of the save file.
      */
-    public void showLoadSuccess() {
+    public void showLoadSuccess(String path) {
         prepareSuccess();
-        appendString(String.format("Successfully loaded city from %s", CitySimulator.DATA_PATH));
+        appendString(String.format("Successfully loaded city from %s", path));
     }
 
     /**
      * Show an error message when loading a city fails.
+     *
+     * @param path The path of the save file.
      */
-    public void showLoadError() {
+    public void showLoadError(String path) {
         prepareError();
-        appendString(String.format("Failed to load city from %s", CitySimulator.DATA_PATH));
+        appendString(String.format("Failed to load city from %s", path));
     }
 
     /**
@@ -0,0 +1,145 @@
+package ui.components.list;
+
+import model.CitySnapshot;
+import model.LayoutDelta;
+import model.buildings.Building;
+
+import javax.swing.*;
+
+/**
+ * A list model of the buildings in a {@link CitySnapshot}, in map order.
+ * <p>
+ * When the layout changes between the current snapshot and a new one are known, the model replays
+ * the {@link LayoutDelta} as fine-grained interval events, so the list only updates the rows that changed.
+ * Otherwise it reports the whole list as replaced.
+ */
+public class BuildingListModel extends AbstractListModel<Building> {
+    private CitySnapshot snapshot;
+
+    /**
+     * Create a new list model showing the buildings of the given snapshot.
+     *
+     * @param snapshot The snapshot to show.
+     */
+    public BuildingListModel(CitySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Show the buildings of a new snapshot and notify listeners about what changed.
+     *
+     * @param next  The new snapshot.
+     * @param delta The layout changes since the current snapshot, or {@code null} if they are unknown.
+     */
+    public void setSnapshot(CitySnapshot next, LayoutDelta delta) {
+        CitySnapshot previous = snapshot;
+        snapshot = next;
+
+        if (delta != null) {
+            fireDelta(delta, previous.getNumOfBuildings());
+        } else {
+            if (previous.getNumOfBuildings() > 0) {
+                fireIntervalRemoved(this, 0, previous.getNumOfBuildings() - 1);
+            }
+            if (next.getNumOfBuildings() > 0) {
+                fireIntervalAdded(this, 0, next.getNumOfBuildings() - 1);
+            }
+        }
+    }
+
+    /**
+     * Fire one event per run of rows added to or removed from the end of the list in a layout delta, in order.
+     * Buildings are always added at the end, and removing a building moves the last one into its row,
+     * so a removal changes the removed building's row and removes the last row.
+     *
+     * @param delta The changes between the previous snapshot and the current one.
+     * @param size  The number of rows before the changes.
+     */
+    private void fireDelta(LayoutDelta delta, int size) {
+        LayoutDelta.Kind runKind = null;
+        int runStart = 0;
+        int runEnd = -1;
+        for (int i = 0; i < delta.size(); i++) {
+            LayoutDelta.Kind kind = delta.getKind(i);
+            if (kind == LayoutDelta.Kind.MOVED) {
+                continue;
+            }
+            int index = delta.getIndex(i);
+            if (kind == LayoutDelta.Kind.ADDED) {
+                if (runKind == kind && index == runEnd + 1) {
+                    runEnd = index;
+                } else {
+                    fireRun(runKind, runStart, runEnd);
+                    runKind = kind;
+                    runStart = index;
+                    runEnd = index;
+                }
+                size++;
+                continue;
+            }
+
+            int last = size - 1;
+            if (index != last) {
+                // the row may have been added in the pending run, so announce the run first
+                fireRun(runKind, runStart, runEnd);
+                runKind = null;
+                fireContentsChanged(this, index, index);
+            }
+            if (runKind == kind && last == runStart - 1) {
+                runStart = last;
+            } else {
+                fireRun(runKind, runStart, runEnd);
+                runKind = kind;
+                runStart = last;
+                runEnd = last;
+            }
+            size--;
+        }
+        fireRun(runKind, runStart, runEnd);
+    }
+
+    /**
+     * Fire the event for a run of additions or removals.
+     *
+     * @param kind  The kind of the run, or {@code null} if there is no run.
+     * @param start The first index of the run.
+     * @param end   The last index of the run.
+     */
+    private void fireRun(LayoutDelta.Kind kind, int start, int end) {
+        if (kind == LayoutDelta.Kind.ADDED) {
+            fireIntervalAdded(this, start, end);
+        } else if (kind == LayoutDelta.Kind.REMOVED) {
+            fireIntervalRemoved(this, start, end);
+        }
+    }
+
+    /**
+     * Get the index of a building in the current snapshot in constant time.
+     *
+     * @param b The building to look for.
+     * @return The index of the building, or {@code -1} if it is not in the list.
+     */
+    public int indexOf(Building b) {
+        return snapshot.indexOf(b);
+    }
+
+    /**
+     * Get the name of the building at the given index.
+     *
+     * @param index The index of the building.
+     * @return The building's name.
+     */
+    public String getName(int index) {
+        return snapshot.getBuildingName(index);
+    }
+
+    @Override
+    public int getSize() {
+        return snapshot.getNumOfBuildings();
+    }
+
+    @Override
+    public Building getElementAt(int index) {
+        return snapshot.getBuilding(index);
+    }
+}
@@ -1,6 +1,7 @@
 package ui.components.list;
 
-import model.Map;
+import model.CitySnapshot;
+import model.LayoutDelta;
 import model.buildings.Building;
 import ui.UIConstants;
 import ui.components.BuildingsPanel;
@@ -12,22 +13,25 @@ import java.awt.*;
 
 /**
  * An alternate way of viewing buildings in the city,
- * provides a list view of all buildings in the city
+ * provides a list view of all buildings in the city, or of the results of a search.
  */
 public class ListView extends JPanel {
+    private static final int FIXED_CELL_WIDTH = 200;
     private final BuildingsPanel buildingsPanel;
-    private Map map;
-    private JList<ListItem> list;
+    private final BuildingListModel model;
+    private SearchResultModel results;
+    private JList<Building> list;
+    private boolean updating;
 
     /**
-     * Create a new building list view with the given map.
+     * Create a new building list view with the given city snapshot.
      *
      * @param buildingsPanel The parent {@link BuildingsPanel}
-     * @param map            The map of buildings that this list view displays.
+     * @param snapshot       The snapshot of the city whose buildings this list view displays.
      */
-    public ListView(BuildingsPanel buildingsPanel, Map map) {
+    public ListView(BuildingsPanel buildingsPanel, CitySnapshot snapshot) {
         this.buildingsPanel = buildingsPanel;
-        this.map = map;
+        this.model = new BuildingListModel(snapshot);
         init();
     }
 
@@ -38,42 +42,47 @@ public class ListView extends JPanel {
         setBackground(Color.WHITE);
         setLayout(new GridLayout(1, 1));
 
-        list = new JList<>();
+        list = new JList<>(model);
         list.setCellRenderer(new CellRenderer());
         list.addListSelectionListener(new SelectionListener());
+        // fixed cell sizes stop the list from measuring every building whenever the model changes
+        list.setFixedCellHeight(getFontMetrics(UIConstants.REGULAR_FONT).getHeight());
+        list.setFixedCellWidth(FIXED_CELL_WIDTH);
 
         add(list);
-        addBuildings();
     }
 
     /**
-     * Add all buildings on the map to the list.
+     * Update list view to show the buildings of a new snapshot,
+     * makes sure the same building stays selected.
+     *
+     * @param next  The new snapshot.
+     * @param delta The layout changes since the current snapshot, or {@code null} if they are unknown.
      */
-    private void addBuildings() {
-        DefaultListModel<ListItem> model = new DefaultListModel<>();
-        for (Building b : map.getBuildings()) {
-            model.addElement(new ListItem(b));
+    public void update(CitySnapshot next, LayoutDelta delta) {
+        Building selected = list.getSelectedValue();
+        // restoring the selection is not a new selection by the user, so don't notify the panel
+        updating = true;
+        model.setSnapshot(next, delta);
+        if (list.getSelectedValue() != selected) {
+            setSelectedBuilding(selected);
         }
-        list.setModel(model);
+        updating = false;
     }
 
     /**
-     * Update list view to match program state,
-     * makes sure list appears the same as before.
-     */
-    public void update() {
-        int index = list.getSelectedIndex();
-        addBuildings();
-        list.setSelectedIndex(index);
-    }
-
-    /**
-     * Returns a list item given a list index.
+     * List the results of a search instead of every building, keeping the selected building
+     * selected if it was found.
      *
-     * @param index The index of the building item.
+     * @param results The search results to list, or {@code null} to list every building again.
      */
-    private ListItem indexToListItem(int index) {
-        return list.getModel().getElementAt(index);
+    public void showResults(SearchResultModel results) {
+        Building selected = list.getSelectedValue();
+        this.results = results;
+        updating = true;
+        list.setModel(results == null ? model : results);
+        setSelectedBuilding(selected);
+        updating = false;
     }
 
     /**
@@ -82,17 +91,14 @@ public class ListView extends JPanel {
      * @param b The building to select.
      */
     public void setSelectedBuilding(Building b) {
-        if (b != null) {
-            list.setSelectedIndex(map.getBuildings().indexOf(b));
+        int index = results == null ? model.indexOf(b) : results.indexOf(b);
+        if (index != -1) {
+            list.setSelectedIndex(index);
         } else {
             list.clearSelection();
         }
     }
 
-    public void setMap(Map map) {
-        this.map = map;
-    }
-
     /**
      * Selection listener handling changes in list item selections.
      */
@@ -103,8 +109,8 @@ public class ListView extends JPanel {
         @Override
         public void valueChanged(ListSelectionEvent e) {
             int index = list.getSelectedIndex();
-            if (index != -1) {
-                Building b = indexToListItem(list.getSelectedIndex()).getBuilding();
+            if (index != -1 && !updating) {
+                Building b = list.getSelectedValue();
                 buildingsPanel.setSelectedBuilding(b);
                 buildingsPanel.updateSelectedBuilding(b);
             }
@@ -127,7 +133,7 @@ public class ListView extends JPanel {
                 boolean cellHasFocus) {
 
             JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-            label.setText(indexToListItem(index).getBuilding().getName());
+            label.setText(results == null ? model.getName(index) : results.getName(index));
             label.setFont(UIConstants.REGULAR_FONT);
             label.setBorder(BorderFactory.createEmptyBorder());
             return label;
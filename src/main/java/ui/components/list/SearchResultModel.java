@@ -0,0 +1,64 @@
+package ui.components.list;
+
+import model.buildings.Building;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * A fixed list model of the buildings found by a search.
+ * The names are copied when the model is created, on the thread that owns the city,
+ * so the model can then be displayed without reading the buildings themselves.
+ */
+public class SearchResultModel extends AbstractListModel<Building> {
+    private final Building[] buildings;
+    private final String[] names;
+
+    /**
+     * Create a new model of the given search results. Must be called on the thread that owns the buildings.
+     *
+     * @param results The buildings found by the search, in the order they should be listed.
+     */
+    public SearchResultModel(List<Building> results) {
+        buildings = results.toArray(new Building[0]);
+        names = new String[buildings.length];
+        for (int i = 0; i < buildings.length; i++) {
+            names[i] = buildings[i].getName();
+        }
+    }
+
+    /**
+     * Get the index of a building in the results.
+     *
+     * @param b The building to look for.
+     * @return The index of the building, or {@code -1} if it was not found by the search.
+     */
+    public int indexOf(Building b) {
+        for (int i = 0; i < buildings.length; i++) {
+            if (buildings[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the name of the building at the given index.
+     *
+     * @param index The index of the building.
+     * @return The building's name.
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    @Override
+    public int getSize() {
+        return buildings.length;
+    }
+
+    @Override
+    public Building getElementAt(int index) {
+        return buildings[index];
+    }
+}
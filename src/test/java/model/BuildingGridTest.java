@@ -0,0 +1,62 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BuildingGridTest {
+    private BuildingGrid grid;
+
+    @BeforeEach
+    public void setup() {
+        int[] xs = {0, 5, 5, -1, 40, -17, 15, 16};
+        int[] ys = {0, 5, 5, -1, 3, -40, 15, 16};
+        grid = new BuildingGrid(xs, ys);
+    }
+
+    @Test
+    public void testFind() {
+        assertEquals(0, grid.find(0, 0));
+        assertEquals(1, grid.find(5, 5));
+        assertEquals(3, grid.find(-1, -1));
+        assertEquals(5, grid.find(-17, -40));
+        assertEquals(-1, grid.find(1, 0));
+        assertEquals(-1, grid.find(1000, 1000));
+    }
+
+    @Test
+    public void testQuery() {
+        assertEquals(listOf(0, 1, 2, 6), query(0, 0, 15, 15));
+        assertEquals(listOf(0, 1, 2, 3, 6, 7), query(-1, -1, 16, 16));
+        assertEquals(listOf(4), query(20, 0, 100, 10));
+        assertEquals(listOf(5), query(-17, -40, -17, -40));
+        assertEquals(listOf(), query(100, 100, 200, 200));
+    }
+
+    @Test
+    public void testEmpty() {
+        grid = new BuildingGrid(new int[0], new int[0]);
+        assertEquals(-1, grid.find(0, 0));
+        assertEquals(listOf(), query(-100, -100, 100, 100));
+    }
+
+    // EFFECTS: returns the sorted indices of the buildings in the given rectangle
+    private List<Integer> query(int minX, int minY, int maxX, int maxY) {
+        List<Integer> result = new ArrayList<>();
+        grid.query(minX, minY, maxX, maxY, result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+    // EFFECTS: returns a list of the given indices
+    private List<Integer> listOf(Integer... indices) {
+        List<Integer> result = new ArrayList<>();
+        Collections.addAll(result, indices);
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package model;
+
+import model.buildings.Housing;
+import model.buildings.Park;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CityChangesTest {
+    private CityChanges.Recorder recorder;
+    private City city;
+    private Housing housing;
+    private Park park;
+
+    @BeforeEach
+    public void setup() {
+        recorder = new CityChanges.Recorder(2);
+        city = new City("Tokyo 2");
+        housing = new Housing("H1", 2000, 200, Position.ORIGIN);
+        park = new Park("P1", 100, 1.5, new Position(3, 4));
+        city.getMap().addBuilding(housing);
+        city.getMap().addBuilding(park);
+        city.setListener(recorder);
+    }
+
+    @Test
+    public void testTakeEmpty() {
+        CityChanges changes = recorder.take();
+        assertNotNull(changes);
+        assertFalse(changes.isLayoutChanged());
+        assertFalse(changes.areValuesChanged());
+        assertFalse(changes.isStatsChanged());
+        assertFalse(changes.isTaxRateChanged());
+        assertFalse(changes.isNameChanged());
+    }
+
+    @Test
+    public void testCityNotifiesRecorder() {
+        city.setName("Vancouver");
+        city.setTaxRate(0.2);
+        city.update();
+        CityChanges changes = recorder.take();
+        assertTrue(changes.isNameChanged());
+        assertTrue(changes.isTaxRateChanged());
+        assertTrue(changes.isStatsChanged());
+        assertFalse(changes.isLayoutChanged());
+
+        assertFalse(recorder.take().isNameChanged());
+    }
+
+    @Test
+    public void testValueChangesCoalesced() {
+        park.setValue(200);
+        park.setValue(300);
+        CityChanges changes = recorder.take();
+        assertEquals(1, changes.getValueChanges().size());
+        assertTrue(changes.isValueChanged(park));
+        assertFalse(changes.isValueChanged(housing));
+
+        assertTrue(recorder.take().getValueChanges().isEmpty());
+    }
+
+    @Test
+    public void testValueChangesOverflow() {
+        park.setValue(200);
+        housing.setValue(200);
+        Housing other = new Housing("H2", 100, 10, Position.ORIGIN);
+        city.getMap().addBuilding(other);
+        other.setValue(50);
+        CityChanges changes = recorder.take();
+        assertNull(changes.getValueChanges());
+        assertTrue(changes.areValuesChanged());
+        assertTrue(changes.isValueChanged(park));
+        assertNotNull(changes.getLayoutDelta());
+    }
+
+    @Test
+    public void testLayoutChanges() {
+        park.setPosition(new Position(5, 5));
+        CityChanges changes = recorder.take();
+        assertTrue(changes.isLayoutChanged());
+        assertEquals(LayoutDelta.Kind.MOVED, changes.getLayoutDelta().getKind(0));
+    }
+
+    @Test
+    public void testReset() {
+        park.setValue(200);
+        recorder.reset();
+        assertNull(recorder.take());
+        assertNotNull(recorder.take());
+    }
+
+    @Test
+    public void testSnapshotPatchesChangedValues() {
+        CitySnapshot first = new CitySnapshot(city, 0);
+        recorder.take();
+        park.setValue(300);
+        CitySnapshot second = new CitySnapshot(city, 1, first, recorder.take());
+        assertEquals(300, second.getValue(1));
+        assertEquals(2000, second.getValue(0));
+        assertEquals(100, first.getValue(1));
+
+        CitySnapshot third = new CitySnapshot(city, 2, second, recorder.take());
+        assertEquals(300, third.getValue(1));
+    }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import model.buildings.BuildingType;
+import model.buildings.Housing;
+import model.buildings.Park;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CitySnapshotTest {
+    private City city;
+    private Housing housing;
+    private Park park;
+
+    @BeforeEach
+    public void setup() {
+        city = new City("Tokyo 2");
+        city.setMoney(500);
+        housing = new Housing("H1", 2000, 200, Position.ORIGIN);
+        park = new Park("P1", 100, 1.5, new Position(3, 4));
+        city.getMap().addBuilding(housing);
+        city.getMap().addBuilding(park);
+    }
+
+    @Test
+    public void testCopiesState() {
+        CitySnapshot snapshot = new CitySnapshot(city, 7);
+        assertEquals(7, snapshot.getVersion());
+        assertEquals("Tokyo 2", snapshot.getName());
+        assertEquals(500, snapshot.getMoney());
+        assertEquals(2, snapshot.getNumOfBuildings());
+        assertEquals("P1", snapshot.getBuildingName(1));
+        assertEquals(BuildingType.PARK, snapshot.getBuildingType(1));
+        assertEquals(3, snapshot.getX(1));
+        assertEquals(4, snapshot.getY(1));
+        assertEquals(100, snapshot.getValue(1));
+    }
+
+    @Test
+    public void testUnaffectedByLaterChanges() {
+        CitySnapshot snapshot = new CitySnapshot(city, 0);
+        park.setPosition(new Position(5, 5));
+        park.setValue(300);
+        city.getMap().removeBuilding(housing);
+        city.setName("Vancouver");
+
+        assertEquals("Tokyo 2", snapshot.getName());
+        assertEquals(2, snapshot.getNumOfBuildings());
+        assertEquals(3, snapshot.getX(1));
+        assertEquals(100, snapshot.getValue(1));
+    }
+
+    @Test
+    public void testIndexOf() {
+        CitySnapshot snapshot = new CitySnapshot(city, 0);
+        assertEquals(0, snapshot.indexOf(housing));
+        assertEquals(1, snapshot.indexOf(park));
+        assertEquals(-1, snapshot.indexOf(new Park("P2", 100, 1.5, Position.ORIGIN)));
+        assertEquals(-1, snapshot.indexOf(null));
+    }
+
+    @Test
+    public void testSharesLayoutWhenUnchanged() {
+        CitySnapshot first = new CitySnapshot(city, 0);
+        park.setValue(300);
+        CitySnapshot second = new CitySnapshot(city, 1, first, null);
+        assertEquals(first.getLayoutVersion(), second.getLayoutVersion());
+        assertEquals(300, second.getValue(1));
+        assertEquals(100, first.getValue(1));
+
+        park.setPosition(new Position(6, 6));
+        CitySnapshot third = new CitySnapshot(city, 2, second, null);
+        assertEquals(1, third.findBuildingAt(6, 6));
+        assertEquals(-1, third.findBuildingAt(3, 4));
+        assertEquals(1, second.findBuildingAt(3, 4));
+    }
+
+    @Test
+    public void testForEachBuildingIn() {
+        CitySnapshot snapshot = new CitySnapshot(city, 0);
+        int[] count = new int[1];
+        snapshot.forEachBuildingIn(1, 1, 10, 10, i -> {
+            assertEquals(1, i);
+            count[0]++;
+        });
+        assertEquals(1, count[0]);
+    }
+
+    @Test
+    public void testFindBuildingAt() {
+        CitySnapshot snapshot = new CitySnapshot(city, 0);
+        assertEquals(0, snapshot.findBuildingAt(0, 0));
+        assertEquals(1, snapshot.findBuildingAt(3, 4));
+        assertEquals(-1, snapshot.findBuildingAt(1, 1));
+    }
+}
@@ -77,6 +77,29 @@ public class CityTest {
         assertEquals(0, city.getMoney());
     }
 
+    @Test
+    public void testUpdateMoneyRoundsPerBuilding() {
+        city.setTaxRate(0.1);
+        for (int i = 0; i < 3; i++) {
+            city.getMap().addBuilding(new Hospital("H" + i, 15, new Position(i, 0)));
+        }
+        Hospital last = new Hospital("H3", 25, new Position(3, 0));
+        city.getMap().addBuilding(last);
+
+        // 1.5 + 1.5 + 1.5 + 2.5 would be 7, but each building's income is rounded down first
+        city.updateMoney();
+        assertEquals(5, city.getMoney());
+
+        last.setValue(35);
+        city.updateMoney();
+        assertEquals(5 + 6, city.getMoney());
+
+        city.setTaxRate(0.2);
+        city.updateMoney();
+        assertEquals(5 + 6 + 3 + 3 + 3 + 7, city.getMoney());
+        city.getMap().verifyAggregates();
+    }
+
     @Test
     public void testUpdateMoneyRegular() {
         city.getMap().addBuilding(new Business("1", 200, 5, Position.ORIGIN));
@@ -109,6 +132,18 @@ public class CityTest {
         }
     }
 
+    @Test
+    public void testUpdateVerifyAggregates() {
+        city.setVerifyAggregates(true);
+        city.getMap().addBuilding(new Housing("1", 100, 5, Position.ORIGIN));
+        city.getMap().addBuilding(new PowerPlant("2", 300, 40, new Position(0, 1)));
+        city.getMap().getBuilding(0).setValue(50);
+        city.update();
+        assertEquals(5, city.getHousingCapacity());
+        assertEquals(40, city.getEnergyCapacity());
+        assertEquals(2 * City.BUILDING_ENERGY_USAGE, city.getEnergyUsage());
+    }
+
     @Test
     public void testSetTaxRate() {
         city.setTaxRate(0.10);
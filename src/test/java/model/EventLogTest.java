@@ -0,0 +1,126 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+    private EventLog log;
+
+    @BeforeEach
+    public void setup() {
+        log = EventLog.getInstance();
+        log.setCapacity(4);
+    }
+
+    @AfterEach
+    public void teardown() {
+        log.setCapacity(EventLog.DEFAULT_CAPACITY);
+    }
+
+    @Test
+    public void testLogEventKinds() {
+        Event custom = new Event("Custom event");
+        log.logEvent(EventKind.MONEY_UPDATED, 500);
+        log.logEvent(EventKind.BUILDING_ADDED, "Park");
+        log.logEvent(custom);
+
+        List<String> descriptions = describeAll();
+        assertEquals(3, log.getSize());
+        assertEquals("Money updated to 500", descriptions.get(0));
+        assertEquals("A building (Park) was added to the map", descriptions.get(1));
+        assertEquals("Custom event", descriptions.get(2));
+
+        Event last = null;
+        for (Event e : log) {
+            last = e;
+        }
+        assertSame(custom, last);
+    }
+
+    @Test
+    public void testRetainsMostRecent() {
+        for (int i = 0; i < 10; i++) {
+            log.logEvent(EventKind.POPULATION_UPDATED, i);
+        }
+        List<String> descriptions = describeAll();
+        assertEquals(4, log.getSize());
+        assertEquals(4, descriptions.size());
+        assertEquals("Population updated to 6", descriptions.get(0));
+        assertEquals("Population updated to 9", descriptions.get(3));
+    }
+
+    @Test
+    public void testClear() {
+        log.logEvent(EventKind.MONEY_UPDATED, 1);
+        log.clear();
+        assertEquals(0, log.getSize());
+        assertFalse(log.iterator().hasNext());
+        assertEquals(4, log.getCapacity());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        int threadCount = 8;
+        int eventsPerThread = 5000;
+        log.setCapacity(threadCount * eventsPerThread);
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int producer = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    log.logEvent(EventKind.MONEY_UPDATED, producer);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int[] counts = new int[threadCount];
+        for (String description : describeAll()) {
+            counts[Integer.parseInt(description.substring("Money updated to ".length()))]++;
+        }
+        assertEquals(threadCount * eventsPerThread, log.getSize());
+        for (int count : counts) {
+            assertEquals(eventsPerThread, count);
+        }
+    }
+
+    @Test
+    public void testSnapshotIgnoresLaterEvents() {
+        log.logEvent(EventKind.MONEY_UPDATED, 1);
+        Iterator<Event> iterator = log.iterator();
+        log.logEvent(EventKind.MONEY_UPDATED, 2);
+        iterator.next();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testSetCapacityInvalid() {
+        try {
+            log.setCapacity(0);
+            fail("setCapacity() should have thrown an exception");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    // EFFECTS: returns the description of every event in the log, oldest first
+    private List<String> describeAll() {
+        List<String> descriptions = new ArrayList<>();
+        for (Event e : log) {
+            String[] lines = e.toString().split("\n");
+            descriptions.add(lines[1]);
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,96 @@
+package model;
+
+import model.buildings.BuildingType;
+import model.buildings.Housing;
+import model.buildings.Park;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LayoutDeltaTest {
+    private LayoutDelta.Recorder recorder;
+    private Housing housing;
+    private Park park;
+
+    @BeforeEach
+    public void setup() {
+        recorder = new LayoutDelta.Recorder(4);
+        housing = new Housing("H1", 2000, 200, Position.ORIGIN);
+        park = new Park("P1", 100, 1.5, new Position(3, 4));
+    }
+
+    @Test
+    public void testTakeEmpty() {
+        LayoutDelta delta = recorder.take();
+        assertNotNull(delta);
+        assertEquals(0, delta.size());
+    }
+
+    @Test
+    public void testTakeInOrder() {
+        recorder.buildingAdded(housing, 0);
+        recorder.buildingRemoved(park, 3);
+        LayoutDelta delta = recorder.take();
+
+        assertEquals(2, delta.size());
+        assertEquals(LayoutDelta.Kind.ADDED, delta.getKind(0));
+        assertEquals(0, delta.getIndex(0));
+        assertEquals(0, delta.getX(0));
+        assertEquals(BuildingType.HOUSING, delta.getType(0));
+        assertEquals(LayoutDelta.Kind.REMOVED, delta.getKind(1));
+        assertEquals(3, delta.getIndex(1));
+        assertEquals(3, delta.getX(1));
+        assertEquals(4, delta.getY(1));
+        assertEquals(BuildingType.PARK, delta.getType(1));
+
+        assertEquals(0, recorder.take().size());
+    }
+
+    @Test
+    public void testOverflow() {
+        for (int i = 0; i < 5; i++) {
+            recorder.buildingAdded(housing, i);
+        }
+        assertNull(recorder.take());
+        recorder.buildingAdded(housing, 0);
+        assertEquals(1, recorder.take().size());
+    }
+
+    @Test
+    public void testReset() {
+        recorder.buildingAdded(housing, 0);
+        recorder.reset();
+        recorder.buildingAdded(park, 1);
+        assertNull(recorder.take());
+        assertEquals(0, recorder.take().size());
+    }
+
+    @Test
+    public void testMapNotifiesRecorder() {
+        Map map = new Map();
+        map.setListener(recorder);
+        map.addBuilding(park);
+        map.addBuilding(housing);
+        housing.setPosition(new Position(1, 2));
+        housing.setValue(50);
+        map.removeBuilding(park);
+        map.removeBuilding(new Park("P2", 100, 1.5, Position.ORIGIN));
+        LayoutDelta delta = recorder.take();
+
+        assertEquals(4, delta.size());
+        assertEquals(LayoutDelta.Kind.ADDED, delta.getKind(0));
+        assertEquals(0, delta.getIndex(0));
+        assertEquals(LayoutDelta.Kind.ADDED, delta.getKind(1));
+        assertEquals(1, delta.getIndex(1));
+        assertEquals(LayoutDelta.Kind.MOVED, delta.getKind(2));
+        assertEquals(-1, delta.getIndex(2));
+        assertEquals(0, delta.getOldX(2));
+        assertEquals(0, delta.getOldY(2));
+        assertEquals(1, delta.getX(2));
+        assertEquals(2, delta.getY(2));
+        assertEquals(LayoutDelta.Kind.REMOVED, delta.getKind(3));
+        assertEquals(0, delta.getIndex(3));
+        assertEquals(3, delta.getX(3));
+    }
+}
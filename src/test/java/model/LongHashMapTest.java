@@ -0,0 +1,90 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashMapTest {
+    private LongHashMap<String> map;
+
+    @BeforeEach
+    public void setup() {
+        map = new LongHashMap<>();
+    }
+
+    @Test
+    public void testPutGet() {
+        map.put(1, "a");
+        map.put(-1, "b");
+        map.put(Long.MIN_VALUE, "c");
+        map.put(1, "d");
+        assertEquals("d", map.get(1));
+        assertEquals("b", map.get(-1));
+        assertEquals("c", map.get(Long.MIN_VALUE));
+        assertNull(map.get(2));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testRemove() {
+        map.put(1, "a");
+        map.put(2, "b");
+        map.remove(1);
+        map.remove(3);
+        assertNull(map.get(1));
+        assertEquals("b", map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testClear() {
+        map.put(1, "a");
+        map.put(2, "b");
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(1));
+        map.put(2, "c");
+        assertEquals("c", map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testForEachValue() {
+        map.put(10, "a");
+        map.put(20, "b");
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        values.sort(null);
+        assertEquals(2, values.size());
+        assertEquals("a", values.get(0));
+        assertEquals("b", values.get(1));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        HashMap<Long, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            // a small key range makes collisions and removals of probed entries common
+            long key = random.nextInt(500) * (random.nextBoolean() ? 1L << 32 : 1);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map.remove(key);
+            } else {
+                expected.put(key, "v" + i);
+                map.put(key, "v" + i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.get(key << 32), map.get(key << 32));
+        }
+    }
+}
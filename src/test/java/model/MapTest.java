@@ -5,7 +5,12 @@ import model.exceptions.BuildingNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -73,11 +78,98 @@ public class MapTest {
         assertEquals(0, map.getBuildingsFromType(BuildingType.BUSINESS).size());
         assertEquals(0, map.getBuildingsFromType(BuildingType.SCHOOL).size());
         assertEquals(0, map.getBuildingsFromType(BuildingType.POWER_PLANT).size());
-        assertEquals(fireHall.getName(), map.getBuilding(0).getName());
-        assertEquals(hospital.getName(), map.getBuilding(1).getName());
-        assertEquals(housing.getName(), map.getBuilding(2).getName());
-        assertEquals(landfill.getName(), map.getBuilding(3).getName());
-        assertEquals(park.getName(), map.getBuilding(4).getName());
+        // each removal moves the last building into the removed building's place
+        assertEquals(park.getName(), map.getBuilding(0).getName());
+        assertEquals(fireHall.getName(), map.getBuilding(1).getName());
+        assertEquals(hospital.getName(), map.getBuilding(2).getName());
+        assertEquals(housing.getName(), map.getBuilding(3).getName());
+        assertEquals(landfill.getName(), map.getBuilding(4).getName());
+    }
+
+    @Test
+    public void testAddBuildingAssignsIds() {
+        addAll();
+        assertNotEquals(Building.NO_ID, business.getId());
+        assertNotEquals(business.getId(), fireHall.getId());
+        assertEquals(business, map.getBuildingById(business.getId()));
+        assertEquals(school, map.getBuildingById(school.getId()));
+    }
+
+    @Test
+    public void testAddBuildingKeepsFreeId() {
+        housing.setId(42);
+        park.setId(42);
+        map.addBuilding(housing);
+        map.addBuilding(park);
+        map.addBuilding(school);
+        assertEquals(42, housing.getId());
+        assertNotEquals(42, park.getId());
+        assertTrue(school.getId() > 42);
+        assertEquals(park, map.findBuildingById(park.getId()));
+    }
+
+    @Test
+    public void testSetIdOnMapRefused() throws BuildingNotFoundException {
+        map.addBuilding(housing);
+        long id = housing.getId();
+        assertThrows(IllegalStateException.class, () -> housing.setId(id + 1));
+        assertEquals(id, housing.getId());
+        assertSame(housing, map.getBuildingById(id));
+        map.removeBuilding(housing);
+        housing.setId(id + 1);
+        assertEquals(id + 1, housing.getId());
+    }
+
+    @Test
+    public void testAddBuildingTwiceIgnored() {
+        map.addBuilding(housing);
+        long id = housing.getId();
+        map.addBuilding(housing);
+        assertEquals(1, map.getNumOfBuildings());
+        assertEquals(id, housing.getId());
+    }
+
+    @Test
+    public void testGetBuildingByIdAfterRemove() {
+        addAll();
+        map.removeBuilding(fireHall);
+        assertNull(map.findBuildingById(fireHall.getId()));
+        assertEquals(school, map.getBuildingById(school.getId()));
+        assertEquals(school, map.getBuilding(1));
+        assertEquals(Arrays.asList(school, hospital, landfill, powerPlant),
+                map.findBuildings(new BuildingQuery(null, null, 2000, Integer.MAX_VALUE)));
+        try {
+            map.getBuildingById(fireHall.getId());
+            fail("Map.getBuildingById() should have thrown an exception");
+        } catch (BuildingNotFoundException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void testRemoveBuildingNotOnMap() {
+        addAll();
+        Map other = new Map();
+        Housing stranger = new Housing("9", 100, 1, Position.ORIGIN);
+        other.addBuilding(stranger);
+        map.removeBuilding(stranger);
+        assertEquals(8, map.getNumOfBuildings());
+        map.verifyAggregates();
+    }
+
+    @Test
+    public void testRemoveBuildingSwapsTypeBucket() {
+        Housing first = new Housing("H1", 100, 1, Position.ORIGIN);
+        Housing second = new Housing("H2", 100, 1, Position.ORIGIN);
+        Housing third = new Housing("H3", 100, 1, Position.ORIGIN);
+        map.addBuilding(first);
+        map.addBuilding(second);
+        map.addBuilding(third);
+        map.removeBuilding(first);
+        assertEquals(Arrays.asList(third, second), map.getBuildingsFromType(BuildingType.HOUSING));
+        map.removeBuilding(second);
+        assertEquals(Collections.singletonList(third), map.getBuildingsFromType(BuildingType.HOUSING));
+        assertEquals(third, map.getBuildingById(third.getId()));
     }
 
     @Test
@@ -195,6 +287,30 @@ public class MapTest {
         assertEquals(other.getName(), buildings.get(1).getName());
     }
 
+    @Test
+    public void testGetBuildingsFromTypeReadOnly() {
+        addAll();
+        List<Building> buildings = map.getBuildingsFromType(BuildingType.PARK);
+        try {
+            buildings.add(new Park("p1", 2000, 1.0, Position.ORIGIN));
+            fail("Map.getBuildingsFromType() should return a read-only list");
+        } catch (UnsupportedOperationException e) {
+            // pass
+        }
+        assertEquals(1, map.getNumOfBuildingsFromType(BuildingType.PARK));
+    }
+
+    @Test
+    public void testGetNumOfBuildingsFromType() {
+        assertEquals(0, map.getNumOfBuildingsFromType(BuildingType.HOUSING));
+        addAll();
+        map.addBuilding(new Housing("h1", 2000, 2000, Position.ORIGIN));
+        assertEquals(2, map.getNumOfBuildingsFromType(BuildingType.HOUSING));
+        assertEquals(1, map.getNumOfBuildingsFromType(BuildingType.SCHOOL));
+        map.removeBuilding(housing);
+        assertEquals(1, map.getNumOfBuildingsFromType(BuildingType.HOUSING));
+    }
+
     @Test
     public void testGetNumOfBuildingsEmpty() {
         assertEquals(0, map.getNumOfBuildings());
@@ -246,6 +362,506 @@ public class MapTest {
         assertFalse(map.checkBuildingCollision(new Position(2, 2)));
     }
 
+    @Test
+    public void testFindBuildingAtPosition() {
+        Position position = new Position(4, 5);
+        School school = new School("s1", 1000, 1000, position);
+        map.addBuilding(school);
+        assertSame(school, map.findBuildingAtPosition(new Position(4, 5)));
+        assertNull(map.findBuildingAtPosition(new Position(5, 4)));
+    }
+
+    @Test
+    public void testBuildingAtCoordinates() throws BuildingNotFoundException {
+        School school = new School("s1", 1000, 1000, new Position(-4, 5));
+        map.addBuilding(school);
+        assertSame(school, map.getBuildingAt(-4, 5));
+        assertSame(school, map.findBuildingAt(-4, 5));
+        assertNull(map.findBuildingAt(5, -4));
+        assertTrue(map.checkBuildingCollision(-4, 5));
+        assertFalse(map.checkBuildingCollision(5, -4));
+        assertThrows(BuildingNotFoundException.class, () -> map.getBuildingAt(5, -4));
+    }
+
+    @Test
+    public void testFindBuildingAtPositionSharedReturnsFirst() {
+        addAll();
+        assertSame(business, map.findBuildingAtPosition(Position.ORIGIN));
+        map.removeBuilding(business);
+        assertSame(fireHall, map.findBuildingAtPosition(Position.ORIGIN));
+    }
+
+    @Test
+    public void testRemoveBuildingClearsPosition() {
+        map.addBuilding(new Housing("H1", 2000, 200, new Position(1, 1)));
+        map.removeBuilding(map.getBuilding(0));
+        assertFalse(map.checkBuildingCollision(new Position(1, 1)));
+        assertNull(map.findBuildingAtPosition(new Position(1, 1)));
+    }
+
+    @Test
+    public void testSetPositionUpdatesIndex() {
+        Housing h1 = new Housing("H1", 2000, 200, new Position(1, 1));
+        map.addBuilding(h1);
+        h1.setPosition(new Position(3, 7));
+        assertFalse(map.checkBuildingCollision(new Position(1, 1)));
+        assertSame(h1, map.findBuildingAtPosition(new Position(3, 7)));
+    }
+
+    @Test
+    public void testSetPositionAfterRemoveIgnored() {
+        Housing h1 = new Housing("H1", 2000, 200, new Position(1, 1));
+        map.addBuilding(h1);
+        map.removeBuilding(h1);
+        h1.setPosition(new Position(3, 7));
+        assertFalse(map.checkBuildingCollision(new Position(3, 7)));
+    }
+
+    @Test
+    public void testAggregatesAddRemove() {
+        addAll();
+        assertEquals(10300, map.getTotalValue());
+        assertEquals(1, map.getTotalResidentCapacity());
+        assertEquals(200, map.getTotalWorkerCapacity());
+        assertEquals(200, map.getTotalProductionRate());
+        map.removeBuilding(business);
+        map.removeBuilding(powerPlant);
+        assertEquals(7300, map.getTotalValue());
+        assertEquals(0, map.getTotalWorkerCapacity());
+        assertEquals(0, map.getTotalProductionRate());
+        map.verifyAggregates();
+    }
+
+    @Test
+    public void testAggregatesSetValue() {
+        addAll();
+        housing.setValue(600);
+        assertEquals(10800, map.getTotalValue());
+        map.removeBuilding(housing);
+        housing.setValue(100000);
+        assertEquals(10200, map.getTotalValue());
+        map.verifyAggregates();
+    }
+
+    @Test
+    public void testColumnsFollowBuildings() {
+        Random random = new Random(5);
+        List<Building> added = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int action = random.nextInt(4);
+            if (action == 0 && !added.isEmpty()) {
+                map.removeBuilding(added.remove(random.nextInt(added.size())));
+            } else if (action == 1 && !added.isEmpty()) {
+                added.get(random.nextInt(added.size())).setValue(random.nextInt(10000));
+            } else if (action == 2 && !added.isEmpty()) {
+                added.get(random.nextInt(added.size())).setPosition(new Position(random.nextInt(50), random.nextInt(50)));
+            } else {
+                Position p = new Position(random.nextInt(50), random.nextInt(50));
+                Building b = random.nextBoolean()
+                        ? new Housing("h" + i, random.nextInt(1000), random.nextInt(100), p)
+                        : new Park("p" + i, random.nextInt(1000), 1.0, p);
+                map.addBuilding(b);
+                added.add(b);
+            }
+        }
+
+        BuildingColumns columns = map.getColumns();
+        assertEquals(map.getNumOfBuildings(), columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Building b = map.getBuilding(i);
+            assertEquals(b.getPosition().getX(), columns.getX(i));
+            assertEquals(b.getPosition().getY(), columns.getY(i));
+            assertEquals(b.getBuildingType(), columns.getType(i));
+            assertEquals(b.getValue(), columns.getValue(i));
+            assertEquals(BuildingColumns.capacityOf(b), columns.getCapacity(i));
+        }
+        map.verifyAggregates();
+    }
+
+    @Test
+    public void testLayoutVersion() {
+        long empty = map.getLayoutVersion();
+        assertNotEquals(empty, new Map().getLayoutVersion());
+
+        map.addBuilding(housing);
+        long added = map.getLayoutVersion();
+        assertNotEquals(empty, added);
+
+        housing.setValue(600);
+        assertEquals(added, map.getLayoutVersion());
+
+        housing.setPosition(new Position(1, 1));
+        long moved = map.getLayoutVersion();
+        assertNotEquals(added, moved);
+
+        map.removeBuilding(housing);
+        assertNotEquals(moved, map.getLayoutVersion());
+    }
+
+    @Test
+    public void testGetBuildingStringSharedReturnsFirst() {
+        Housing other = new Housing(business.getName(), 100, 1, Position.ORIGIN);
+        addAll();
+        map.addBuilding(other);
+        assertEquals(business, map.getBuilding(business.getName()));
+
+        map.removeBuilding(business);
+        assertEquals(other, map.getBuilding(business.getName()));
+    }
+
+    @Test
+    public void testGetBuildingStringRemoved() {
+        addAll();
+        map.removeBuilding(school);
+        try {
+            map.getBuilding(school.getName());
+            fail("Map.getBuilding() should have thrown an exception");
+        } catch (BuildingNotFoundException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void testFindBuildingsNamePrefix() {
+        Housing house = new Housing("House", 100, 1, Position.ORIGIN);
+        Housing houseTwo = new Housing("House 2", 100, 1, Position.ORIGIN);
+        Housing hospice = new Housing("Hospice", 100, 1, Position.ORIGIN);
+        map.addBuilding(houseTwo);
+        map.addBuilding(hospice);
+        map.addBuilding(house);
+
+        assertEquals(Arrays.asList(house, houseTwo), map.findBuildings(query("Hou", null)));
+        assertEquals(Arrays.asList(hospice, house, houseTwo), map.findBuildings(query("Ho", null)));
+        assertEquals(Collections.singletonList(houseTwo), map.findBuildings(query("House ", null)));
+        assertTrue(map.findBuildings(query("Houses", null)).isEmpty());
+    }
+
+    @Test
+    public void testFindBuildingsType() {
+        addAll();
+        assertEquals(Collections.singletonList(park), map.findBuildings(query(null, BuildingType.PARK)));
+        assertEquals(Collections.singletonList(park), map.findBuildings(query("6", BuildingType.PARK)));
+        assertTrue(map.findBuildings(query("5", BuildingType.PARK)).isEmpty());
+    }
+
+    @Test
+    public void testFindBuildingsValueRange() {
+        addAll();
+        assertEquals(Arrays.asList(housing, park),
+                map.findBuildings(new BuildingQuery(null, null, Integer.MIN_VALUE, 200)));
+        assertEquals(Arrays.asList(business, fireHall),
+                map.findBuildings(new BuildingQuery(null, null, 201, 1999)));
+        assertEquals(Arrays.asList(hospital, landfill, powerPlant, school),
+                map.findBuildings(new BuildingQuery(null, null, 2000, Integer.MAX_VALUE)));
+        assertEquals(Collections.singletonList(hospital),
+                map.findBuildings(new BuildingQuery("3", null, 2000, Integer.MAX_VALUE)));
+        assertTrue(map.findBuildings(new BuildingQuery(null, null, 300, 200)).isEmpty());
+    }
+
+    @Test
+    public void testFindBuildingsValueIndexFollowsSetValue() {
+        addAll();
+        housing.setValue(5000);
+        assertEquals(Collections.singletonList(housing),
+                map.findBuildings(new BuildingQuery(null, null, 3000, Integer.MAX_VALUE)));
+        assertEquals(Collections.singletonList(park),
+                map.findBuildings(new BuildingQuery(null, null, Integer.MIN_VALUE, 200)));
+
+        map.removeBuilding(housing);
+        housing.setValue(100);
+        assertTrue(map.findBuildings(new BuildingQuery(null, null, 3000, Integer.MAX_VALUE)).isEmpty());
+        assertEquals(Collections.singletonList(park),
+                map.findBuildings(new BuildingQuery(null, null, Integer.MIN_VALUE, 200)));
+    }
+
+    @Test
+    public void testFindBuildingsValueIndexSameValueKeepsOrder() {
+        addAll();
+        BuildingQuery thousand = new BuildingQuery(null, null, 1000, 1000);
+        business.setValue(1000);
+        assertEquals(Arrays.asList(business, fireHall), map.findBuildings(thousand));
+
+        business.setValue(7000);
+        fireHall.setValue(8000);
+        business.setValue(1000);
+        assertEquals(Collections.singletonList(business), map.findBuildings(thousand));
+        assertEquals(Collections.singletonList(fireHall), map.findBuildings(new BuildingQuery(null, null, 8000, 8000)));
+        assertTrue(map.findBuildings(new BuildingQuery(null, null, 7000, 7000)).isEmpty());
+    }
+
+    @Test
+    public void testFindBuildingsValueIndexSameValueInMapOrder() {
+        addAll();
+        map.removeBuilding(business);
+        school.setValue(1000);
+        assertEquals(Arrays.asList(school, fireHall), map.findBuildings(new BuildingQuery(null, null, 1000, 1000)));
+    }
+
+    @Test
+    public void testFindBuildingsValueIndexExtremeValues() {
+        addAll();
+        park.setValue(Integer.MIN_VALUE);
+        housing.setValue(Integer.MAX_VALUE);
+        assertEquals(Collections.singletonList(park),
+                map.findBuildings(new BuildingQuery(null, null, Integer.MIN_VALUE, -1)));
+        assertEquals(Collections.singletonList(housing),
+                map.findBuildings(new BuildingQuery(null, null, Integer.MAX_VALUE, Integer.MAX_VALUE)));
+        assertEquals(Arrays.asList(park, business, fireHall),
+                map.findBuildings(new BuildingQuery(null, null, Integer.MIN_VALUE, 1000)));
+        List<Building> nonNegative = map.findBuildings(new BuildingQuery(null, null, 0, Integer.MAX_VALUE));
+        assertEquals(7, nonNegative.size());
+        assertEquals(housing, nonNegative.get(6));
+    }
+
+    @Test
+    public void testFindBuildingsAll() {
+        addAll();
+        assertEquals(map.getBuildings(), map.findBuildings(query(null, null)));
+    }
+
+    @Test
+    public void testGetAdjacentBuildings() {
+        housing.setPosition(new Position(0, 1));
+        business.setPosition(new Position(1, 0));
+        fireHall.setPosition(new Position(0, -1));
+        landfill.setPosition(new Position(-1, 0));
+        school.setPosition(new Position(1, 1));
+        map.addBuilding(landfill);
+        map.addBuilding(powerPlant);
+        map.addBuilding(fireHall);
+        map.addBuilding(business);
+        map.addBuilding(housing);
+        map.addBuilding(school);
+        assertEquals(Arrays.asList(housing, business, fireHall, landfill), map.getAdjacentBuildings(powerPlant));
+        assertEquals(Arrays.asList(school, powerPlant), map.getAdjacentBuildings(business));
+        assertEquals(Collections.singletonList(powerPlant), map.getAdjacentBuildings(landfill));
+    }
+
+    @Test
+    public void testGetAdjacentBuildingsFollowsChanges() {
+        map.addBuilding(powerPlant);
+        List<Building> adjacent = map.getAdjacentBuildings(powerPlant);
+        assertTrue(adjacent.isEmpty());
+
+        housing.setPosition(new Position(1, 0));
+        map.addBuilding(housing);
+        assertEquals(Collections.singletonList(housing), adjacent);
+        assertSame(adjacent, map.getAdjacentBuildings(powerPlant));
+
+        housing.setPosition(new Position(2, 0));
+        assertTrue(adjacent.isEmpty());
+        powerPlant.setPosition(new Position(3, 0));
+        assertEquals(Collections.singletonList(housing), map.getAdjacentBuildings(powerPlant));
+        assertEquals(Collections.singletonList(powerPlant), map.getAdjacentBuildings(housing));
+
+        map.removeBuilding(housing);
+        assertTrue(map.getAdjacentBuildings(powerPlant).isEmpty());
+    }
+
+    @Test
+    public void testGetAdjacentBuildingsStacked() {
+        housing.setPosition(new Position(0, -1));
+        park.setPosition(new Position(0, -1));
+        map.addBuilding(housing);
+        map.addBuilding(park);
+        map.addBuilding(powerPlant);
+        assertEquals(Collections.singletonList(housing), map.getAdjacentBuildings(powerPlant));
+        assertEquals(Collections.singletonList(powerPlant), map.getAdjacentBuildings(park));
+        map.removeBuilding(housing);
+        assertEquals(Collections.singletonList(park), map.getAdjacentBuildings(powerPlant));
+    }
+
+    @Test
+    public void testGetAdjacentBuildingsFollowsRandomChanges() {
+        Random random = new Random(11);
+        List<Building> added = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Position p = new Position(random.nextInt(8), random.nextInt(8));
+            int action = random.nextInt(3);
+            if (action == 0 && !added.isEmpty()) {
+                map.removeBuilding(added.remove(random.nextInt(added.size())));
+            } else if (action == 1 && !added.isEmpty()) {
+                added.get(random.nextInt(added.size())).setPosition(p);
+            } else {
+                Building b = new Park("p" + i, 100, 1.0, p);
+                map.addBuilding(b);
+                added.add(b);
+            }
+
+            for (Building b : added) {
+                int x = b.getPosition().getX();
+                int y = b.getPosition().getY();
+                List<Building> expected = new ArrayList<>();
+                for (Building n : new Building[]{map.findBuildingAt(x, y + 1), map.findBuildingAt(x + 1, y),
+                        map.findBuildingAt(x, y - 1), map.findBuildingAt(x - 1, y)}) {
+                    if (n != null) {
+                        expected.add(n);
+                    }
+                }
+                assertEquals(expected, map.getAdjacentBuildings(b));
+            }
+        }
+    }
+
+    @Test
+    public void testGetAdjacentBuildingsNotOnMap() {
+        housing.setPosition(new Position(-1, 0));
+        map.addBuilding(housing);
+        assertEquals(Collections.singletonList(housing), map.getAdjacentBuildings(powerPlant));
+    }
+
+    @Test
+    public void testFindBuildingsIn() {
+        housing.setPosition(new Position(3, 4));
+        park.setPosition(new Position(-20, 17));
+        school.setPosition(new Position(16, 16));
+        addAll();
+        List<Building> found = map.findBuildingsIn(-20, 1, 10, 20);
+        assertEquals(2, found.size());
+        assertTrue(found.containsAll(Arrays.asList(housing, park)));
+        assertEquals(Collections.singletonList(school), map.findBuildingsIn(16, 16, 16, 16));
+        assertEquals(5, map.findBuildingsIn(0, 0, 0, 0).size());
+        assertTrue(map.findBuildingsIn(5, 5, 4, 4).isEmpty());
+        assertEquals(8, map.findBuildingsIn(Integer.MIN_VALUE, Integer.MIN_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE).size());
+
+        school.setPosition(new Position(100, 100));
+        map.removeBuilding(housing);
+        assertTrue(map.findBuildingsIn(1, 1, 20, 20).isEmpty());
+        assertEquals(Collections.singletonList(school), map.findBuildingsIn(90, 90, 110, 110));
+    }
+
+    @Test
+    public void testFindBuildingsWithin() {
+        housing.setPosition(new Position(3, 4));
+        park.setPosition(new Position(3, 5));
+        addAll();
+        List<Building> found = map.findBuildingsWithin(0, 0, 5);
+        assertEquals(7, found.size());
+        assertFalse(found.contains(park));
+        assertEquals(Collections.singletonList(park), map.findBuildingsWithin(3, 6, 1));
+        assertTrue(map.findBuildingsWithin(10, 10, 2.5).isEmpty());
+        assertTrue(map.findBuildingsWithin(0, 0, -1).isEmpty());
+    }
+
+    @Test
+    public void testFindNearestBuildings() {
+        housing.setPosition(new Position(3, 4));
+        park.setPosition(new Position(-40, 0));
+        school.setPosition(new Position(1, 0));
+        addAll();
+        assertEquals(Arrays.asList(business, fireHall, hospital), map.findNearestBuildings(0, 0, 3));
+        assertEquals(Arrays.asList(housing, school), map.findNearestBuildings(3, 3, 2));
+        assertEquals(Collections.singletonList(park), map.findNearestBuildings(-100, 0, 1));
+        assertEquals(8, map.findNearestBuildings(0, 0, 20).size());
+        assertTrue(map.findNearestBuildings(0, 0, 0).isEmpty());
+        assertTrue(new Map().findNearestBuildings(0, 0, 3).isEmpty());
+    }
+
+    @Test
+    public void testSpatialQueriesMatchBruteForce() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            Position position = new Position(random.nextInt(300) - 150, random.nextInt(300) - 150);
+            map.addBuilding(new Housing("H" + i, 1, 1, position));
+        }
+        for (int i = 0; i < 300; i++) {
+            Building b = map.getBuilding(random.nextInt(map.getNumOfBuildings()));
+            if (random.nextBoolean()) {
+                map.removeBuilding(b);
+            } else {
+                b.setPosition(new Position(random.nextInt(300) - 150, random.nextInt(300) - 150));
+            }
+        }
+        for (int q = 0; q < 100; q++) {
+            int x = random.nextInt(400) - 200;
+            int y = random.nextInt(400) - 200;
+            int w = random.nextInt(60);
+            double radius = random.nextDouble() * 40;
+            int k = random.nextInt(30);
+
+            List<Building> inRectangle = new ArrayList<>();
+            List<Building> inRadius = new ArrayList<>();
+            List<Building> byDistance = new ArrayList<>(map.getBuildings());
+            for (Building b : map.getBuildings()) {
+                int bx = b.getPosition().getX();
+                int by = b.getPosition().getY();
+                if (bx >= x && bx <= x + w && by >= y && by <= y + w) {
+                    inRectangle.add(b);
+                }
+                if ((long) (bx - x) * (bx - x) + (long) (by - y) * (by - y) <= radius * radius) {
+                    inRadius.add(b);
+                }
+            }
+            byDistance.sort(Comparator.comparingLong((Building b) -> distanceSquared(b, x, y))
+                    .thenComparingLong(Building::getId));
+
+            assertEquals(sortedById(inRectangle), sortedById(map.findBuildingsIn(x, y, x + w, y + w)));
+            assertEquals(sortedById(inRadius), sortedById(map.findBuildingsWithin(x, y, radius)));
+            assertEquals(byDistance.subList(0, Math.min(k, byDistance.size())), map.findNearestBuildings(x, y, k));
+        }
+    }
+
+    @Test
+    public void testChunksCreatedAndDropped() {
+        assertEquals(0, map.getNumOfChunks());
+        housing.setPosition(new Position(-3_000_000, 5_000_000));
+        park.setPosition(new Position(63, 63));
+        school.setPosition(new Position(64, 0));
+        map.addBuilding(business);
+        map.addBuilding(housing);
+        map.addBuilding(park);
+        map.addBuilding(school);
+        assertEquals(3, map.getNumOfChunks());
+        assertSame(housing, map.findBuildingAtPosition(new Position(-3_000_000, 5_000_000)));
+        assertSame(park, map.findBuildingAtPosition(new Position(63, 63)));
+        assertNull(map.findBuildingAtPosition(new Position(-1, -1)));
+        assertEquals(Collections.singletonList(housing), map.findNearestBuildings(-2_999_000, 5_000_000, 1));
+
+        map.removeBuilding(housing);
+        school.setPosition(new Position(1, 1));
+        assertEquals(1, map.getNumOfChunks());
+        assertTrue(map.findBuildingsIn(-4_000_000, 0, -1, 6_000_000).isEmpty());
+    }
+
+    @Test
+    public void testStackedBuildingsAcrossMoves() {
+        map.addBuilding(business);
+        map.addBuilding(fireHall);
+        map.addBuilding(hospital);
+        assertSame(business, map.findBuildingAtPosition(Position.ORIGIN));
+        assertEquals(3, map.findBuildingsIn(0, 0, 0, 0).size());
+
+        business.setPosition(new Position(1, 0));
+        assertSame(fireHall, map.findBuildingAtPosition(Position.ORIGIN));
+        map.removeBuilding(fireHall);
+        assertSame(hospital, map.findBuildingAtPosition(Position.ORIGIN));
+        business.setPosition(Position.ORIGIN);
+        assertSame(hospital, map.findBuildingAtPosition(Position.ORIGIN));
+        map.removeBuilding(hospital);
+        assertSame(business, map.findBuildingAtPosition(Position.ORIGIN));
+        assertEquals(Collections.singletonList(business), map.findBuildingsIn(0, 0, 0, 0));
+    }
+
+    // EFFECTS: returns the square of the distance between a building and a cell
+    private static long distanceSquared(Building b, int x, int y) {
+        long dx = b.getPosition().getX() - x;
+        long dy = b.getPosition().getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    // EFFECTS: returns a copy of the given buildings sorted by ID
+    private static List<Building> sortedById(List<Building> buildings) {
+        List<Building> sorted = new ArrayList<>(buildings);
+        sorted.sort(Comparator.comparingLong(Building::getId));
+        return sorted;
+    }
+
+    // EFFECTS: returns a query with the given name prefix and type and no value bounds
+    private BuildingQuery query(String namePrefix, BuildingType type) {
+        return new BuildingQuery(namePrefix, type, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
     // MODIFIES: this
     // EFFECTS: add all field buildings to the map
     private void addAll() {
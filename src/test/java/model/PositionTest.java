@@ -31,6 +31,21 @@ public class PositionTest {
         assertNotEquals(p1.hashCode(), p2.hashCode());
     }
 
+    @Test
+    public void testKey() {
+        int[] coordinates = {0, 1, -1, 4, 5, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int x : coordinates) {
+            for (int y : coordinates) {
+                long key = Position.key(x, y);
+                assertEquals(x, Position.keyX(key));
+                assertEquals(y, Position.keyY(key));
+                assertEquals(key, new Position(x, y).toKey());
+            }
+        }
+        assertNotEquals(Position.key(4, 5), Position.key(5, 4));
+        assertNotEquals(Position.key(0, -1), Position.key(-1, 0));
+    }
+
     @Test
     public void testNotEqualsNull() {
         Position p1 = new Position(4, 5);
@@ -0,0 +1,382 @@
+package model;
+
+import model.buildings.Building;
+import model.buildings.BuildingType;
+import model.buildings.Housing;
+import model.buildings.Park;
+import model.buildings.PowerPlant;
+import model.rules.CityField;
+import model.rules.EnergyRule;
+import model.rules.ParallelRule;
+import model.rules.ParkAttractionRule;
+import model.rules.PowerPlantRule;
+import model.rules.Rule;
+import model.rules.RuleDelta;
+import model.rules.RuleStats;
+import model.rules.TaxRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleApplierTest {
+    private City city;
+    private RuleApplier applier;
+
+    @BeforeEach
+    public void setup() {
+        city = new City("Rules");
+        applier = city.getRuleApplier();
+    }
+
+    @Test
+    public void testDefaultRuleOrder() {
+        assertEquals(Arrays.asList("Power plants", "Energy", "Tax", "Parks"), names(applier.getRules()));
+    }
+
+    @Test
+    public void testApplyRulesPowerPlant() {
+        city.getMap().addBuilding(new PowerPlant("P", 1000, 10, Position.ORIGIN));
+        Housing neighbour = new Housing("H", 2000, 10, new Position(1, 0));
+        city.getMap().addBuilding(neighbour);
+        city.setTaxRate(TaxRule.NEUTRAL_TAX_RATE);
+        double attraction = city.getAttraction();
+        applier.applyRules();
+        assertEquals(1000, neighbour.getValue());
+        assertEquals(attraction - PowerPlantRule.POWER_PLANT_ATTRACTION_DEPRECIATION, city.getAttraction(), 1e-9);
+    }
+
+    @Test
+    public void testApplyRulesEnergyAndParks() {
+        city.getMap().addBuilding(new Park("P1", 100, 0.1, Position.ORIGIN));
+        city.getMap().addBuilding(new Park("P2", 100, 0.1, new Position(5, 5)));
+        city.updateEnergyUsage();
+        city.setTaxRate(TaxRule.NEUTRAL_TAX_RATE);
+        city.setMoney(5000);
+        double attraction = city.getAttraction();
+        applier.applyRules();
+        assertEquals(5000 - EnergyRule.ENERGY_OVER_CONSUMPTION_MONEY_PENALTY, city.getMoney());
+        assertEquals(attraction - EnergyRule.ENERGY_OVER_CONSUMPTION_ATTRACTION_DEPRECIATION
+                + 2 * ParkAttractionRule.PARK_ATTRACTION_MODIFIER, city.getAttraction(), 1e-9);
+    }
+
+    @Test
+    public void testApplyRulesRecordsStats() {
+        applier.applyRules();
+        applier.applyRules();
+        List<RuleStats> stats = applier.getStats();
+        assertEquals(4, stats.size());
+        for (RuleStats ruleStats : stats) {
+            assertEquals(2, ruleStats.getInvocations());
+            assertTrue(ruleStats.getTotalNanos() >= ruleStats.getMaxNanos());
+        }
+        applier.resetStats();
+        assertEquals(0, applier.getStats().get(0).getInvocations());
+        assertEquals(0, applier.getStats().get(0).getAverageNanos());
+    }
+
+    @Test
+    public void testAddRuleBeforeReaders() {
+        TestRule taxSetter = new TestRule("Tax setter", Collections.emptySet(),
+                Collections.singleton(CityField.TAX_RATE));
+        applier.addRule(taxSetter);
+        assertEquals(Arrays.asList("Power plants", "Energy", "Tax setter", "Tax", "Parks"),
+                names(applier.getRules()));
+        applier.applyRules();
+        assertEquals(0.5, city.getTaxRate());
+        assertEquals(1, applier.getStats().get(2).getInvocations());
+    }
+
+    @Test
+    public void testAddRuleAfterWriters() {
+        TestRule attractionReader = new TestRule("Attraction reader", EnumSet.of(CityField.ATTRACTION),
+                Collections.emptySet());
+        applier.addRule(attractionReader);
+        assertEquals(Arrays.asList("Power plants", "Energy", "Tax", "Parks", "Attraction reader"),
+                names(applier.getRules()));
+    }
+
+    @Test
+    public void testAddRuleCycle() {
+        applier.addRule(new TestRule("A", EnumSet.of(CityField.POPULATION), EnumSet.of(CityField.ENERGY_USAGE)));
+        applier.addRule(new TestRule("B", EnumSet.of(CityField.ENERGY_USAGE), EnumSet.of(CityField.ENERGY_CAPACITY)));
+        try {
+            applier.addRule(new TestRule("C", EnumSet.of(CityField.ENERGY_CAPACITY), EnumSet.of(CityField.POPULATION)));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(6, applier.getRules().size());
+    }
+
+    @Test
+    public void testAddRuleTwice() {
+        Rule rule = applier.getRules().get(0);
+        try {
+            applier.addRule(rule);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(4, applier.getRules().size());
+    }
+
+    @Test
+    public void testRemoveRule() {
+        Rule tax = applier.getRules().get(2);
+        assertTrue(applier.removeRule(tax));
+        assertFalse(applier.removeRule(tax));
+        assertEquals(Arrays.asList("Power plants", "Energy", "Parks"), names(applier.getRules()));
+        assertEquals(3, applier.getStats().size());
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        City serial = generateCity(5000);
+        City parallel = generateCity(5000);
+        parallel.getRuleApplier().setParallel(true);
+        for (int tick = 0; tick < 5; tick++) {
+            serial.applyRules();
+            serial.update();
+            parallel.applyRules();
+            parallel.update();
+        }
+        assertEquals(Double.doubleToLongBits(serial.getAttraction()),
+                Double.doubleToLongBits(parallel.getAttraction()));
+        assertEquals(serial.getMoney(), parallel.getMoney());
+        assertEquals(serial.getPopulation(), parallel.getPopulation());
+        for (int i = 0; i < serial.getMap().getNumOfBuildings(); i++) {
+            assertEquals(serial.getMap().getBuildings().get(i).getValue(),
+                    parallel.getMap().getBuildings().get(i).getValue());
+        }
+        assertEquals(5, parallel.getRuleApplier().getStats().get(0).getInvocations());
+    }
+
+    @Test
+    public void testParallelMatchesSerialWithDependentRules() {
+        City serial = generateCity(50000);
+        City parallel = generateCity(50000);
+        for (City city : Arrays.asList(serial, parallel)) {
+            city.getRuleApplier().addRule(new SpreadValueRule("Housing to parks", BuildingType.HOUSING,
+                    BuildingType.PARK));
+            city.getRuleApplier().addRule(new SpreadValueRule("Parks to housing", BuildingType.PARK,
+                    BuildingType.HOUSING));
+        }
+        parallel.getRuleApplier().setParallel(true);
+        assertEquals(Arrays.asList("Power plants", "Energy", "Tax", "Housing to parks", "Parks",
+                "Parks to housing"), names(parallel.getRuleApplier().getRules()));
+        for (int tick = 0; tick < 3; tick++) {
+            serial.applyRules();
+            serial.update();
+            parallel.applyRules();
+            parallel.update();
+        }
+        assertEquals(Double.doubleToLongBits(serial.getAttraction()),
+                Double.doubleToLongBits(parallel.getAttraction()));
+        assertEquals(serial.getMoney(), parallel.getMoney());
+        assertEquals(serial.getMap().getTotalValue(), parallel.getMap().getTotalValue());
+        for (int i = 0; i < serial.getMap().getNumOfBuildings(); i++) {
+            assertEquals(serial.getMap().getBuilding(i).getValue(), parallel.getMap().getBuilding(i).getValue());
+        }
+        parallel.getMap().verifyAggregates();
+    }
+
+    @Test
+    public void testParallelWaitsForWriters() {
+        applier.setParallel(true);
+        applier.addRule(new TestParallelRule("Tax setter", Collections.emptySet(), EnumSet.of(CityField.TAX_RATE)));
+        TestParallelRule reader = new TestParallelRule("Tax reader", EnumSet.of(CityField.TAX_RATE),
+                EnumSet.of(CityField.POPULATION));
+        applier.addRule(reader);
+        applier.applyRules();
+        assertEquals(0.5, reader.taxRateSeen);
+        assertEquals(1, applier.getStats().get(applier.getRules().indexOf(reader)).getInvocations());
+    }
+
+    /**
+     * Returns a reproducible city with the given number of buildings of every type,
+     * including power plants next to each other and buildings sharing a position.
+     */
+    private static City generateCity(int size) {
+        Random random = new Random(42);
+        City city = new City("Generated");
+        city.setMoney(100000);
+        city.setTaxRate(0.1);
+        int side = (int) Math.sqrt(size);
+        for (int i = 0; i < size; i++) {
+            Position position = new Position(random.nextInt(side), random.nextInt(side));
+            int value = random.nextInt(10000) - 100;
+            Building b;
+            switch (random.nextInt(4)) {
+                case 0:
+                    b = new PowerPlant("P" + i, value, 50, position);
+                    break;
+                case 1:
+                    b = new Park("K" + i, value, 0.1, position);
+                    break;
+                default:
+                    b = new Housing("H" + i, value, 10, position);
+                    break;
+            }
+            city.getMap().addBuilding(b);
+        }
+        return city;
+    }
+
+    /**
+     * Returns the names of the given rules.
+     */
+    private static List<String> names(List<Rule> rules) {
+        String[] names = new String[rules.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = rules.get(i).getName();
+        }
+        return Arrays.asList(names);
+    }
+
+    /**
+     * A rule that reads and writes the given fields, and sets the tax rate if it writes it.
+     */
+    private static class TestRule implements Rule {
+        private final String name;
+        private final Set<CityField> reads;
+        private final Set<CityField> writes;
+
+        TestRule(String name, Set<CityField> reads, Set<CityField> writes) {
+            this.name = name;
+            this.reads = reads;
+            this.writes = writes;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<CityField> getReadFields() {
+            return reads;
+        }
+
+        @Override
+        public Set<CityField> getWrittenFields() {
+            return writes;
+        }
+
+        @Override
+        public void apply(City city) {
+            if (writes.contains(CityField.TAX_RATE)) {
+                city.setTaxRate(0.5);
+            }
+        }
+    }
+
+    /**
+     * A parallel rule that adds a share of the total value of one type of building to the value of every
+     * building of another type, and to the city's money.
+     */
+    private static class SpreadValueRule implements ParallelRule {
+        private static final int SHARES = 97;
+        private final String name;
+        private final BuildingType from;
+        private final BuildingType to;
+
+        SpreadValueRule(String name, BuildingType from, BuildingType to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<BuildingType> getReadTypes() {
+            return EnumSet.of(from, to);
+        }
+
+        @Override
+        public Set<BuildingType> getWrittenTypes() {
+            return EnumSet.of(to);
+        }
+
+        @Override
+        public Set<CityField> getReadFields() {
+            return EnumSet.of(CityField.MONEY);
+        }
+
+        @Override
+        public Set<CityField> getWrittenFields() {
+            return EnumSet.of(CityField.MONEY);
+        }
+
+        @Override
+        public Set<CityField> getComputeReadFields() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void apply(City city) {
+            long total = 0;
+            for (Building b : city.getMap().getBuildingsFromType(from)) {
+                total += b.getValue();
+            }
+            int share = (int) (total % SHARES);
+            for (Building b : city.getMap().getBuildingsFromType(to)) {
+                b.setValue(b.getValue() + share);
+            }
+            city.setMoney(city.getMoney() + share);
+        }
+
+        @Override
+        public RuleDelta compute(City city, int[] values) {
+            Map map = city.getMap();
+            long total = 0;
+            for (Building b : map.getBuildingsFromType(from)) {
+                total += values[map.indexOf(b)];
+            }
+            int share = (int) (total % SHARES);
+            List<Building> targets = map.getBuildingsFromType(to);
+            int[] newValues = new int[targets.size()];
+            for (int i = 0; i < newValues.length; i++) {
+                newValues[i] = values[map.indexOf(targets.get(i))] + share;
+            }
+            return target -> {
+                List<Building> buildings = target.getMap().getBuildingsFromType(to);
+                for (int i = 0; i < newValues.length; i++) {
+                    buildings.get(i).setValue(newValues[i]);
+                }
+                target.setMoney(target.getMoney() + share);
+            };
+        }
+    }
+
+    /**
+     * A parallel rule that remembers the tax rate it saw, and sets the tax rate if it writes it.
+     */
+    private static class TestParallelRule extends TestRule implements ParallelRule {
+        private double taxRateSeen;
+
+        TestParallelRule(String name, Set<CityField> reads, Set<CityField> writes) {
+            super(name, reads, writes);
+        }
+
+        @Override
+        public RuleDelta compute(City city, int[] values) {
+            double taxRate = city.getTaxRate();
+            return target -> {
+                taxRateSeen = taxRate;
+                apply(target);
+            };
+        }
+    }
+}
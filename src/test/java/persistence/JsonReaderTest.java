@@ -3,9 +3,13 @@ package persistence;
 import model.City;
 import model.Position;
 import model.buildings.*;
+import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -158,4 +162,86 @@ public class JsonReaderTest extends JsonTest {
             fail("Failed to read building from existent file.");
         }
     }
+
+    @Test
+    public void testLoadFieldsInAnyOrder() throws IOException {
+        File file = writeTempFile("{\"map\": {\"extra\": [1, 2], \"buildings\": [{\"name\": \"p\", "
+                + "\"type\": \"PARK\", \"value\": 5, \"valueModifier\": 1.5, \"position\": [1, 2]}]},\n"
+                + "\"taxRate\": 0.1, \"unknown\": {\"a\": \"b\"}, \"money\": 7,\n"
+                + "\"attraction\": 2.5, \"population\": 3, \"name\": \"Out of\\norder\"}");
+        City city = new JsonReader(file.getPath()).read();
+        assertEquals("Out of\norder", city.getName());
+        assertEquals(3, city.getPopulation());
+        assertEquals(7, city.getMoney());
+        assertEquals(2.5, city.getAttraction());
+        assertEquals(0.1, city.getTaxRate());
+        checkBuilding("p", 5, new Position(1, 2), city.getMap().getBuilding(0));
+        checkPark(1.5, (Park) city.getMap().getBuilding(0));
+    }
+
+    @Test
+    public void testLoadIds() throws IOException {
+        File file = writeTempFile("{\"name\": \"Ids\", \"population\": 0, \"money\": 0, \"attraction\": 1.0, "
+                + "\"taxRate\": 0.1, \"map\": {\"buildings\": ["
+                + "{\"id\": 7, \"name\": \"a\", \"type\": \"POWER_PLANT\", \"value\": 5, \"productionRate\": 1, "
+                + "\"position\": [0, 0]},"
+                + "{\"name\": \"b\", \"type\": \"POWER_PLANT\", \"value\": 5, \"productionRate\": 1, "
+                + "\"position\": [0, 1]}]}}");
+        City city = new JsonReader(file.getPath()).read();
+        assertEquals(7, city.getMap().getBuilding(0).getId());
+        assertEquals(8, city.getMap().getBuilding(1).getId());
+        assertEquals("a", city.getMap().getBuildingById(7).getName());
+    }
+
+    @Test
+    public void testLoadMissingField() throws IOException {
+        File file = writeTempFile("{\"name\": \"Tokyo 2\", \"map\": {\"buildings\": []}}");
+        try {
+            new JsonReader(file.getPath()).read();
+            fail("read() should have failed with JSONException");
+        } catch (JSONException e) {
+            // pass test
+        }
+    }
+
+    @Test
+    public void testLoadTrailingContent() throws IOException {
+        checkInvalid("{\"name\": \"a\", \"population\": 0, \"money\": 0, \"attraction\": 1.0, "
+                + "\"taxRate\": 0.1, \"map\": {\"buildings\": []}} {}");
+    }
+
+    @Test
+    public void testLoadMissingBuildings() throws IOException {
+        checkInvalid("{\"name\": \"a\", \"population\": 0, \"money\": 0, \"attraction\": 1.0, "
+                + "\"taxRate\": 0.1, \"map\": {}}");
+    }
+
+    @Test
+    public void testLoadDuplicateKey() throws IOException {
+        String buildings = "{\"buildings\": [{\"name\": \"p\", \"type\": \"PARK\", \"value\": 5, "
+                + "\"valueModifier\": 1.5, \"position\": [1, 2]}]}";
+        checkInvalid("{\"name\": \"a\", \"population\": 0, \"money\": 0, \"attraction\": 1.0, "
+                + "\"taxRate\": 0.1, \"map\": " + buildings + ", \"map\": " + buildings + "}");
+        checkInvalid("{\"name\": \"a\", \"name\": \"b\", \"population\": 0, \"money\": 0, "
+                + "\"attraction\": 1.0, \"taxRate\": 0.1, \"map\": {\"buildings\": []}}");
+    }
+
+    // EFFECTS: fails unless reading a file with the given contents throws a JSONException
+    private void checkInvalid(String contents) throws IOException {
+        File file = writeTempFile(contents);
+        try {
+            new JsonReader(file.getPath()).read();
+            fail("read() should have failed with JSONException");
+        } catch (JSONException e) {
+            // pass test
+        }
+    }
+
+    // EFFECTS: writes the given contents to a temporary file that is deleted on exit
+    private File writeTempFile(String contents) throws IOException {
+        File file = File.createTempFile("mini_city", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
 }
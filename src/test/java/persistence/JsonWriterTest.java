@@ -4,13 +4,19 @@ import model.City;
 import model.Map;
 import model.Position;
 import model.buildings.*;
+import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class JsonWriterTest extends JsonTest {
@@ -37,10 +43,11 @@ public class JsonWriterTest extends JsonTest {
 
     @Test
     public void testSaveEmpty() {
-        JsonWriter writer = new JsonWriter("./data/testSaveEmpty.json");
         try {
+            File file = createTempFile();
+            JsonWriter writer = new JsonWriter(file.getPath());
             writer.writeAndClose(city);
-            JsonReader reader = new JsonReader("./data/testSaveEmpty.json");
+            JsonReader reader = new JsonReader(file.getPath());
             city = reader.read();
 
             assertEquals("Tokyo 2", city.getName());
@@ -147,19 +154,67 @@ public class JsonWriterTest extends JsonTest {
         checkSchool(400, 2000, school);
     }
 
+    @Test
+    public void testSaveMatchesCitySchema() throws IOException {
+        addBuildings();
+        File file = createTempFile();
+        new JsonWriter(file.getPath()).writeAndClose(city);
+
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(new JSONObject(contents).similar(new JSONObject(city.toJson().toString())));
+        assertTrue(contents.contains("\n"));
+    }
+
+    @Test
+    public void testSaveCompact() throws IOException {
+        addBuildings();
+        File file = createTempFile();
+        JsonWriter writer = new JsonWriter(file.getPath());
+        writer.setPrettyPrint(false);
+        writer.writeAndClose(city);
+
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertFalse(contents.contains("\n"));
+        assertTrue(new JSONObject(contents).similar(new JSONObject(city.toJson().toString())));
+        assertEquals(8, new JsonReader(file.getPath()).read().getMap().getNumOfBuildings());
+    }
+
     // MODIFIES: this
     // EFFECTS: saves the current city and loads it back in
     private void saveAndLoad() {
-        JsonWriter writer = new JsonWriter("./data/testSaveRegular.json");
         try {
+            File file = createTempFile();
+            JsonWriter writer = new JsonWriter(file.getPath());
             writer.writeAndClose(city);
-            JsonReader reader = new JsonReader("./data/testSaveRegular.json");
+            JsonReader reader = new JsonReader(file.getPath());
             city = reader.read();
         } catch (IOException e) {
             fail("IOException thrown when not expected");
         }
     }
 
+    @Test
+    public void testSaveKeepsIds() {
+        addBuildings();
+        Map map = city.getMap();
+        map.removeBuilding(map.getBuilding(2));
+        long[] ids = new long[map.getNumOfBuildings()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = map.getBuilding(i).getId();
+        }
+        saveAndLoad();
+
+        map = city.getMap();
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], map.getBuilding(i).getId());
+        }
+        Housing added = new Housing("9", 100, 10, Position.ORIGIN);
+        map.addBuilding(added);
+        for (long id : ids) {
+            assertTrue(added.getId() > id);
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: add a building of every type to map
     private void addBuildings() {
@@ -195,4 +250,11 @@ public class JsonWriterTest extends JsonTest {
         school.setStudents(400);
         map.addBuilding(school);
     }
+
+    // EFFECTS: creates a temporary file that is deleted on exit, so saving never touches ./data
+    private File createTempFile() throws IOException {
+        File file = File.createTempFile("mini_city", ".json");
+        file.deleteOnExit();
+        return file;
+    }
 }
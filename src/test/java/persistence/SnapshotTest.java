@@ -0,0 +1,235 @@
+package persistence;
+
+import model.City;
+import model.Map;
+import model.Position;
+import model.buildings.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class SnapshotTest extends JsonTest {
+    private City city;
+    private File file;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        city = new City("Tokyo 2");
+        city.setPopulation(5000);
+        city.setMoney(1000);
+        city.setAttraction(0.75);
+        city.setTaxRate(0.1);
+        file = File.createTempFile("mini_city", ".snapshot");
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void testSaveEmpty() throws IOException {
+        saveAndLoad();
+        assertEquals("Tokyo 2", city.getName());
+        assertEquals(5000, city.getPopulation());
+        assertEquals(1000, city.getMoney());
+        assertEquals(0.75, city.getAttraction());
+        assertEquals(0.1, city.getTaxRate());
+        assertEquals(0, city.getMap().getNumOfBuildings());
+    }
+
+    @Test
+    public void testSaveRegularCity() throws IOException {
+        addBuildings();
+        saveAndLoad();
+        Map map = city.getMap();
+        assertEquals(9, map.getNumOfBuildings());
+
+        checkBuilding("1", 3000, new Position(0, 5), map.getBuilding(0));
+        checkBusiness(30, 200, (Business) map.getBuilding(0));
+        checkBuilding("2", 6000, new Position(16, 4), map.getBuilding(1));
+        checkFireHall(50, (FireHall) map.getBuilding(1));
+        checkBuilding("3", 10000, new Position(10, 5), map.getBuilding(2));
+        checkHospital(40, (Hospital) map.getBuilding(2));
+        checkBuilding("4", 2000, new Position(7, 2), map.getBuilding(3));
+        checkHousing(500, 2000, (Housing) map.getBuilding(3));
+        checkBuilding("5", 5000, new Position(2, 10), map.getBuilding(4));
+        checkLandfill(30, 1000, (Landfill) map.getBuilding(4));
+        checkBuilding("6", 2000, new Position(-1, 2), map.getBuilding(5));
+        checkPark(1.25, (Park) map.getBuilding(5));
+        checkBuilding("7", 8000, new Position(2, 3), map.getBuilding(6));
+        checkPowerPlant(300, (PowerPlant) map.getBuilding(6));
+        checkBuilding("8", 20000, new Position(4, 5), map.getBuilding(7));
+        checkSchool(400, 2000, (School) map.getBuilding(7));
+        checkBuilding("4", 100, new Position(8, 2), map.getBuilding(8));
+        checkHousing(0, 10, (Housing) map.getBuilding(8));
+    }
+
+    @Test
+    public void testSaveKeepsIds() throws IOException {
+        addBuildings();
+        Map map = city.getMap();
+        map.removeBuilding(map.getBuilding(0));
+        long[] ids = new long[map.getNumOfBuildings()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = map.getBuilding(i).getId();
+        }
+        saveAndLoad();
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], city.getMap().getBuilding(i).getId());
+        }
+    }
+
+    @Test
+    public void testLoadVersionWithoutIds() throws IOException {
+        byte[] name = "Old".getBytes(StandardCharsets.UTF_8);
+        byte[] buildingName = "H".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.putInt(SnapshotFormat.MAGIC).putInt(SnapshotFormat.VERSION_WITHOUT_IDS);
+        buffer.putInt(name.length).put(name);
+        buffer.putInt(100).putInt(200).putDouble(0.5).putDouble(0.2);
+        buffer.putInt(1).putInt(buildingName.length).put(buildingName);
+        buffer.putInt(2);
+        for (int i = 0; i < 2; i++) {
+            buffer.put((byte) BuildingType.HOUSING.ordinal()).putInt(0).putInt(i).putInt(3)
+                    .putInt(1000 + i).putLong(50).putInt(10 + i);
+        }
+        Files.write(file.toPath(), Arrays.copyOf(buffer.array(), buffer.position()));
+
+        city = new SnapshotReader(file.getPath()).read();
+        assertEquals("Old", city.getName());
+        assertEquals(200, city.getMoney());
+        Map map = city.getMap();
+        assertEquals(2, map.getNumOfBuildings());
+        checkBuilding("H", 1000, new Position(0, 3), map.getBuilding(0));
+        checkHousing(10, 50, (Housing) map.getBuilding(0));
+        checkBuilding("H", 1001, new Position(1, 3), map.getBuilding(1));
+        checkHousing(11, 50, (Housing) map.getBuilding(1));
+        assertNotEquals(Building.NO_ID, map.getBuilding(0).getId());
+        assertNotEquals(map.getBuilding(0).getId(), map.getBuilding(1).getId());
+    }
+
+    @Test
+    public void testLoadNotSnapshot() {
+        try {
+            new SnapshotReader("./data/testCityRegular.json").read();
+            fail("read() should have failed with IOException");
+        } catch (IOException e) {
+            // pass test
+        }
+    }
+
+    @Test
+    public void testLoadTruncated() throws IOException {
+        addBuildings();
+        new SnapshotWriter(file.getPath()).write(city);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 10));
+        try {
+            new SnapshotReader(file.getPath()).read();
+            fail("read() should have failed with IOException");
+        } catch (IOException e) {
+            // pass test
+        }
+    }
+
+    @Test
+    public void testLoadCorruptLengths() throws IOException {
+        addBuildings();
+        new SnapshotWriter(file.getPath()).write(city);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int nameLength = 8;
+        int nameCount = nameLength + 4 + "Tokyo 2".length() + 4 + 4 + 8 + 8;
+        for (int offset : new int[]{nameLength, nameCount}) {
+            for (int length : new int[]{-1, Integer.MAX_VALUE}) {
+                ByteBuffer corrupt = ByteBuffer.wrap(bytes.clone());
+                corrupt.putInt(offset, length);
+                Files.write(file.toPath(), corrupt.array());
+                try {
+                    new SnapshotReader(file.getPath()).read();
+                    fail("read() should have failed with IOException");
+                } catch (IOException e) {
+                    // pass test
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLoadCorruptNameIndex() throws IOException {
+        city.getMap().addBuilding(new Park("6", 2000, 1.25, new Position(-1, 2)));
+        new SnapshotWriter(file.getPath()).write(city);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int nameIndex = bytes.length - SnapshotFormat.RECORD_SIZE + 8 + 1;
+        for (int index : new int[]{-1, 1}) {
+            ByteBuffer corrupt = ByteBuffer.wrap(bytes.clone());
+            corrupt.putInt(nameIndex, index);
+            Files.write(file.toPath(), corrupt.array());
+            try {
+                new SnapshotReader(file.getPath()).read();
+                fail("read() should have failed with IOException");
+            } catch (IOException e) {
+                assertEquals("Corrupt snapshot", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testSaveFormatRoundTrip() throws IOException {
+        addBuildings();
+        for (SaveFormat format : SaveFormat.values()) {
+            format.save(city, file.getPath());
+            City loaded = format.load(file.getPath());
+            assertEquals(city.getName(), loaded.getName());
+            assertEquals(9, loaded.getMap().getNumOfBuildings());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: saves the current city as a snapshot and loads it back in
+    private void saveAndLoad() throws IOException {
+        new SnapshotWriter(file.getPath()).write(city);
+        city = new SnapshotReader(file.getPath()).read();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: add a building of every type to map, plus a building with a repeated name
+    private void addBuildings() {
+        Map map = city.getMap();
+
+        Business business = new Business("1", 3000, 200, new Position(0, 5));
+        business.setWorkers(30);
+        map.addBuilding(business);
+
+        FireHall fireHall = new FireHall("2", 6000, new Position(16, 4));
+        fireHall.setTrucks(50);
+        map.addBuilding(fireHall);
+
+        Hospital hospital = new Hospital("3", 10000, new Position(10, 5));
+        hospital.setAmbulances(40);
+        map.addBuilding(hospital);
+
+        Housing housing = new Housing("4", 2000, 2000, new Position(7, 2));
+        housing.setResidents(500);
+        map.addBuilding(housing);
+
+        Landfill landfill = new Landfill("5", 5000, 1000, new Position(2, 10));
+        landfill.setTrucks(30);
+        map.addBuilding(landfill);
+
+        map.addBuilding(new Park("6", 2000, 1.25, new Position(-1, 2)));
+        map.addBuilding(new PowerPlant("7", 8000, 300, new Position(2, 3)));
+
+        School school = new School("8", 20000, 2000, new Position(4, 5));
+        school.setStudents(400);
+        map.addBuilding(school);
+
+        map.addBuilding(new Housing("4", 100, 10, new Position(8, 2)));
+    }
+}
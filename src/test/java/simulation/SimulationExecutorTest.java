@@ -0,0 +1,141 @@
+package simulation;
+
+import model.City;
+import model.CitySnapshot;
+import model.LayoutDelta;
+import model.Position;
+import model.buildings.Housing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.SaveFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationExecutorTest {
+    private static final long TIMEOUT = 5;
+    private BlockingQueue<CitySnapshot> snapshots;
+    private BlockingQueue<Object> results;
+    private SimulationExecutor executor;
+
+    @BeforeEach
+    public void setup() {
+        City city = new City("Tokyo 2");
+        city.getMap().addBuilding(new Housing("H1", 2000, 200, Position.ORIGIN));
+        snapshots = new LinkedBlockingQueue<>();
+        results = new LinkedBlockingQueue<>();
+        executor = new SimulationExecutor(city, Runnable::run, snapshots::add);
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testTakeSnapshot() {
+        CitySnapshot snapshot = executor.takeSnapshot();
+        assertEquals("Tokyo 2", snapshot.getName());
+        assertEquals(1, snapshot.getNumOfBuildings());
+        assertEquals("H1", snapshot.getBuildingName(0));
+        assertTrue(executor.takeSnapshot().getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    public void testSubmitPublishesSnapshot() throws InterruptedException {
+        executor.submit(city -> city.getMap().addBuilding(new Housing("H2", 100, 10, new Position(1, 2))));
+        CitySnapshot snapshot = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(snapshot);
+        assertEquals(2, snapshot.getNumOfBuildings());
+        assertEquals(1, snapshot.findBuildingAt(1, 2));
+    }
+
+    @Test
+    public void testSubmitSnapshotBeforeResult() throws InterruptedException {
+        List<Object> delivered = new ArrayList<>();
+        executor = new SimulationExecutor(new City("Tokyo 2"), Runnable::run, delivered::add);
+        executor.submit(city -> {
+            city.setName("Vancouver");
+            return "done";
+        }, result -> {
+            delivered.add(result);
+            results.add(result);
+        });
+
+        assertEquals("done", results.poll(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(2, delivered.size());
+        assertEquals("Vancouver", ((CitySnapshot) delivered.get(0)).getName());
+    }
+
+    @Test
+    public void testSnapshotLayoutDelta() throws InterruptedException {
+        executor.takeSnapshot();
+        executor.submit(city -> city.getMap().addBuilding(new Housing("H2", 100, 10, new Position(1, 2))));
+        CitySnapshot snapshot = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(snapshot.getLayoutDelta());
+        assertEquals(1, snapshot.getLayoutDelta().size());
+        assertEquals(LayoutDelta.Kind.ADDED, snapshot.getLayoutDelta().getKind(0));
+        assertEquals(1, snapshot.getLayoutDelta().getIndex(0));
+        assertEquals(2, snapshot.getLayoutDelta().getY(0));
+    }
+
+    @Test
+    public void testSnapshotChanges() throws InterruptedException {
+        executor.takeSnapshot();
+        executor.submit(city -> {
+            city.getMap().getBuilding(0).setValue(500);
+            city.setTaxRate(0.3);
+        });
+        CitySnapshot snapshot = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(snapshot.getChanges());
+        assertTrue(snapshot.getChanges().isValueChanged(snapshot.getBuilding(0)));
+        assertTrue(snapshot.getChanges().isTaxRateChanged());
+        assertFalse(snapshot.getChanges().isNameChanged());
+        assertFalse(snapshot.getChanges().isLayoutChanged());
+        assertEquals(500, snapshot.getValue(0));
+    }
+
+    @Test
+    public void testLoadHasNoLayoutDelta() throws InterruptedException {
+        executor.takeSnapshot();
+        executor.load(SaveFormat.JSON, "./data/testCityRegular.json", results::add);
+        assertNull(results.poll(TIMEOUT, TimeUnit.SECONDS));
+        CitySnapshot snapshot = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNull(snapshot.getLayoutDelta());
+        assertNull(snapshot.getChanges());
+    }
+
+    @Test
+    public void testQueryDoesNotPublish() throws InterruptedException {
+        executor.query(city -> city.getMap().getNumOfBuildings(), results::add);
+        assertEquals(1, results.poll(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(snapshots.isEmpty());
+    }
+
+    @Test
+    public void testTickPublishesSnapshot() throws InterruptedException {
+        executor.start(1);
+        CitySnapshot first = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        CitySnapshot second = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertTrue(second.getVersion() > first.getVersion());
+        assertTrue(second.getSummary().getFields().containsKey("Population"));
+    }
+
+    @Test
+    public void testLoadFailureKeepsCity() throws InterruptedException {
+        executor.load(SaveFormat.JSON, "./data/doesNotExist.json", results::add);
+        assertTrue(results.poll(TIMEOUT, TimeUnit.SECONDS) instanceof IOException);
+        CitySnapshot snapshot = snapshots.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(snapshot);
+        assertEquals("Tokyo 2", snapshot.getName());
+    }
+}
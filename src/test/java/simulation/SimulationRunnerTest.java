@@ -0,0 +1,53 @@
+package simulation;
+
+import model.City;
+import model.Position;
+import model.buildings.Housing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SimulationRunnerTest {
+    private City city;
+    private SimulationRunner runner;
+
+    @BeforeEach
+    public void setup() {
+        city = new City("Tokyo 2");
+        city.getMap().addBuilding(new Housing("H1", 2000, 200, Position.ORIGIN));
+        runner = new SimulationRunner(city);
+    }
+
+    @Test
+    public void testNoTicks() {
+        assertEquals(0, runner.getTicksRun());
+        assertEquals(0, runner.getTicksPerSecond());
+    }
+
+    @Test
+    public void testRun() {
+        runner.run(3);
+        runner.run(2);
+        assertEquals(5, runner.getTicksRun());
+        assertTrue(runner.getTicksPerSecond() > 0);
+        assertEquals(200, city.getHousingCapacity());
+        assertTrue(city.getPopulation() > 0);
+    }
+
+    @Test
+    public void testRunNegativeTicks() {
+        assertThrows(IllegalArgumentException.class, () -> runner.run(-1));
+        assertEquals(0, runner.getTicksRun());
+    }
+
+    @Test
+    public void testParseTicks() {
+        assertEquals(0, SimulationRunner.parseTicks("0"));
+        assertEquals(12, SimulationRunner.parseTicks("12"));
+        assertThrows(IllegalArgumentException.class, () -> SimulationRunner.parseTicks("-1"));
+        assertThrows(IllegalArgumentException.class, () -> SimulationRunner.parseTicks("ten"));
+    }
+}